@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Архив AppCDS (JDK 21) для холодного старта и замер времени до первого запроса.
+#
+#   scripts/appcds.sh [прогонов]
+#
+# JAVA_OPTS        - дополнительные флаги JVM, например -Duser-service.hibernate-config=...
+# EXTRA_CLASSPATH  - jar-файлы, которых нет в runtime-зависимостях (например, драйвер H2 для локального замера)
+#
+# AppCDS архивирует классы только из jar, поэтому используется собранный артефакт, а не target/classes.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-5}"
+ARCHIVE=target/app-cds.jsa
+MAIN=com.example.StartupProbe
+
+mvn -B -q -DskipTests package dependency:build-classpath \
+    -Dmdep.includeScope=runtime -Dmdep.outputFile=target/runtime-classpath.txt
+
+JAR=$(ls target/user-service-*.jar | head -n 1)
+CP="$JAR:$(cat target/runtime-classpath.txt)${EXTRA_CLASSPATH:+:$EXTRA_CLASSPATH}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+
+echo "== Обучающий прогон, запись $ARCHIVE"
+rm -f "$ARCHIVE"
+# shellcheck disable=SC2086
+java $JAVA_OPTS -XX:ArchiveClassesAtExit="$ARCHIVE" -Xlog:cds=off -Xlog:cds+dynamic=off -cp "$CP" "$MAIN" > /dev/null
+
+measure() {
+    local label=$1
+    shift
+    echo "== $label"
+    for _ in $(seq "$RUNS"); do
+        local start end
+        start=$(date +%s%N)
+        # shellcheck disable=SC2086
+        java $JAVA_OPTS "$@" -cp "$CP" "$MAIN"
+        end=$(date +%s%N)
+        echo "   процесс целиком: $(( (end - start) / 1000000 )) мс"
+    done
+}
+
+measure "Без CDS-архива приложения" -Xshare:auto
+measure "С AppCDS" -XX:SharedArchiveFile="$ARCHIVE"
@@ -0,0 +1,71 @@
+package com.example.benchmark;
+
+import com.example.dao.UserDao;
+import com.example.entity.User;
+import com.example.util.ConnectionPoolMetrics;
+import com.example.util.DataSourceFactory;
+import com.example.util.EmbeddedHibernateUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Встроенная H2 в памяти процесса за тем же пулом HikariCP, что и в приложении
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final AtomicLong databases = new AtomicLong();
+
+    private final HikariDataSource dataSource;
+    private final SessionFactory sessionFactory;
+
+    BenchmarkDatabase(String name) {
+        this(name, Map.of());
+    }
+
+    BenchmarkDatabase(String name, Map<String, Object> overrides) {
+        String url = "jdbc:h2:mem:" + name + "_" + databases.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+        Map<String, Object> poolSettings = new HashMap<>();
+        poolSettings.put(AvailableSettings.URL, url);
+        poolSettings.put(AvailableSettings.USER, "sa");
+        poolSettings.put(AvailableSettings.PASS, "");
+        poolSettings.put(DataSourceFactory.POOL_PREFIX + "maximumPoolSize", "16");
+        dataSource = DataSourceFactory.create(poolSettings, new ConnectionPoolMetrics());
+
+        Map<String, Object> settings = new HashMap<>(overrides);
+        settings.put(AvailableSettings.DATASOURCE, dataSource);
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactoryForUrl(url, settings);
+    }
+
+    SessionFactory sessionFactory() {
+        return sessionFactory;
+    }
+
+    @Override
+    public void close() {
+        sessionFactory.close();
+        dataSource.close();
+    }
+
+    static List<User> seed(UserDao userDao, int rows, String prefix) {
+        List<User> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            users.add(newUser(prefix + i));
+        }
+        return userDao.saveAll(users);
+    }
+
+    static User newUser(String key) {
+        return User.builder()
+                .name("Bench User " + key)
+                .email(key + "@bench.example.com")
+                .age(30)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
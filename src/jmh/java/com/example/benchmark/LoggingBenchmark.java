@@ -0,0 +1,102 @@
+package com.example.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import com.example.util.LoggingControl;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// legacy - прежние show_sql/format_sql и синхронные SQL-логи, production - асинхронный logback.xml без SQL,
+// production-sql - тот же профиль с SQL, включённым на лету через LoggingControl
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final Path LOG_DIR = Path.of("target", "bench-logs");
+
+    @Param({"legacy", "production", "production-sql"})
+    public String profile;
+
+    @Param("1000")
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private UserDao userDao;
+    private List<User> seeded;
+    private PrintStream originalOut;
+    private PrintStream redirectedOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path dir = LOG_DIR.resolve(profile);
+        Files.createDirectories(dir);
+        System.setProperty("LOG_DIR", dir.toString());
+
+        // stdout форка JMH пересылает в родительский процесс, поэтому консоль уходит в файл как в продакшене
+        originalOut = System.out;
+        redirectedOut = new PrintStream(new FileOutputStream(dir.resolve("stdout.log").toFile()), false);
+        System.setOut(redirectedOut);
+
+        boolean legacy = profile.equals("legacy");
+        reconfigure(legacy ? "/logback-legacy.xml" : "/logback.xml");
+        if (profile.equals("production-sql")) {
+            LoggingControl.setSqlLogging(true);
+        }
+
+        database = new BenchmarkDatabase("logging_" + profile.replace('-', '_'), Map.of(
+                AvailableSettings.SHOW_SQL, String.valueOf(legacy),
+                AvailableSettings.FORMAT_SQL, String.valueOf(legacy)));
+        userDao = new UserDaoImpl(database.sessionFactory());
+        seeded = BenchmarkDatabase.seed(userDao, rows, "log");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+        reconfigure("/logback-benchmark.xml");
+        System.setOut(originalOut);
+        redirectedOut.close();
+    }
+
+    @Benchmark
+    public User findById() {
+        return userDao.findById(randomSeeded().getId()).orElseThrow();
+    }
+
+    @Benchmark
+    public User updateFields() {
+        User user = randomSeeded();
+        return userDao.updateFields(user.getId(), null, null, ThreadLocalRandom.current().nextInt(18, 90))
+                .orElseThrow();
+    }
+
+    private User randomSeeded() {
+        return seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+    }
+
+    private static void reconfigure(String resource) throws Exception {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(LoggingBenchmark.class.getResource(resource));
+    }
+}
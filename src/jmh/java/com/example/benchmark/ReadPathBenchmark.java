@@ -0,0 +1,51 @@
+package com.example.benchmark;
+
+import com.example.dao.UserView;
+import com.example.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Сущности в read-only сессии против проекций UserView через StatelessSession; аллокации смотреть в -prof gc
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class ReadPathBenchmark {
+
+    @Benchmark
+    public Optional<User> findById(UserDaoState state) {
+        return state.userDao.findById(state.randomSeeded().getId());
+    }
+
+    @Benchmark
+    public Optional<UserView> findViewById(UserDaoState state) {
+        return state.userDao.findViewById(state.randomSeeded().getId());
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail(UserDaoState state) {
+        return state.userDao.findByEmail(state.randomSeeded().getEmail());
+    }
+
+    @Benchmark
+    public Optional<UserView> findViewByEmail(UserDaoState state) {
+        return state.userDao.findViewByEmail(state.randomSeeded().getEmail());
+    }
+
+    @Benchmark
+    public List<User> findAll(UserDaoState state) {
+        return state.userDao.findAll();
+    }
+
+    @Benchmark
+    public List<UserView> streamViews(UserDaoState state) {
+        try (Stream<UserView> views = state.userDao.streamViews(500)) {
+            return views.toList();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.benchmark;
+
+import com.example.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Общий набор операций UserDao; число потоков задают наследники
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public abstract class UserDaoBenchmark {
+
+    @State(Scope.Thread)
+    public static class DeleteTarget {
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void prepare(UserDaoState state) {
+            id = state.userDao.save(BenchmarkDatabase.newUser(state.nextKey("delete"))).getId();
+        }
+    }
+
+    @Benchmark
+    public User save(UserDaoState state) {
+        return state.userDao.save(BenchmarkDatabase.newUser(state.nextKey("save")));
+    }
+
+    // Та же сотня строк по одной транзакции на строку - база для сравнения с saveAll100
+    @Benchmark
+    public void save100(UserDaoState state, Blackhole blackhole) {
+        for (int i = 0; i < 100; i++) {
+            blackhole.consume(state.userDao.save(BenchmarkDatabase.newUser(state.nextKey("single"))));
+        }
+    }
+
+    @Benchmark
+    public List<User> saveAll100(UserDaoState state) {
+        List<User> users = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            users.add(BenchmarkDatabase.newUser(state.nextKey("batch")));
+        }
+        return state.userDao.saveAll(users);
+    }
+
+    @Benchmark
+    public Optional<User> findById(UserDaoState state) {
+        return state.userDao.findById(state.randomSeeded().getId());
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail(UserDaoState state) {
+        return state.userDao.findByEmail(state.randomSeeded().getEmail());
+    }
+
+    // Те же 100 id по одному запросу на id - база для сравнения с findAllByIds100
+    @Benchmark
+    public void findById100(UserDaoState state, Blackhole blackhole) {
+        for (int i = 0; i < 100; i++) {
+            blackhole.consume(state.userDao.findById(state.randomSeeded().getId()));
+        }
+    }
+
+    @Benchmark
+    public Map<Long, User> findAllByIds100(UserDaoState state) {
+        List<Long> ids = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            ids.add(state.randomSeeded().getId());
+        }
+        return state.userDao.findAllByIds(ids);
+    }
+
+    @Benchmark
+    public List<User> findAll(UserDaoState state) {
+        return state.userDao.findAll();
+    }
+
+    @Benchmark
+    public void streamAll(UserDaoState state, Blackhole blackhole) {
+        try (Stream<User> users = state.userDao.streamAll(500)) {
+            users.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public User update(UserDaoState state) {
+        User source = state.randomSeeded();
+        // Отдельный detached-экземпляр на вызов, чтобы потоки не делили одну сущность
+        User user = User.builder()
+                .id(source.getId())
+                .name(source.getName())
+                .email(source.getEmail())
+                .age(ThreadLocalRandom.current().nextInt(18, 90))
+                .createdAt(source.getCreatedAt())
+                .build();
+        return state.userDao.update(user);
+    }
+
+    @Benchmark
+    public Optional<User> updateFields(UserDaoState state) {
+        return state.userDao.updateFields(state.randomSeeded().getId(), null, null, ThreadLocalRandom.current().nextInt(18, 90));
+    }
+
+    @Benchmark
+    public boolean delete(UserDaoState state, DeleteTarget target) {
+        return state.userDao.delete(target.id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+@Threads(1)
+public class UserDaoSingleThreadBenchmark extends UserDaoBenchmark {
+}
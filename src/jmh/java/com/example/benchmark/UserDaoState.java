@@ -0,0 +1,42 @@
+package com.example.benchmark;
+
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+public class UserDaoState {
+
+    @Param("1000")
+    public int rows;
+
+    final AtomicLong sequence = new AtomicLong();
+    BenchmarkDatabase database;
+    UserDao userDao;
+    List<User> seeded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase("dao");
+        userDao = new UserDaoImpl(database.sessionFactory());
+        seeded = BenchmarkDatabase.seed(userDao, rows, "seed");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    User randomSeeded() {
+        return seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+    }
+
+    String nextKey(String prefix) {
+        return prefix + sequence.incrementAndGet();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.benchmark;
+
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import com.example.service.CachingUserService;
+import com.example.service.CoalescingUserService;
+import com.example.service.UserService;
+import com.example.service.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Горячие пути сервиса в разных сборках декораторов: plain -> coalescing -> cached
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@Threads(8)
+public class UserServiceBenchmark {
+
+    @Param({"plain", "coalescing", "cached"})
+    public String stack;
+
+    @Param("1000")
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private UserService userService;
+    private List<User> seeded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase("service_" + stack);
+        UserDaoImpl userDao = new UserDaoImpl(database.sessionFactory());
+        seeded = BenchmarkDatabase.seed(userDao, rows, "service");
+        UserService plain = new UserServiceImpl(userDao);
+        userService = switch (stack) {
+            case "plain" -> plain;
+            case "coalescing" -> new CoalescingUserService(plain);
+            case "cached" -> new CachingUserService(new CoalescingUserService(plain), 10_000, Duration.ofMinutes(5));
+            default -> throw new IllegalArgumentException("Неизвестная сборка сервиса: " + stack);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Optional<User> getUserById() {
+        return userService.getUserById(randomSeeded().getId());
+    }
+
+    @Benchmark
+    public Optional<User> getUserByEmail() {
+        return userService.getUserByEmail(randomSeeded().getEmail());
+    }
+
+    @Benchmark
+    public User updateUser() {
+        return userService.updateUser(randomSeeded().getId(), null, null, ThreadLocalRandom.current().nextInt(18, 90));
+    }
+
+    private User randomSeeded() {
+        return seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+    }
+}
@@ -1,22 +1,85 @@
 package com.example;
 
+import com.example.dao.EmailBackfillResult;
+import com.example.dao.InstrumentedUserDao;
+import com.example.dao.ShardRebalancer;
+import com.example.dao.ShardedUserDao;
 import com.example.dao.UserDaoImpl;
+import com.example.dao.UserView;
 import com.example.entity.User;
+import com.example.exporter.ExportFormat;
+import com.example.exporter.ExportReport;
+import com.example.exporter.UserExporter;
+import com.example.http.UserHttpServer;
+import com.example.importer.ImportReport;
+import com.example.importer.UserImporter;
+import com.example.metrics.MetricsRegistry;
+import com.example.migration.Migration;
+import com.example.migration.MigrationRunner;
+import com.example.service.AsyncUserService;
+import com.example.service.BloomFilterUserService;
+import com.example.service.CachingUserService;
+import com.example.service.CoalescingUserService;
+import com.example.service.InstrumentedUserService;
 import com.example.service.UserService;
 import com.example.service.UserServiceImpl;
+import com.example.service.VirtualThreadUserService;
 import com.example.util.HibernateUtil;
+import com.example.util.LoggingControl;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class Main {
 
-    private static final UserService userService = new UserServiceImpl(new UserDaoImpl());
     private static final Scanner scanner = new Scanner(System.in);
+    private static final int FETCH_SIZE = 500;
+    private static final int DEFAULT_PORT = 8080;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("migrate")) {
+            migrate(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("import")) {
+            importUsers(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("export")) {
+            exportUsers(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("normalize-emails")) {
+            normalizeEmails(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("schema")) {
+            schema(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("shards")) {
+            shards(args);
+            return;
+        }
+
         System.out.println("=== User Service ===");
 
+        Services.emailFilter.start();
         try {
             boolean running = true;
             while (running) {
@@ -30,16 +93,178 @@ public class Main {
                     case "4": findAll(); break;
                     case "5": update(); break;
                     case "6": delete(); break;
+                    case "7": System.out.print(Services.metrics.toPrometheusText()); break;
+                    case "8": toggleSqlLogging(); break;
                     case "0": running = false; break;
                     default: System.out.println("Выберете от 1 до 0");
                 }
             }
         } finally {
             scanner.close();
+            Services.emailFilter.close();
+            HibernateUtil.shutdown();
+        }
+    }
+
+    private static void migrate(String[] args) {
+        try {
+            if (args.length > 1 && args[1].equals("info")) {
+                MigrationRunner.Status status = HibernateUtil.migrationStatus();
+                status.applied().forEach(applied -> System.out.printf("V%d %s применена %s за %d мс%n",
+                        applied.version(), applied.script(), applied.installedAt(), applied.executionMillis()));
+                status.pending().forEach(pending -> System.out.printf("V%d %s ожидает применения%n",
+                        pending.version(), pending.script()));
+            } else {
+                List<Migration> applied = HibernateUtil.migrate();
+                System.out.println("Применено миграций: " + applied.size());
+            }
+        } catch (Exception e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    private static void importUsers(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Использование: import <файл.csv|файл.ndjson> [--upsert]");
+            return;
+        }
+        boolean upsert = List.of(args).contains("--upsert");
+        int writers = Math.max(1, HibernateUtil.getMaximumPoolSize() / 4);
+        try {
+            ImportReport report = new UserImporter(new UserDaoImpl(), IMPORT_BATCH_SIZE, writers, upsert)
+                    .importFile(Path.of(args[1]));
+            System.out.printf("Записей: %d, добавлено: %d, обновлено: %d, отклонено: %d, %.0f строк/с за %d мс%n",
+                    report.records(), report.inserted(), report.updated(), report.rejected(),
+                    report.rowsPerSecond(), report.elapsed().toMillis());
+            report.rejectedLines().forEach(rejected ->
+                    System.out.println("Строка " + rejected.line() + ": " + rejected.reason()));
+            if (report.rejected() > report.rejectedLines().size()) {
+                System.out.println("... и еще " + (report.rejected() - report.rejectedLines().size()) + " строк");
+            }
+        } catch (Exception e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    private static void exportUsers(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Использование: export <файл.csv|.ndjson|.bin>[.gz] [--threads N]");
+            return;
+        }
+        Path target = Path.of(args[1]);
+        List<String> options = List.of(args);
+        int threads = options.contains("--threads")
+                ? Integer.parseInt(options.get(options.indexOf("--threads") + 1))
+                : 1;
+        try {
+            ExportReport report = new UserExporter(new UserDaoImpl(), ExportFormat.of(target),
+                    target.getFileName().toString().endsWith(".gz"), threads, FETCH_SIZE).export(target);
+            System.out.printf("Выгружено строк: %d, %d байт, %.0f строк/с за %d мс%n",
+                    report.rows(), report.bytes(), report.rowsPerSecond(), report.elapsed().toMillis());
+        } catch (Exception e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    private static void normalizeEmails(String[] args) {
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        try {
+            EmailBackfillResult result = new UserDaoImpl().normalizeEmails(batchSize);
+            System.out.printf("Просмотрено: %d, обновлено: %d, конфликтов: %d%n",
+                    result.scanned(), result.updated(), result.conflictIds().size());
+            result.conflictIds().forEach(id -> System.out.println("Конфликт email у пользователя ID: " + id));
+        } catch (Exception e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    private static void schema(String[] args) {
+        String action = args.length > 1 ? args[1] : "validate";
+        try {
+            switch (action) {
+                case "validate" -> HibernateUtil.validateSchema();
+                case "create" -> HibernateUtil.exportSchema();
+                default -> System.out.println("Использование: schema validate|create");
+            }
+        } catch (Exception e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    // migrate копирует основную базу в шарды, rebalance переносит строки между шардами.
+    // Соответствие старых id новым хранится в шардах (user_id_moves); --map дополнительно выгружает пары
+    // этого запуска в файл - по нему удобно переписать ссылки на пользователей вне этой базы
+    private static void shards(String[] args) {
+        if (args.length < 3 || !List.of("migrate", "rebalance").contains(args[1])) {
+            System.out.println("Использование: shards migrate|rebalance <jdbc-url1,jdbc-url2,...> [--map файл]");
+            return;
+        }
+        List<String> options = List.of(args);
+        Path mapFile = options.contains("--map") ? Path.of(options.get(options.indexOf("--map") + 1)) : null;
+        List<String> urls = Stream.of(args[2].split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        try (HibernateUtil.ShardSet shardSet = HibernateUtil.openShards(urls);
+             PrintWriter map = mapFile != null ? new PrintWriter(Files.newBufferedWriter(mapFile)) : null) {
+            ShardRebalancer rebalancer = new ShardRebalancer(
+                    new ShardedUserDao(shardSet.sessionFactories()), IMPORT_BATCH_SIZE);
+            Consumer<ShardRebalancer.Move> listener = move -> {
+                if (map != null && !move.previousId().equals(move.newId())) {
+                    map.println(move.previousId() + "," + move.newId());
+                }
+            };
+            ShardRebalancer.RebalanceReport report = args[1].equals("migrate")
+                    ? rebalancer.migrateFrom(new UserDaoImpl(), listener)
+                    : rebalancer.rebalance(listener);
+            System.out.printf("Шардов: %d, просмотрено: %d, перенесено: %d, уже на месте: %d, конфликтов: %d, "
+                            + "изменились во время переноса: %d за %d мс%n",
+                    urls.size(), report.scanned(), report.moved(), report.duplicates(), report.conflictIds().size(),
+                    report.changedIds().size(), report.elapsed().toMillis());
+            if (!report.conflictIds().isEmpty()) {
+                System.out.println("Email занят другим пользователем, строки не перенесены, ID: " + report.conflictIds());
+            }
+            if (!report.changedIds().isEmpty()) {
+                System.out.println("Строки изменились во время переноса, их перенесет повторный запуск, ID: "
+                        + report.changedIds());
+            }
+        } catch (Exception e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        } finally {
             HibernateUtil.shutdown();
         }
     }
 
+    private static void serve(String[] args) {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        AsyncUserService asyncService = new VirtualThreadUserService(
+                Services.userService, HibernateUtil.getMaximumPoolSize(), REQUEST_TIMEOUT);
+        Services.emailFilter.start();
+        try {
+            UserHttpServer server = new UserHttpServer(asyncService, Services.metrics, new InetSocketAddress(port)).start();
+            // Поток диспетчера HttpServer не демон, JVM живет до SIGTERM/Ctrl+C
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                asyncService.close();
+                Services.emailFilter.close();
+                HibernateUtil.shutdown();
+            }, "shutdown"));
+            System.out.println("Сервер слушает http://localhost:" + server.port() + "/users");
+        } catch (IOException e) {
+            asyncService.close();
+            Services.emailFilter.close();
+            HibernateUtil.shutdown();
+            System.out.println("Не удалось запустить сервер: " + e.getMessage());
+        }
+    }
+
     private static void printMenu() {
         System.out.println("\n1. Создать пользователя");
         System.out.println("2. Поиск по ID");
@@ -47,6 +272,8 @@ public class Main {
         System.out.println("4. Показать пользователей");
         System.out.println("5. Изменить пользователя");
         System.out.println("6. Удалить пользователя");
+        System.out.println("7. Метрики");
+        System.out.println("8. SQL-логирование вкл/выкл");
         System.out.println("0. Выход");
     }
 
@@ -70,7 +297,7 @@ public class Main {
             String ageInput = scanner.nextLine().trim();
             Integer age = ageInput.isEmpty() ? null : Integer.parseInt(ageInput);
 
-            User user = userService.createUser(name, email, age);
+            User user = Services.userService.createUser(name, email, age);
             System.out.println("Создан пользователь с ID: " + user.getId());
 
         } catch (Exception e) {
@@ -83,7 +310,7 @@ public class Main {
             System.out.print("ID пользователя: ");
             Long id = Long.parseLong(scanner.nextLine());
 
-            userService.getUserById(id)
+            Services.userService.getUserById(id)
                     .ifPresentOrElse(
                             user -> System.out.println("Найдено: " + user),
                             () -> System.out.println("Пользователь не найден")
@@ -99,7 +326,7 @@ public class Main {
             System.out.print("Email: ");
             String email = scanner.nextLine().trim();
 
-            userService.getUserByEmail(email)
+            Services.userService.getUserByEmail(email)
                     .ifPresentOrElse(
                             user -> System.out.println("Найдено: " + user),
                             () -> System.out.println("Пользователь не найден")
@@ -111,16 +338,17 @@ public class Main {
     }
 
     private static void findAll() {
-        try {
-            List<User> users = userService.getAllUsers();
-            if (users.isEmpty()) {
+        AtomicLong count = new AtomicLong();
+        try (Stream<UserView> users = Services.userService.streamUserViews(FETCH_SIZE)) {
+            users.forEach(user -> {
+                count.incrementAndGet();
+                System.out.printf("ID: %d, Имя: %s, Email: %s%n",
+                        user.id(), user.name(), user.email());
+            });
+            if (count.get() == 0) {
                 System.out.println("Пользователи не найдены");
             } else {
-                System.out.println("Всего пользователей: " + users.size());
-                users.forEach(user ->
-                        System.out.printf("ID: %d, Имя: %s, Email: %s%n",
-                                user.getId(), user.getName(), user.getEmail())
-                );
+                System.out.println("Всего пользователей: " + count.get());
             }
         } catch (Exception e) {
             System.out.println("Ошибка: " + e.getMessage());
@@ -144,7 +372,7 @@ public class Main {
             String ageInput = scanner.nextLine().trim();
             Integer age = ageInput.isEmpty() ? null : Integer.parseInt(ageInput);
 
-            User updated = userService.updateUser(id, name, email, age);
+            User updated = Services.userService.updateUser(id, name, email, age);
             System.out.println("Изменено: " + updated);
 
         } catch (Exception e) {
@@ -159,11 +387,32 @@ public class Main {
 
             System.out.print("Подтверждаете? (да/нет): ");
             if ("да".equalsIgnoreCase(scanner.nextLine())) {
-                userService.deleteUser(id);
-                System.out.println("Пользователь удален");
+                if (Services.userService.deleteUser(id)) {
+                    System.out.println("Пользователь удален");
+                } else {
+                    System.out.println("Пользователь не найден");
+                }
             }
         } catch (Exception e) {
             System.out.println("Ошибка: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private static void toggleSqlLogging() {
+        boolean enabled = !LoggingControl.isSqlLoggingEnabled();
+        LoggingControl.setSqlLogging(enabled);
+        System.out.println("SQL-логирование " + (enabled ? "включено" : "выключено"));
+    }
+
+    // Сервисы и их SessionFactory создаются при первом обращении: migrate, schema, import и другие
+    // подкоманды не должны поднимать основную фабрику заранее
+    private static final class Services {
+        private static final MetricsRegistry metrics = new MetricsRegistry()
+                .bindHibernate(HibernateUtil.getSessionFactory())
+                .bindConnectionPool(HibernateUtil::getPoolMetrics);
+        private static final BloomFilterUserService emailFilter = new BloomFilterUserService(new CachingUserService(
+                new CoalescingUserService(new UserServiceImpl(new InstrumentedUserDao(new UserDaoImpl(), metrics))),
+                10_000, Duration.ofMinutes(5)), 1_000_000, 0.01, 8L * 1024 * 1024, Duration.ofMinutes(30));
+        private static final UserService userService = new InstrumentedUserService(emailFilter, metrics);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example;
+
+import com.example.dao.UserDaoImpl;
+import com.example.util.HibernateUtil;
+import org.hibernate.SessionFactory;
+
+// Холодный старт до первого запроса к базе; время процесса целиком меряет scripts/appcds.sh
+public class StartupProbe {
+
+    public static void main(String[] args) {
+        long mainEntered = System.nanoTime();
+        try {
+            SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+            long bootstrapped = System.nanoTime();
+            new UserDaoImpl(sessionFactory).findById(1L);
+            long firstQuery = System.nanoTime();
+
+            System.out.printf("startup: bootstrap %d мс, первый запрос %d мс, от main до ответа %d мс%n",
+                    (bootstrapped - mainEntered) / 1_000_000,
+                    (firstQuery - bootstrapped) / 1_000_000,
+                    (firstQuery - mainEntered) / 1_000_000);
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+}
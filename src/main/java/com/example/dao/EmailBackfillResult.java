@@ -0,0 +1,11 @@
+package com.example.dao;
+
+import java.util.List;
+
+// conflictIds - строки, чей нормализованный email уже занят другим пользователем; их нужно разобрать вручную
+public record EmailBackfillResult(long scanned, long updated, List<Long> conflictIds) {
+
+    public EmailBackfillResult {
+        conflictIds = List.copyOf(conflictIds);
+    }
+}
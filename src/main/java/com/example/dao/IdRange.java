@@ -0,0 +1,27 @@
+package com.example.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Полуинтервал [from, to) по id
+public record IdRange(long from, long to) {
+
+    public IdRange {
+        if (to < from) {
+            throw new IllegalArgumentException("Некорректный диапазон id: [" + from + ", " + to + ")");
+        }
+    }
+
+    // Равные по ширине части; при дырах в id строки между ними распределятся неравномерно
+    public List<IdRange> split(int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("Число частей должно быть больше 0");
+        }
+        long width = Math.max(1, Math.ceilDiv(to - from, parts));
+        List<IdRange> ranges = new ArrayList<>(parts);
+        for (long start = from; start < to && ranges.size() < parts; start += width) {
+            ranges.add(new IdRange(start, ranges.size() == parts - 1 ? to : Math.min(to, start + width)));
+        }
+        return ranges;
+    }
+}
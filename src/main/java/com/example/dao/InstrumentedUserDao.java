@@ -0,0 +1,175 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.exception.DaoException;
+import com.example.metrics.MetricsRegistry;
+import com.example.metrics.OperationMetrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Для streamAll измеряется только открытие курсора: чтение идёт уже на стороне вызывающего
+public class InstrumentedUserDao implements UserDao {
+
+    private static final String LAYER = "dao";
+
+    private final UserDao delegate;
+    private final OperationMetrics save;
+    private final OperationMetrics saveAll;
+    private final OperationMetrics upsertAll;
+    private final OperationMetrics findById;
+    private final OperationMetrics findAllByIds;
+    private final OperationMetrics findAll;
+    private final OperationMetrics streamAll;
+    private final OperationMetrics streamRows;
+    private final OperationMetrics findIdRange;
+    private final OperationMetrics findViewById;
+    private final OperationMetrics findViewByEmail;
+    private final OperationMetrics streamViews;
+    private final OperationMetrics findPage;
+    private final OperationMetrics update;
+    private final OperationMetrics updateFields;
+    private final OperationMetrics delete;
+    private final OperationMetrics deleteAll;
+    private final OperationMetrics findByEmail;
+    private final OperationMetrics normalizeEmails;
+
+    public InstrumentedUserDao(UserDao delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = registry.operation(LAYER, "save");
+        this.saveAll = registry.operation(LAYER, "saveAll");
+        this.upsertAll = registry.operation(LAYER, "upsertAll");
+        this.findById = registry.operation(LAYER, "findById");
+        this.findAllByIds = registry.operation(LAYER, "findAllByIds");
+        this.findAll = registry.operation(LAYER, "findAll");
+        this.streamAll = registry.operation(LAYER, "streamAll");
+        this.streamRows = registry.operation(LAYER, "streamRows");
+        this.findIdRange = registry.operation(LAYER, "findIdRange");
+        this.findViewById = registry.operation(LAYER, "findViewById");
+        this.findViewByEmail = registry.operation(LAYER, "findViewByEmail");
+        this.streamViews = registry.operation(LAYER, "streamViews");
+        this.findPage = registry.operation(LAYER, "findPage");
+        this.update = registry.operation(LAYER, "update");
+        this.updateFields = registry.operation(LAYER, "updateFields");
+        this.delete = registry.operation(LAYER, "delete");
+        this.deleteAll = registry.operation(LAYER, "deleteAll");
+        this.findByEmail = registry.operation(LAYER, "findByEmail");
+        this.normalizeEmails = registry.operation(LAYER, "normalizeEmails");
+    }
+
+    @Override
+    public User save(User user) throws DaoException {
+        return timed(save, () -> delegate.save(user));
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) throws DaoException {
+        return timed(saveAll, () -> delegate.saveAll(users));
+    }
+
+    @Override
+    public UpsertResult upsertAll(Collection<User> users) throws DaoException {
+        return timed(upsertAll, () -> delegate.upsertAll(users));
+    }
+
+    @Override
+    public Optional<User> findById(Long id) throws DaoException {
+        return timed(findById, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Map<Long, User> findAllByIds(Collection<Long> ids) throws DaoException {
+        return timed(findAllByIds, () -> delegate.findAllByIds(ids));
+    }
+
+    @Override
+    public List<User> findAll() throws DaoException {
+        return timed(findAll, delegate::findAll);
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) throws DaoException {
+        return timed(streamAll, () -> delegate.streamAll(fetchSize));
+    }
+
+    @Override
+    public Stream<UserRow> streamRows(IdRange range, int fetchSize) throws DaoException {
+        return timed(streamRows, () -> delegate.streamRows(range, fetchSize));
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() throws DaoException {
+        return timed(findIdRange, () -> delegate.findIdRange());
+    }
+
+    @Override
+    public Optional<UserView> findViewById(Long id) throws DaoException {
+        return timed(findViewById, () -> delegate.findViewById(id));
+    }
+
+    @Override
+    public Optional<UserView> findViewByEmail(String email) throws DaoException {
+        return timed(findViewByEmail, () -> delegate.findViewByEmail(email));
+    }
+
+    @Override
+    public Stream<UserView> streamViews(int fetchSize) throws DaoException {
+        return timed(streamViews, () -> delegate.streamViews(fetchSize));
+    }
+
+    @Override
+    public UserPage findPage(Long afterId, int limit) throws DaoException {
+        return timed(findPage, () -> delegate.findPage(afterId, limit));
+    }
+
+    @Override
+    public UserPage findPage(String pageToken, int limit, UserSortKey sortKey) throws DaoException {
+        return timed(findPage, () -> delegate.findPage(pageToken, limit, sortKey));
+    }
+
+    @Override
+    public User update(User user) throws DaoException {
+        return timed(update, () -> delegate.update(user));
+    }
+
+    @Override
+    public Optional<User> updateFields(Long id, String name, String email, Integer age) throws DaoException {
+        return timed(updateFields, () -> delegate.updateFields(id, name, email, age));
+    }
+
+    @Override
+    public boolean delete(Long id) throws DaoException {
+        return timed(delete, () -> delegate.delete(id));
+    }
+
+    @Override
+    public int deleteAll(Collection<Long> ids) throws DaoException {
+        return timed(deleteAll, () -> delegate.deleteAll(ids));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) throws DaoException {
+        return timed(findByEmail, () -> delegate.findByEmail(email));
+    }
+
+    @Override
+    public EmailBackfillResult normalizeEmails(int batchSize) throws DaoException {
+        return timed(normalizeEmails, () -> delegate.normalizeEmails(batchSize));
+    }
+
+    private static <T> T timed(OperationMetrics metrics, Supplier<T> call) {
+        long start = metrics.start();
+        try {
+            T result = call.get();
+            metrics.success(start);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.failure(start, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.dao;
+
+import com.example.entity.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Непрозрачный для клиента ключ продолжения: сортировка + значения последней строки страницы
+record PageToken(UserSortKey sortKey, long lastId, LocalDateTime lastCreatedAt) {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    static PageToken afterId(long id) {
+        return new PageToken(UserSortKey.ID, id, null);
+    }
+
+    static PageToken after(User user, UserSortKey sortKey) {
+        return new PageToken(sortKey, user.getId(),
+                sortKey == UserSortKey.CREATED_AT ? user.getCreatedAt() : null);
+    }
+
+    String encode() {
+        String raw = VERSION + SEPARATOR + sortKey + SEPARATOR + lastId + SEPARATOR
+                + (lastCreatedAt != null ? lastCreatedAt : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageToken decode(String token) {
+        PageToken decoded;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Некорректный токен страницы: " + token);
+            }
+            decoded = new PageToken(UserSortKey.valueOf(parts[1]), Long.parseLong(parts[2]),
+                    parts[3].isEmpty() ? null : LocalDateTime.parse(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный токен страницы: " + token, e);
+        }
+        if (decoded.sortKey() == UserSortKey.CREATED_AT && decoded.lastCreatedAt() == null) {
+            throw new IllegalArgumentException("Некорректный токен страницы: " + token);
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.entity.UserIdMove;
+import com.example.exception.DaoException;
+import jakarta.persistence.LockModeType;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.MutationQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+// Переносит строки в шард по хешу email: после смены email или изменения числа шардов.
+// Копия получает новый id; запись старый -> новый id (user_id_moves) пишется в целевой шард в той же транзакции,
+// что и копия, и по ней ShardedUserDao.findMovedId находит строку по старому id. Исходная строка удаляется только
+// после копирования, поэтому прерванный запуск оставляет дубль, а не потерю: повторный запуск находит свою копию
+// по этой записи, обновляет ее и удаляет исходную строку.
+// Запись в шарды на время переноса не замораживается. Исходная строка удаляется под FOR UPDATE и только если ее
+// версия не изменилась с момента чтения; изменившаяся строка остается на месте, ее копия удаляется, и строку
+// переносит следующий запуск. Строка с тем же email, но другими данными - уже чужой пользователь: это конфликт,
+// исходная строка остается на месте до ручного разбора
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+    // sourceShard записи о переносе для строк несегментированной базы
+    private static final int UNSHARDED = -1;
+
+    private final ShardedUserDao sharded;
+    private final int batchSize;
+
+    public ShardRebalancer(ShardedUserDao sharded, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Размер пачки должен быть больше 0");
+        }
+        this.sharded = sharded;
+        this.batchSize = batchSize;
+    }
+
+    public RebalanceReport rebalance(Consumer<Move> listener) throws DaoException {
+        long start = System.nanoTime();
+        ShardRouting routing = sharded.routing();
+        long scanned = 0;
+        long moved = 0;
+        long duplicates = 0;
+        List<Long> conflicts = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        for (int shard = 0; shard < routing.shards(); shard++) {
+            UserDao source = sharded.shard(shard);
+            // Keyset-пагинация устойчива к удалению уже прочитанных строк
+            String token = null;
+            do {
+                UserPage page = source.findPage(token, batchSize, UserSortKey.ID);
+                token = page.nextPageToken();
+                scanned += page.users().size();
+
+                Map<Integer, List<User>> misplaced = new TreeMap<>();
+                for (User user : page.users()) {
+                    int target = routing.shardOfEmail(user.getEmail());
+                    if (target != shard) {
+                        misplaced.computeIfAbsent(target, t -> new ArrayList<>()).add(user);
+                    }
+                }
+                for (Map.Entry<Integer, List<User>> entry : misplaced.entrySet()) {
+                    int target = entry.getKey();
+                    List<Copy> copies = new ArrayList<>();
+                    for (Copy copy : copy(entry.getValue(), shard, target)) {
+                        if (copy.copy() == null) {
+                            conflicts.add(copy.original().getId());
+                        } else {
+                            copies.add(copy);
+                        }
+                    }
+
+                    Set<Long> deleted = deleteUnchanged(shard, copies);
+                    List<Copy> stale = copies.stream().filter(copy -> !deleted.contains(copy.original().getId())).toList();
+                    Set<Long> undone = undoCopies(target, shard, stale);
+                    for (Copy copy : stale) {
+                        // Изменились и исходная строка, и ее копия: обе остаются до ручного разбора
+                        (undone.contains(copy.copy().getId()) ? changed : conflicts).add(copy.original().getId());
+                    }
+
+                    for (Copy copy : copies) {
+                        if (!deleted.contains(copy.original().getId())) {
+                            continue;
+                        }
+                        if (copy.existed()) {
+                            duplicates++;
+                        } else {
+                            moved++;
+                        }
+                        listener.accept(new Move(copy.original().getId(), copy.copy().getId(), shard, target));
+                    }
+                }
+            } while (token != null);
+        }
+        RebalanceReport report = new RebalanceReport(scanned, moved, duplicates, conflicts, changed,
+                Duration.ofNanos(System.nanoTime() - start));
+        logConflicts(conflicts);
+        logChanged(changed);
+        logger.info("Ребалансировка шардов: просмотрено {}, перенесено {}, удалено дублей {}, конфликтов {}, "
+                        + "изменились во время переноса {} за {} мс",
+                scanned, moved, duplicates, conflicts.size(), changed.size(), report.elapsed().toMillis());
+        return report;
+    }
+
+    // Перенос несегментированной базы в шарды. Исходная база не меняется; уже перенесенные строки находятся
+    // по записи о переносе и обновляются, поэтому прерванную миграцию можно просто запустить еще раз
+    public RebalanceReport migrateFrom(UserDao unsharded, Consumer<Move> listener) throws DaoException {
+        long start = System.nanoTime();
+        ShardRouting routing = sharded.routing();
+        long scanned = 0;
+        long moved = 0;
+        long skipped = 0;
+        List<Long> conflicts = new ArrayList<>();
+        String token = null;
+        do {
+            UserPage page = unsharded.findPage(token, batchSize, UserSortKey.ID);
+            token = page.nextPageToken();
+            scanned += page.users().size();
+
+            Map<Integer, List<User>> byShard = new TreeMap<>();
+            for (User user : page.users()) {
+                byShard.computeIfAbsent(routing.shardOfEmail(user.getEmail()), t -> new ArrayList<>()).add(user);
+            }
+            for (Map.Entry<Integer, List<User>> entry : byShard.entrySet()) {
+                for (Copy copy : copy(entry.getValue(), UNSHARDED, entry.getKey())) {
+                    if (copy.copy() == null) {
+                        conflicts.add(copy.original().getId());
+                        continue;
+                    }
+                    if (copy.existed()) {
+                        skipped++;
+                    } else {
+                        moved++;
+                    }
+                    listener.accept(new Move(copy.original().getId(), copy.copy().getId(), UNSHARDED, entry.getKey()));
+                }
+            }
+        } while (token != null);
+        RebalanceReport report = new RebalanceReport(scanned, moved, skipped, conflicts, List.of(),
+                Duration.ofNanos(System.nanoTime() - start));
+        logConflicts(conflicts);
+        logger.info("Перенос в шарды: просмотрено {}, перенесено {}, уже было {}, конфликтов {} за {} мс",
+                scanned, moved, skipped, conflicts.size(), report.elapsed().toMillis());
+        return report;
+    }
+
+    // Одна транзакция целевого шарда: по одному IN на пачку ищутся занятые email и записи о переносе,
+    // затем вставляются копии и записи о них. Результат по позициям соответствует originals:
+    // copy = null, если email в целевом шарде занят другим пользователем
+    private List<Copy> copy(List<User> originals, int fromShard, int shard) throws DaoException {
+        SessionFactory sessionFactory = sharded.sessionFactory(shard);
+        try {
+            List<Copy> copies = sessionFactory.fromTransaction(session -> {
+                Map<String, User> existing = new HashMap<>();
+                for (List<String> chunk : chunks(originals.stream().map(User::getEmail).toList())) {
+                    session.createQuery("FROM User u WHERE u.email IN :emails", User.class)
+                            .setParameter("emails", chunk)
+                            .getResultList()
+                            .forEach(user -> existing.put(user.getEmail(), user));
+                }
+                Map<Long, UserIdMove> recorded = findMoves(session, fromShard,
+                        originals.stream().map(User::getId).toList());
+
+                List<Copy> result = new ArrayList<>(originals.size());
+                for (User original : originals) {
+                    User current = existing.get(original.getEmail());
+                    UserIdMove move = recorded.get(original.getId());
+                    if (current != null && move != null && move.getNewId().equals(current.getId())) {
+                        // Своя копия прерванного запуска: исходная строка с тех пор могла измениться
+                        current.setName(original.getName());
+                        current.setAge(original.getAge());
+                        result.add(new Copy(original, current, true));
+                    } else if (current != null && isSameUser(current, original)) {
+                        result.add(new Copy(original, current, true));
+                    } else if (current != null) {
+                        result.add(new Copy(original, null, false));
+                    } else {
+                        User copy = User.builder()
+                                .name(original.getName())
+                                .email(original.getEmail())
+                                .age(original.getAge())
+                                .createdAt(original.getCreatedAt())
+                                .build();
+                        session.persist(copy);
+                        result.add(new Copy(original, copy, false));
+                    }
+                }
+                session.flush();
+
+                // @CreationTimestamp перезаписывает created_at при вставке; копии возвращается исходное время
+                MutationQuery restore = session.createNativeMutationQuery(
+                        "UPDATE users SET created_at = :createdAt WHERE id = :id");
+                LocalDateTime now = LocalDateTime.now();
+                for (Copy copy : result) {
+                    if (copy.copy() == null) {
+                        continue;
+                    }
+                    if (!copy.existed() && copy.original().getCreatedAt() != null) {
+                        restore.setParameter("createdAt", copy.original().getCreatedAt())
+                                .setParameter("id", copy.copy().getId())
+                                .executeUpdate();
+                    }
+                    UserIdMove move = recorded.get(copy.original().getId());
+                    if (move == null) {
+                        session.persist(new UserIdMove(fromShard, copy.original().getId(), copy.copy().getId(), now));
+                    } else if (!move.getNewId().equals(copy.copy().getId())) {
+                        move.setNewId(copy.copy().getId());
+                        move.setMovedAt(now);
+                    }
+                }
+                return result;
+            });
+            // L2-кэш получает вставленную строку после коммита, еще с временем создания от @CreationTimestamp
+            copies.stream()
+                    .filter(copy -> copy.copy() != null && !copy.existed())
+                    .forEach(copy -> sessionFactory.getCache().evictEntityData(User.class, copy.copy().getId()));
+            return copies;
+        } catch (Exception e) {
+            logger.error("Ошибка копирования {} строк в шард {}", originals.size(), shard, e);
+            throw new DaoException("Ошибка копирования строк в шард " + shard, e);
+        }
+    }
+
+    // Удаляет перенесенные строки исходного шарда, версия которых не изменилась после чтения пачки.
+    // Возвращает id удаленных строк
+    private Set<Long> deleteUnchanged(int shard, List<Copy> copies) throws DaoException {
+        if (copies.isEmpty()) {
+            return Set.of();
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        copies.forEach(copy -> versions.put(copy.original().getId(), copy.original().getVersion()));
+        try {
+            return sharded.sessionFactory(shard).fromTransaction(session -> deleteUnchanged(session, versions));
+        } catch (Exception e) {
+            logger.error("Ошибка удаления перенесенных строк в шарде {}", shard, e);
+            throw new DaoException("Ошибка удаления перенесенных строк в шарде " + shard, e);
+        }
+    }
+
+    // Исходная строка изменилась, пока шло копирование: копия и запись о ней удаляются, строку перенесет
+    // следующий запуск. Копия, которую тоже успели изменить, остается. Возвращает id удаленных копий
+    private Set<Long> undoCopies(int shard, int fromShard, List<Copy> stale) throws DaoException {
+        if (stale.isEmpty()) {
+            return Set.of();
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        stale.forEach(copy -> versions.put(copy.copy().getId(), copy.copy().getVersion()));
+        List<Long> previousIds = stale.stream().map(copy -> copy.original().getId()).toList();
+        try {
+            return sharded.sessionFactory(shard).fromTransaction(session -> {
+                Set<Long> removed = deleteUnchanged(session, versions);
+                for (List<Long> chunk : chunks(previousIds)) {
+                    session.createMutationQuery(
+                                    "DELETE FROM UserIdMove m WHERE m.sourceShard = :fromShard AND m.previousId IN :ids")
+                            .setParameter("fromShard", fromShard)
+                            .setParameter("ids", chunk)
+                            .executeUpdate();
+                }
+                return removed;
+            });
+        } catch (Exception e) {
+            logger.error("Ошибка отката копий в шарде {}", shard, e);
+            throw new DaoException("Ошибка отката копий в шарде " + shard, e);
+        }
+    }
+
+    // Блокировка строк до удаления: запись с новой версией не проскочит между проверкой и DELETE
+    private static Set<Long> deleteUnchanged(Session session, Map<Long, Long> versions) {
+        Set<Long> unchanged = new HashSet<>();
+        for (List<Long> chunk : chunks(new ArrayList<>(versions.keySet()))) {
+            session.createQuery("FROM User u WHERE u.id IN :ids", User.class)
+                    .setParameter("ids", chunk)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList()
+                    .stream()
+                    .filter(user -> Objects.equals(user.getVersion(), versions.get(user.getId())))
+                    .forEach(user -> unchanged.add(user.getId()));
+        }
+        for (List<Long> chunk : chunks(new ArrayList<>(unchanged))) {
+            session.createMutationQuery("DELETE FROM User WHERE id IN :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+        return unchanged;
+    }
+
+    private static Map<Long, UserIdMove> findMoves(Session session, int fromShard, List<Long> previousIds) {
+        Map<Long, UserIdMove> moves = new HashMap<>();
+        for (List<Long> chunk : chunks(previousIds)) {
+            session.createQuery("FROM UserIdMove m WHERE m.sourceShard = :fromShard AND m.previousId IN :ids",
+                            UserIdMove.class)
+                    .setParameter("fromShard", fromShard)
+                    .setParameter("ids", chunk)
+                    .getResultList()
+                    .forEach(move -> moves.put(move.getPreviousId(), move));
+        }
+        return moves;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            chunks.add(items.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, items.size())));
+        }
+        return chunks;
+    }
+
+    // Копия переносит все поля, включая время создания, поэтому расхождение в любом из них - другой пользователь
+    private static boolean isSameUser(User copy, User original) {
+        return Objects.equals(copy.getName(), original.getName())
+                && Objects.equals(copy.getAge(), original.getAge())
+                && Objects.equals(copy.getCreatedAt(), original.getCreatedAt());
+    }
+
+    private static void logConflicts(List<Long> conflicts) {
+        if (!conflicts.isEmpty()) {
+            logger.warn("Email занят другим пользователем в целевом шарде, строки оставлены на месте: {} шт., ID: {}",
+                    conflicts.size(), conflicts);
+        }
+    }
+
+    private static void logChanged(List<Long> changed) {
+        if (!changed.isEmpty()) {
+            logger.warn("Строки изменились во время переноса и остались в исходном шарде до следующего запуска: "
+                    + "{} шт., ID: {}", changed.size(), changed);
+        }
+    }
+
+    // existed - копия уже была в целевом шарде: от прерванного запуска или прежней миграции
+    private record Copy(User original, User copy, boolean existed) {
+    }
+
+    // fromShard = -1 для строк из несегментированной базы
+    public record Move(Long previousId, Long newId, int fromShard, int toShard) {
+    }
+
+    // conflictIds - исходные строки, не перенесенные из-за чужого пользователя с тем же email в целевом шарде
+    // или из-за записи в обе копии во время переноса; changedIds - строки, измененные во время переноса:
+    // они остались в исходном шарде, и их перенесет следующий запуск
+    public record RebalanceReport(long scanned, long moved, long duplicates, List<Long> conflictIds,
+                                  List<Long> changedIds, Duration elapsed) {
+    }
+}
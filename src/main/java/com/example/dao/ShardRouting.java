@@ -0,0 +1,64 @@
+package com.example.dao;
+
+import com.example.entity.User;
+
+import java.nio.charset.StandardCharsets;
+
+// Старшие биты id - номер шарда, младшие 48 - значение последовательности этого шарда.
+// Новый пользователь попадает в шард по хешу нормализованного email; хеш и раскладка битов - часть формата
+// хранения: их изменение без ребалансировки потеряет строки
+public final class ShardRouting {
+
+    public static final int LOCAL_ID_BITS = 48;
+    public static final int MAX_SHARDS = 1 << (Long.SIZE - 1 - LOCAL_ID_BITS);
+    private static final long LOCAL_ID_MASK = (1L << LOCAL_ID_BITS) - 1;
+
+    private final int shards;
+
+    public ShardRouting(int shards) {
+        if (shards < 1 || shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("Число шардов должно быть от 1 до " + MAX_SHARDS + ": " + shards);
+        }
+        this.shards = shards;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public static int shardOfId(long id) {
+        return (int) (id >>> LOCAL_ID_BITS);
+    }
+
+    public static long localId(long id) {
+        return id & LOCAL_ID_MASK;
+    }
+
+    // Первый и последний id, которые может выдать последовательность шарда
+    public static long firstId(int shard) {
+        return ((long) shard << LOCAL_ID_BITS) + 1;
+    }
+
+    public static long lastId(int shard) {
+        return ((long) shard << LOCAL_ID_BITS) | LOCAL_ID_MASK;
+    }
+
+    public int shardOfEmail(String email) {
+        return (int) Long.remainderUnsigned(hash(User.normalizeEmail(email)), shards);
+    }
+
+    // FNV-1a по байтам UTF-8 с перемешиванием из MurmurHash3: не зависит от JVM и String.hashCode
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,469 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.exception.DaoException;
+import com.example.exception.DuplicateEmailException;
+import com.example.exception.UserNotFoundException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// По SessionFactory на шард. Операции по id идут в шард из старших битов id, новые строки - в шард
+// по хешу email, списки собираются параллельным опросом всех шардов. Id не меняется при смене email,
+// поэтому такая строка живет не в "своем" по email шарде: findByEmail после промаха опрашивает остальные,
+// а ShardRebalancer переносит такие строки на место
+public class ShardedUserDao implements UserDao {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedUserDao.class);
+    private static final String SEQUENCE = "users_seq";
+    // allocationSize последовательности в User: pooled-оптимизатор выдает id из (value - 49 .. value]
+    private static final int ID_BLOCK = 50;
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+    // Каждая ребалансировка добавляет к цепочке не больше одного звена; длиннее - цикл в данных
+    private static final int MAX_MOVE_HOPS = 64;
+
+    private final ShardRouting routing;
+    private final List<SessionFactory> sessionFactories;
+    private final List<UserDao> shards;
+
+    public ShardedUserDao(List<SessionFactory> sessionFactories) {
+        this.routing = new ShardRouting(sessionFactories.size());
+        List<UserDao> daos = new ArrayList<>(sessionFactories.size());
+        for (int shard = 0; shard < sessionFactories.size(); shard++) {
+            prepareIdRange(sessionFactories.get(shard), shard);
+            daos.add(new UserDaoImpl(sessionFactories.get(shard)));
+        }
+        this.sessionFactories = List.copyOf(sessionFactories);
+        this.shards = List.copyOf(daos);
+    }
+
+    // Последовательность нового шарда переставляется в его диапазон; в уже подготовленном шарде
+    // пропадает один блок id
+    static void prepareIdRange(SessionFactory sessionFactory, int shard) {
+        SequenceSupport sequences = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+        try {
+            sessionFactory.inTransaction(session -> {
+                long value = ((Number) session.createNativeQuery(
+                        sequences.getSequenceNextValString(SEQUENCE), Object.class).getSingleResult()).longValue();
+                if (value > ShardRouting.lastId(shard)) {
+                    throw new DaoException("Последовательность шарда " + shard + " вышла за его диапазон id: " + value);
+                }
+                if (value - ID_BLOCK + 1 < ShardRouting.firstId(shard)) {
+                    long restart = ShardRouting.firstId(shard) - 1 + ID_BLOCK;
+                    session.createNativeMutationQuery("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + restart)
+                            .executeUpdate();
+                    logger.info("Последовательность шарда {} переставлена на {}", shard, restart);
+                }
+            });
+        } catch (DaoException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Ошибка подготовки диапазона id шарда {}", shard, e);
+            throw new DaoException("Ошибка подготовки диапазона id шарда " + shard, e);
+        }
+    }
+
+    ShardRouting routing() {
+        return routing;
+    }
+
+    UserDao shard(int shard) {
+        return shards.get(shard);
+    }
+
+    SessionFactory sessionFactory(int shard) {
+        return sessionFactories.get(shard);
+    }
+
+    // Текущий id строки, перенесенной ShardRebalancer: записи о переносе хранятся в целевых шардах,
+    // цепочка нескольких переносов проходится до конца. fromShard = -1 - id из несегментированной базы
+    public Optional<Long> findMovedId(int fromShard, Long previousId) throws DaoException {
+        Long current = null;
+        int shard = fromShard;
+        Long id = previousId;
+        for (int hops = 0; hops < MAX_MOVE_HOPS; hops++) {
+            Long next = findMove(shard, id);
+            if (next == null) {
+                return Optional.ofNullable(current);
+            }
+            current = next;
+            shard = ShardRouting.shardOfId(next);
+            id = next;
+        }
+        throw new DaoException("Слишком длинная цепочка переносов id " + previousId);
+    }
+
+    private Long findMove(int fromShard, Long previousId) {
+        Map<Integer, Long> all = new TreeMap<>();
+        for (int shard = 0; shard < sessionFactories.size(); shard++) {
+            all.put(shard, previousId);
+        }
+        return inParallel(all, (shard, id) -> {
+            try (Session session = sessionFactories.get(shard).openSession()) {
+                return session.createQuery("SELECT m.newId FROM UserIdMove m "
+                                + "WHERE m.sourceShard = :fromShard AND m.previousId = :id", Long.class)
+                        .setParameter("fromShard", fromShard)
+                        .setParameter("id", id)
+                        .uniqueResult();
+            } catch (Exception e) {
+                logger.error("Ошибка поиска переноса id {} в шарде {}", id, shard, e);
+                throw new DaoException("Ошибка поиска переноса id в шарде " + shard, e);
+            }
+        }).stream().filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    @Override
+    public User save(User user) throws DaoException {
+        if (!foreignOwners(List.of(user)).isEmpty()) {
+            throw new DuplicateEmailException(user.getEmail(), null);
+        }
+        int shard = routing.shardOfEmail(user.getEmail());
+        User saved = shards.get(shard).save(user);
+        checkPlacement(saved, shard);
+        return saved;
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) throws DaoException {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> owners = foreignOwners(users);
+        if (!owners.isEmpty()) {
+            throw new DuplicateEmailException(users.stream().map(User::getEmail)
+                    .filter(owners::containsKey).findFirst().orElseThrow(), null);
+        }
+        Map<Integer, List<User>> byShard = groupBy(users, user -> routing.shardOfEmail(user.getEmail()));
+        inParallel(byShard, (shard, batch) -> {
+            shards.get(shard).saveAll(batch);
+            batch.forEach(user -> checkPlacement(user, shard));
+            return null;
+        });
+        return new ArrayList<>(users);
+    }
+
+    @Override
+    public UpsertResult upsertAll(Collection<User> users) throws DaoException {
+        if (users.isEmpty()) {
+            return new UpsertResult(0, 0);
+        }
+        // Email, который уже живет в чужом шарде, обновляется там, а не вставляется вторым экземпляром в домашний
+        Map<String, Integer> owners = foreignOwners(users);
+        Map<Integer, List<User>> byShard = groupBy(users, user ->
+                owners.getOrDefault(user.getEmail(), routing.shardOfEmail(user.getEmail())));
+        return inParallel(byShard, (shard, batch) -> shards.get(shard).upsertAll(batch)).stream()
+                .reduce(new UpsertResult(0, 0),
+                        (left, right) -> new UpsertResult(left.inserted() + right.inserted(), left.updated() + right.updated()));
+    }
+
+    @Override
+    public Optional<User> findById(Long id) throws DaoException {
+        UserDao shard = shardOf(id);
+        return shard == null ? Optional.empty() : shard.findById(id);
+    }
+
+    @Override
+    public Map<Long, User> findAllByIds(Collection<Long> ids) throws DaoException {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Integer, List<Long>> byShard = groupBy(
+                distinctIds.stream().filter(id -> shardOf(id) != null).toList(), ShardRouting::shardOfId);
+        Map<Long, User> found = new LinkedHashMap<>();
+        inParallel(byShard, (shard, chunk) -> shards.get(shard).findAllByIds(chunk)).forEach(found::putAll);
+
+        // Порядок ответа - как в запросе, независимо от того, какой шард ответил раньше
+        Map<Long, User> result = new LinkedHashMap<>(found.size() * 4 / 3 + 1);
+        for (Long id : distinctIds) {
+            User user = found.get(id);
+            if (user != null) {
+                result.put(id, user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<User> findAll() throws DaoException {
+        List<User> users = new ArrayList<>();
+        scatter(UserDao::findAll).forEach(users::addAll);
+        users.sort(Comparator.comparing(User::getId));
+        return users;
+    }
+
+    // Диапазоны id шардов не пересекаются: склейка шардов по порядку уже упорядочена по id,
+    // а курсор следующего шарда открывается только после исчерпания предыдущего
+    @Override
+    public Stream<User> streamAll(int fetchSize) throws DaoException {
+        return IntStream.range(0, shards.size()).boxed()
+                .flatMap(shard -> shards.get(shard).streamAll(fetchSize));
+    }
+
+    @Override
+    public Stream<UserRow> streamRows(IdRange range, int fetchSize) throws DaoException {
+        return IntStream.range(0, shards.size()).boxed()
+                .flatMap(shard -> {
+                    long from = Math.max(range.from(), ShardRouting.firstId(shard) - 1);
+                    long to = Math.min(range.to(), ShardRouting.lastId(shard) + 1);
+                    return from < to ? shards.get(shard).streamRows(new IdRange(from, to), fetchSize) : Stream.empty();
+                });
+    }
+
+    @Override
+    public Optional<UserView> findViewById(Long id) throws DaoException {
+        UserDao shard = shardOf(id);
+        return shard == null ? Optional.empty() : shard.findViewById(id);
+    }
+
+    @Override
+    public Optional<UserView> findViewByEmail(String email) throws DaoException {
+        return findByEmail(email, UserDao::findViewByEmail);
+    }
+
+    @Override
+    public Stream<UserView> streamViews(int fetchSize) throws DaoException {
+        return IntStream.range(0, shards.size()).boxed()
+                .flatMap(shard -> shards.get(shard).streamViews(fetchSize));
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() throws DaoException {
+        return scatter(UserDao::findIdRange).stream()
+                .flatMap(Optional::stream)
+                .reduce((left, right) -> new IdRange(Math.min(left.from(), right.from()), Math.max(left.to(), right.to())));
+    }
+
+    @Override
+    public UserPage findPage(Long afterId, int limit) throws DaoException {
+        return findPage(afterId == null ? null : PageToken.afterId(afterId).encode(), limit, UserSortKey.ID);
+    }
+
+    // Каждый шард отдает до limit строк после курсора; из объединения берутся первые limit
+    @Override
+    public UserPage findPage(String pageToken, int limit, UserSortKey sortKey) throws DaoException {
+        List<UserPage> pages = scatter(shard -> shard.findPage(pageToken, limit, sortKey));
+        List<User> merged = new ArrayList<>();
+        boolean more = false;
+        for (UserPage page : pages) {
+            merged.addAll(page.users());
+            more |= page.hasNext();
+        }
+        merged.sort(sortKey == UserSortKey.CREATED_AT
+                ? Comparator.comparing(User::getCreatedAt).thenComparing(User::getId)
+                : Comparator.comparing(User::getId));
+        if (merged.size() <= limit && !more) {
+            return new UserPage(merged, null);
+        }
+        List<User> page = merged.subList(0, Math.min(limit, merged.size()));
+        return new UserPage(page, page.isEmpty() ? null : PageToken.after(page.getLast(), sortKey).encode());
+    }
+
+    @Override
+    public User update(User user) throws DaoException {
+        UserDao shard = shardOf(user.getId());
+        if (shard == null) {
+            throw new UserNotFoundException(user.getId());
+        }
+        checkEmailFree(user.getId(), user.getEmail());
+        return shard.update(user);
+    }
+
+    @Override
+    public Optional<User> updateFields(Long id, String name, String email, Integer age) throws DaoException {
+        UserDao shard = shardOf(id);
+        if (shard == null) {
+            return Optional.empty();
+        }
+        checkEmailFree(id, email);
+        return shard.updateFields(id, name, email, age);
+    }
+
+    @Override
+    public boolean delete(Long id) throws DaoException {
+        UserDao shard = shardOf(id);
+        return shard != null && shard.delete(id);
+    }
+
+    @Override
+    public int deleteAll(Collection<Long> ids) throws DaoException {
+        Map<Integer, List<Long>> byShard = groupBy(
+                ids.stream().filter(id -> shardOf(id) != null).distinct().toList(), ShardRouting::shardOfId);
+        return inParallel(byShard, (shard, chunk) -> shards.get(shard).deleteAll(chunk)).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) throws DaoException {
+        return findByEmail(email, UserDao::findByEmail);
+    }
+
+    @Override
+    public EmailBackfillResult normalizeEmails(int batchSize) throws DaoException {
+        long scanned = 0;
+        long updated = 0;
+        List<Long> conflicts = new ArrayList<>();
+        for (EmailBackfillResult result : scatter(shard -> shard.normalizeEmails(batchSize))) {
+            scanned += result.scanned();
+            updated += result.updated();
+            conflicts.addAll(result.conflictIds());
+        }
+        return new EmailBackfillResult(scanned, updated, conflicts);
+    }
+
+    private <T> Optional<T> findByEmail(String email, ShardLookup<T> lookup) {
+        int home = routing.shardOfEmail(email);
+        Optional<T> found = lookup.find(shards.get(home), email);
+        if (found.isPresent() || shards.size() == 1) {
+            return found;
+        }
+        Map<Integer, String> others = new TreeMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            if (shard != home) {
+                others.put(shard, email);
+            }
+        }
+        return inParallel(others, (shard, key) -> lookup.find(shards.get(shard), key)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    // Уникальный индекс email действует только внутри шарда: занятость нового email проверяется по всем
+    private void checkEmailFree(Long id, String email) {
+        if (email == null || shards.size() == 1) {
+            return;
+        }
+        Optional<User> owner = findByEmail(email);
+        if (owner.isPresent() && !owner.get().getId().equals(id)) {
+            throw new DuplicateEmailException(User.normalizeEmail(email), null);
+        }
+    }
+
+    // Email пачки, уже занятые вне своего домашнего шарда: email -> шард владельца. Домашний шард
+    // дубликат отклонит сам по уникальному индексу, остальные опрашиваются параллельно, одним IN на шард.
+    // Проверка и вставка не атомарны: параллельная вставка того же email в другой шард не исключена
+    private Map<String, Integer> foreignOwners(Collection<User> users) {
+        if (shards.size() == 1) {
+            return Map.of();
+        }
+        List<String> emails = users.stream().map(User::getEmail).filter(Objects::nonNull).distinct().toList();
+        Map<Integer, List<String>> byShard = new TreeMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int current = shard;
+            List<String> foreign = emails.stream().filter(email -> routing.shardOfEmail(email) != current).toList();
+            if (!foreign.isEmpty()) {
+                byShard.put(shard, foreign);
+            }
+        }
+        Map<String, Integer> owners = new HashMap<>();
+        inParallel(byShard, this::emailsIn).forEach(owners::putAll);
+        return owners;
+    }
+
+    private Map<String, Integer> emailsIn(int shard, List<String> emails) {
+        Map<String, Integer> found = new HashMap<>();
+        try (Session session = sessionFactories.get(shard).openSession()) {
+            for (int from = 0; from < emails.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+                session.createQuery("SELECT u.email FROM User u WHERE u.email IN :emails", String.class)
+                        .setParameter("emails", emails.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, emails.size())))
+                        .getResultList()
+                        .forEach(email -> found.put(email, shard));
+            }
+        } catch (Exception e) {
+            logger.error("Ошибка проверки email в шарде {}", shard, e);
+            throw new DaoException("Ошибка проверки email в шарде " + shard, e);
+        }
+        return found;
+    }
+
+    private UserDao shardOf(Long id) {
+        if (id == null || id <= 0) {
+            return null;
+        }
+        int shard = ShardRouting.shardOfId(id);
+        return shard < shards.size() ? shards.get(shard) : null;
+    }
+
+    private static void checkPlacement(User user, int shard) {
+        if (ShardRouting.shardOfId(user.getId()) != shard) {
+            throw new DaoException("Шард " + shard + " выдал id " + user.getId() + " вне своего диапазона");
+        }
+    }
+
+    private static <T> Map<Integer, List<T>> groupBy(Collection<T> items, Function<T, Integer> shardOf) {
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(shardOf.apply(item), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    private <T> List<T> scatter(Function<UserDao, T> call) {
+        Map<Integer, UserDao> all = new TreeMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            all.put(shard, shards.get(shard));
+        }
+        return inParallel(all, (shard, dao) -> call.apply(dao));
+    }
+
+    // Виртуальный поток на шард: ожидание ответа базы не держит платформенные потоки
+    private static <A, T> List<T> inParallel(Map<Integer, A> tasks, ShardCall<A, T> call) {
+        if (tasks.size() == 1) {
+            Map.Entry<Integer, A> only = tasks.entrySet().iterator().next();
+            List<T> result = new ArrayList<>(1);
+            result.add(call.apply(only.getKey(), only.getValue()));
+            return result;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Map.Entry<Integer, A> task : tasks.entrySet()) {
+                Callable<T> callable = () -> call.apply(task.getKey(), task.getValue());
+                futures.add(executor.submit(callable));
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new DaoException("Ошибка запроса к шардам", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DaoException("Запрос к шардам прерван", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ShardCall<A, T> {
+        T apply(int shard, A argument);
+    }
+
+    @FunctionalInterface
+    private interface ShardLookup<T> {
+        Optional<T> find(UserDao shard, String email);
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.dao;
+
+public record UpsertResult(int inserted, int updated) {
+}
@@ -2,15 +2,33 @@ package com.example.dao;
 
 import com.example.entity.User;
 import com.example.exception.DaoException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserDao {
 
     User save(User user) throws DaoException;
+    List<User> saveAll(Collection<User> users) throws DaoException;
+    UpsertResult upsertAll(Collection<User> users) throws DaoException;
     Optional<User> findById(Long id) throws DaoException;
+    Map<Long, User> findAllByIds(Collection<Long> ids) throws DaoException;
     List<User> findAll() throws DaoException;
+    Stream<User> streamAll(int fetchSize) throws DaoException;
+    Stream<UserRow> streamRows(IdRange range, int fetchSize) throws DaoException;
+    Optional<UserView> findViewById(Long id) throws DaoException;
+    Optional<UserView> findViewByEmail(String email) throws DaoException;
+    Stream<UserView> streamViews(int fetchSize) throws DaoException;
+    Optional<IdRange> findIdRange() throws DaoException;
+    UserPage findPage(Long afterId, int limit) throws DaoException;
+    UserPage findPage(String pageToken, int limit, UserSortKey sortKey) throws DaoException;
+    // Строки нет - UserNotFoundException (не DaoException): повтор по версии тут бесполезен
     User update(User user) throws DaoException;
-    void delete(Long id) throws DaoException;
+    Optional<User> updateFields(Long id, String name, String email, Integer age) throws DaoException;
+    boolean delete(Long id) throws DaoException;
+    int deleteAll(Collection<Long> ids) throws DaoException;
     Optional<User> findByEmail(String email) throws DaoException;
+    EmailBackfillResult normalizeEmails(int batchSize) throws DaoException;
 }
\ No newline at end of file
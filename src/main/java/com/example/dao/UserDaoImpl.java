@@ -2,29 +2,85 @@ package com.example.dao;
 
 import com.example.entity.User;
 import com.example.exception.DaoException;
+import com.example.exception.DuplicateEmailException;
+import com.example.exception.OptimisticLockConflictException;
+import com.example.exception.UserNotFoundException;
 import com.example.util.HibernateUtil;
+import com.example.util.ReadReplicaRouter;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.criteria.CriteriaQuery;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.query.MutationQuery;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class UserDaoImpl implements UserDao {
 
     private static final Logger logger = LoggerFactory.getLogger(UserDaoImpl.class);
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    private final SessionFactory sessionFactory;
+    private final ReadReplicaRouter router;
+    private final int batchSize;
+
+    public UserDaoImpl() {
+        this(HibernateUtil.getSessionFactory(), HibernateUtil.getReadRouter());
+    }
+
+    public UserDaoImpl(SessionFactory sessionFactory) {
+        this(sessionFactory, ReadReplicaRouter.primaryOnly(sessionFactory));
+    }
+
+    // Записи всегда идут в sessionFactory (primary), чтения - туда, куда укажет router
+    public UserDaoImpl(SessionFactory sessionFactory, ReadReplicaRouter router) {
+        this.sessionFactory = sessionFactory;
+        this.router = router;
+        this.batchSize = resolveBatchSize(sessionFactory);
+    }
 
     @Override
     public User save(User user) throws DaoException {
         Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = sessionFactory.openSession()) {
             transaction = session.beginTransaction();
 
             session.persist(user);
             transaction.commit();
+            recordWrites(List.of(user));
 
             logger.debug("Пользователь сохранен с ID: {}", user.getId());
             return user;
@@ -33,14 +89,130 @@ public class UserDaoImpl implements UserDao {
             if (transaction != null && transaction.isActive()) {
                 transaction.rollback();
             }
+            if (isUniqueViolation(e)) {
+                logger.debug("Email уже используется: {}", user.getEmail());
+                throw new DuplicateEmailException(user.getEmail(), e);
+            }
             logger.error("Ошибка сохранения пользователя с email: {}", user.getEmail(), e);
             throw new DaoException("Ошибка сохранения пользователя: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public List<User> saveAll(Collection<User> users) throws DaoException {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+
+        Transaction transaction = null;
+        try (Session session = sessionFactory.openSession()) {
+            session.setJdbcBatchSize(batchSize);
+            // Массовая вставка не должна вытеснять из кэша второго уровня горячие записи
+            session.setCacheMode(CacheMode.IGNORE);
+            transaction = session.beginTransaction();
+
+            int count = 0;
+            for (User user : users) {
+                session.persist(user);
+                // Сбрасываем пачку в JDBC batch и освобождаем persistence context
+                if (++count % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            transaction.commit();
+            recordWrites(users);
+
+            logger.debug("Сохранено пользователей: {}", count);
+            return new ArrayList<>(users);
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            if (isUniqueViolation(e)) {
+                logger.debug("Пакет из {} пользователей содержит занятый email", users.size());
+                throw new DuplicateEmailException(null, e);
+            }
+            logger.error("Ошибка пакетного сохранения {} пользователей", users.size(), e);
+            throw new DaoException("Ошибка пакетного сохранения пользователей: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public UpsertResult upsertAll(Collection<User> users) throws DaoException {
+        if (users.isEmpty()) {
+            return new UpsertResult(0, 0);
+        }
+        // Повтор email внутри пачки: побеждает последняя запись
+        Map<String, User> byEmail = new LinkedHashMap<>();
+        users.forEach(user -> byEmail.put(user.getEmail(), user));
+
+        Transaction transaction = null;
+        try (Session session = sessionFactory.openSession()) {
+            session.setJdbcBatchSize(batchSize);
+            session.setCacheMode(CacheMode.IGNORE);
+            transaction = session.beginTransaction();
+
+            // Без нативного ON CONFLICT: id новых строк должен выдавать pooled-генератор Hibernate
+            Map<String, Long> existing = new HashMap<>();
+            List<String> emails = new ArrayList<>(byEmail.keySet());
+            for (int from = 0; from < emails.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+                session.createQuery("SELECT u.email, u.id FROM User u WHERE u.email IN :emails", Object[].class)
+                        .setParameter("emails", emails.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, emails.size())))
+                        .getResultList()
+                        .forEach(row -> existing.put((String) row[0], (Long) row[1]));
+            }
+
+            int inserted = 0;
+            for (User user : byEmail.values()) {
+                if (!existing.containsKey(user.getEmail())) {
+                    session.persist(user);
+                    if (++inserted % batchSize == 0) {
+                        session.flush();
+                        session.clear();
+                    }
+                }
+            }
+            session.flush();
+
+            if (!existing.isEmpty()) {
+                session.doWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "UPDATE users SET name = ?, age = ?, version = version + 1 WHERE id = ?")) {
+                        for (Map.Entry<String, Long> entry : existing.entrySet()) {
+                            User user = byEmail.get(entry.getKey());
+                            statement.setString(1, user.getName());
+                            statement.setObject(2, user.getAge(), Types.INTEGER);
+                            statement.setLong(3, entry.getValue());
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                });
+            }
+            transaction.commit();
+            recordWrites(users);
+            router.recordWrite(existing.values());
+
+            // Обновления шли мимо сессии, устаревшие записи убираем из кэша второго уровня
+            existing.values().forEach(id -> sessionFactory.getCache().evictEntityData(User.class, id));
+            // Повторы email внутри пачки схлопнуты: обновлено ровно столько строк, сколько нашлось в базе
+            logger.debug("Upsert пользователей: добавлено {}, обновлено {}", inserted, existing.size());
+            return new UpsertResult(inserted, existing.size());
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            logger.error("Ошибка пакетного upsert {} пользователей", users.size(), e);
+            throw new DaoException("Ошибка пакетного upsert пользователей: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public Optional<User> findById(Long id) throws DaoException {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = openReadOnlySession(readFactory(id))) {
             User user = session.get(User.class, id);
             return Optional.ofNullable(user);
         } catch (Exception e) {
@@ -49,9 +221,38 @@ public class UserDaoImpl implements UserDao {
         }
     }
 
+    @Override
+    public Map<Long, User> findAllByIds(Collection<Long> ids) throws DaoException {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty()) {
+            return Map.of();
+        }
+
+        try (Session session = openReadOnlySession(router.forRead())) {
+            // Hibernate сам режет список на IN-чанки и пропускает ID, уже лежащие в сессии или кэше второго уровня
+            List<User> users = session.byMultipleIds(User.class)
+                    .withBatchSize(IN_CLAUSE_CHUNK_SIZE)
+                    .enableSessionCheck(true)
+                    .enableOrderedReturn(true)
+                    .multiLoad(distinctIds);
+
+            Map<Long, User> result = new LinkedHashMap<>(users.size() * 4 / 3 + 1);
+            for (User user : users) {
+                if (user != null) {
+                    result.put(user.getId(), user);
+                }
+            }
+            return result;
+
+        } catch (Exception e) {
+            logger.error("Ошибка поиска {} пользователей по списку ID", distinctIds.size(), e);
+            throw new DaoException("Ошибка поиска пользователей по списку ID", e);
+        }
+    }
+
     @Override
     public List<User> findAll() throws DaoException {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = openReadOnlySession(router.forRead())) {
             // Для Hibernate 6
             CriteriaQuery<User> criteriaQuery = session.getCriteriaBuilder().createQuery(User.class);
             criteriaQuery.from(User.class);
@@ -62,42 +263,359 @@ public class UserDaoImpl implements UserDao {
         }
     }
 
+    @Override
+    public Stream<User> streamAll(int fetchSize) throws DaoException {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize должен быть положительным: " + fetchSize);
+        }
+
+        Session session = router.forRead().openSession();
+        Transaction transaction = null;
+        try {
+            // Серверный курсор PostgreSQL работает только внутри транзакции
+            transaction = session.beginTransaction();
+            session.setDefaultReadOnly(true);
+            session.setCacheMode(CacheMode.IGNORE);
+
+            ScrollableResults<User> results = session.createQuery("FROM User u ORDER BY u.id", User.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+
+            Transaction streamTransaction = transaction;
+            return StreamSupport.stream(new DetachingSpliterator(session, results), false)
+                    .onClose(() -> closeStream(session, streamTransaction, results));
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            session.close();
+            logger.error("Ошибка открытия курсора по пользователям", e);
+            throw new DaoException("Ошибка открытия курсора по пользователям", e);
+        }
+    }
+
+    @Override
+    public Stream<UserRow> streamRows(IdRange range, int fetchSize) throws DaoException {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize должен быть положительным: " + fetchSize);
+        }
+
+        // StatelessSession: строки не попадают ни в persistence context, ни в кэш второго уровня
+        StatelessSession session = router.forRead().openStatelessSession();
+        Transaction transaction = null;
+        try {
+            transaction = session.beginTransaction();
+
+            ScrollableResults<UserRow> results = session.createQuery(
+                            "SELECT new com.example.dao.UserRow(u.id, u.name, u.email, u.age, u.createdAt) "
+                                    + "FROM User u WHERE u.id >= :from AND u.id < :to ORDER BY u.id", UserRow.class)
+                    .setParameter("from", range.from())
+                    .setParameter("to", range.to())
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+
+            Transaction streamTransaction = transaction;
+            return StreamSupport.stream(new RowSpliterator<>(results), false)
+                    .onClose(() -> closeStream(session, streamTransaction, results));
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            session.close();
+            logger.error("Ошибка открытия курсора по строкам пользователей, диапазон: {}", range, e);
+            throw new DaoException("Ошибка открытия курсора по строкам пользователей", e);
+        }
+    }
+
+    @Override
+    public Optional<UserView> findViewById(Long id) throws DaoException {
+        try (StatelessSession session = router.forRead(id).openStatelessSession()) {
+            return session.createQuery(
+                            "SELECT new com.example.dao.UserView(u.id, u.name, u.email) FROM User u WHERE u.id = :id",
+                            UserView.class)
+                    .setParameter("id", id)
+                    .uniqueResultOptional();
+        } catch (Exception e) {
+            logger.error("Ошибка поиска пользователя по ID: {}", id, e);
+            throw new DaoException("Ошибка поиска пользователя по ID: " + id, e);
+        }
+    }
+
+    @Override
+    public Optional<UserView> findViewByEmail(String email) throws DaoException {
+        try (StatelessSession session = router.forRead(User.normalizeEmail(email)).openStatelessSession()) {
+            return session.createQuery(
+                            "SELECT new com.example.dao.UserView(u.id, u.name, u.email) FROM User u WHERE u.email = :email",
+                            UserView.class)
+                    .setParameter("email", User.normalizeEmail(email))
+                    .uniqueResultOptional();
+        } catch (Exception e) {
+            logger.error("Ошибка поиска пользователя по email: {}", email, e);
+            throw new DaoException("Ошибка поиска пользователя по email: " + email, e);
+        }
+    }
+
+    @Override
+    public Stream<UserView> streamViews(int fetchSize) throws DaoException {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize должен быть положительным: " + fetchSize);
+        }
+
+        StatelessSession session = router.forRead().openStatelessSession();
+        Transaction transaction = null;
+        try {
+            transaction = session.beginTransaction();
+
+            ScrollableResults<UserView> results = session.createQuery(
+                            "SELECT new com.example.dao.UserView(u.id, u.name, u.email) FROM User u ORDER BY u.id",
+                            UserView.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+
+            Transaction streamTransaction = transaction;
+            return StreamSupport.stream(new RowSpliterator<>(results), false)
+                    .onClose(() -> closeStream(session, streamTransaction, results));
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            session.close();
+            logger.error("Ошибка открытия курсора по списку пользователей", e);
+            throw new DaoException("Ошибка открытия курсора по списку пользователей", e);
+        }
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() throws DaoException {
+        try (StatelessSession session = router.forRead().openStatelessSession()) {
+            Object[] bounds = session.createQuery("SELECT MIN(u.id), MAX(u.id) FROM User u", Object[].class)
+                    .getSingleResult();
+            if (bounds[0] == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new IdRange((Long) bounds[0], (Long) bounds[1] + 1));
+        } catch (Exception e) {
+            logger.error("Ошибка чтения диапазона id пользователей", e);
+            throw new DaoException("Ошибка чтения диапазона id пользователей", e);
+        }
+    }
+
+    @Override
+    public UserPage findPage(Long afterId, int limit) throws DaoException {
+        return findPage(afterId == null ? null : PageToken.afterId(afterId), limit, UserSortKey.ID);
+    }
+
+    @Override
+    public UserPage findPage(String pageToken, int limit, UserSortKey sortKey) throws DaoException {
+        PageToken cursor = pageToken == null ? null : PageToken.decode(pageToken);
+        if (cursor != null && cursor.sortKey() != sortKey) {
+            throw new IllegalArgumentException("Токен страницы выдан для сортировки " + cursor.sortKey());
+        }
+        return findPage(cursor, limit, sortKey);
+    }
+
+    private UserPage findPage(PageToken cursor, int limit, UserSortKey sortKey) throws DaoException {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_PAGE_SIZE + ": " + limit);
+        }
+
+        try (Session session = openReadOnlySession(router.forRead())) {
+            Query<User> query;
+            if (sortKey == UserSortKey.CREATED_AT) {
+                query = cursor == null
+                        ? session.createQuery("FROM User u ORDER BY u.createdAt, u.id", User.class)
+                        : session.createQuery("FROM User u WHERE u.createdAt > :createdAt"
+                                + " OR (u.createdAt = :createdAt AND u.id > :afterId)"
+                                + " ORDER BY u.createdAt, u.id", User.class)
+                        .setParameter("createdAt", cursor.lastCreatedAt())
+                        .setParameter("afterId", cursor.lastId());
+            } else {
+                query = cursor == null
+                        ? session.createQuery("FROM User u ORDER BY u.id", User.class)
+                        : session.createQuery("FROM User u WHERE u.id > :afterId ORDER BY u.id", User.class)
+                        .setParameter("afterId", cursor.lastId());
+            }
+
+            // Берем на одну строку больше, чтобы без COUNT понять, есть ли следующая страница
+            List<User> users = query
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .setMaxResults(limit + 1)
+                    .getResultList();
+
+            if (users.size() <= limit) {
+                return new UserPage(users, null);
+            }
+            List<User> page = users.subList(0, limit);
+            return new UserPage(page, PageToken.after(page.get(limit - 1), sortKey).encode());
+
+        } catch (Exception e) {
+            logger.error("Ошибка постраничного чтения пользователей, сортировка: {}", sortKey, e);
+            throw new DaoException("Ошибка постраничного чтения пользователей", e);
+        }
+    }
+
     @Override
     public User update(User user) throws DaoException {
         Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = sessionFactory.openSession()) {
             transaction = session.beginTransaction();
 
-            User updatedUser = session.merge(user);
+            // Условный UPDATE: Hibernate добавляет "AND version = ?", ноль строк при flush - конфликт.
+            // Без версии (null) проверяется только версия, прочитанная здесь же
+            User current = session.get(User.class, user.getId());
+            if (current == null) {
+                // Строку удалили: повтор по версии тут не поможет
+                transaction.rollback();
+                throw new UserNotFoundException(user.getId());
+            }
+            if (user.getVersion() != null && !user.getVersion().equals(current.getVersion())) {
+                transaction.rollback();
+                throw new OptimisticLockConflictException(user.getId(), user.getVersion());
+            }
+            String previousEmail = current.getEmail();
+            current.setName(user.getName());
+            current.setEmail(user.getEmail());
+            current.setAge(user.getAge());
             transaction.commit();
+            router.recordWrite(List.of(current.getId(), previousEmail, current.getEmail()));
 
-            logger.debug("Данные пользователя обновлены: {}", updatedUser);
-            return updatedUser;
+            logger.debug("Данные пользователя обновлены, ID: {}, версия: {}", current.getId(), current.getVersion());
+            return current;
 
         } catch (Exception e) {
             if (transaction != null && transaction.isActive()) {
                 transaction.rollback();
             }
+            if (e instanceof UserNotFoundException missing) {
+                logger.debug("Не найден пользователь с ID: {}", user.getId());
+                throw missing;
+            }
+            if (e instanceof OptimisticLockConflictException || isVersionConflict(e)) {
+                logger.debug("Конфликт версий при обновлении пользователя с ID: {}", user.getId());
+                // Повтор после конфликта должен перечитать строку с primary: устаревшая копия
+                // из кэша второго уровня или отстающей реплики дала бы тот же конфликт снова
+                sessionFactory.getCache().evictEntityData(User.class, user.getId());
+                router.recordWrite(List.of(user.getId()));
+                throw e instanceof OptimisticLockConflictException conflict
+                        ? conflict
+                        : new OptimisticLockConflictException(user.getId(), user.getVersion(), e);
+            }
+            if (isUniqueViolation(e)) {
+                logger.debug("Email уже используется: {}", user.getEmail());
+                throw new DuplicateEmailException(user.getEmail(), e);
+            }
             logger.error("Ошибка обновления пользователя с ID: {}", user.getId(), e);
             throw new DaoException("Ошибка обновления пользователя", e);
         }
     }
 
+    // Hibernate при commit может обернуть StaleStateException в OptimisticLockException/RollbackException
+    private static boolean isVersionConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 23505 - unique_violation по SQL-стандарту (H2, PostgreSQL); единственный уникальный ключ кроме id - email
+    private static boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && "23505".equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<User> updateFields(Long id, String name, String email, Integer age) throws DaoException {
+        Transaction transaction = null;
+        try (Session session = sessionFactory.openSession()) {
+            transaction = session.beginTransaction();
+
+            // Только переданные поля, одним UPDATE без предварительного SELECT
+            StringJoiner assignments = new StringJoiner(", ");
+            if (name != null) assignments.add("name = :name");
+            if (email != null) assignments.add("email = :email");
+            if (age != null) assignments.add("age = :age");
+
+            int updated = 1;
+            String previousEmail = null;
+            if (assignments.length() > 0) {
+                MutationQuery query = session.createMutationQuery(
+                        "UPDATE User SET " + assignments + ", version = version + 1 WHERE id = :id");
+                if (name != null) query.setParameter("name", name);
+                if (email != null) query.setParameter("email", User.normalizeEmail(email));
+                if (age != null) query.setParameter("age", age);
+                try {
+                    // Заменяемый email читается с primary под блокировкой строки: поиск по нему тоже
+                    // должен уйти на primary, иначе реплика еще какое-то время находит пользователя по старому адресу
+                    if (email != null && router.tracksWrites()) {
+                        previousEmail = session.createQuery("SELECT u.email FROM User u WHERE u.id = :id", String.class)
+                                .setParameter("id", id)
+                                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                                .uniqueResult();
+                    }
+                    updated = query.setParameter("id", id).executeUpdate();
+                } catch (RuntimeException e) {
+                    // Откат, пока сессия открыта: к catch ниже соединение уже освобождено
+                    transaction.rollback();
+                    throw e;
+                }
+            }
+
+            User user = updated == 0 ? null : session.get(User.class, id);
+            transaction.commit();
+            router.recordWrite(Stream.of(id, previousEmail, User.normalizeEmail(email)).toList());
+
+            logger.debug("Обновлены поля пользователя с ID: {}, строк: {}", id, updated);
+            return Optional.ofNullable(user);
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            if (isUniqueViolation(e)) {
+                logger.debug("Email уже используется: {}", email);
+                throw new DuplicateEmailException(User.normalizeEmail(email), e);
+            }
+            logger.error("Ошибка обновления полей пользователя с ID: {}", id, e);
+            throw new DaoException("Ошибка обновления пользователя", e);
+        }
+    }
+
     @Override
-    public void delete(Long id) throws DaoException {
+    public boolean delete(Long id) throws DaoException {
         Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = sessionFactory.openSession()) {
             transaction = session.beginTransaction();
 
-            User user = session.get(User.class, id);
-            if (user != null) {
-                session.remove(user);
+            // Email удаляемой строки тоже попадает в окно записи: реплика еще может находить по нему пользователя
+            String email = !router.tracksWrites() ? null
+                    : session.createQuery("SELECT u.email FROM User u WHERE u.id = :id", String.class)
+                            .setParameter("id", id)
+                            .uniqueResult();
+            int deleted = session.createMutationQuery("DELETE FROM User WHERE id = :id")
+                    .setParameter("id", id)
+                    .executeUpdate();
+            transaction.commit();
+            router.recordWrite(Stream.of(id, email).toList());
+
+            if (deleted > 0) {
                 logger.debug("Удален пользователь по ID: {}", id);
             } else {
                 logger.debug("Не найден пользователь с ID: {}", id);
             }
-
-            transaction.commit();
+            return deleted > 0;
 
         } catch (Exception e) {
             if (transaction != null && transaction.isActive()) {
@@ -108,12 +626,52 @@ public class UserDaoImpl implements UserDao {
         }
     }
 
+    @Override
+    public int deleteAll(Collection<Long> ids) throws DaoException {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty()) {
+            return 0;
+        }
+
+        Transaction transaction = null;
+        try (Session session = sessionFactory.openSession()) {
+            transaction = session.beginTransaction();
+
+            int deleted = 0;
+            List<Object> written = new ArrayList<>(distinctIds);
+            for (int from = 0; from < distinctIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinctIds.size()));
+                if (router.tracksWrites()) {
+                    written.addAll(session.createQuery("SELECT u.email FROM User u WHERE u.id IN (:ids)", String.class)
+                            .setParameterList("ids", chunk)
+                            .getResultList());
+                }
+                deleted += session.createMutationQuery("DELETE FROM User WHERE id IN (:ids)")
+                        .setParameterList("ids", chunk)
+                        .executeUpdate();
+            }
+            transaction.commit();
+            router.recordWrite(written);
+
+            logger.debug("Удалено пользователей: {} из {} запрошенных", deleted, distinctIds.size());
+            return deleted;
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            logger.error("Ошибка пакетного удаления {} пользователей", distinctIds.size(), e);
+            throw new DaoException("Ошибка пакетного удаления пользователей", e);
+        }
+    }
+
     @Override
     public Optional<User> findByEmail(String email) throws DaoException {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = openReadOnlySession(router.forRead(User.normalizeEmail(email)))) {
             Query<User> query = session.createQuery(
                     "FROM User WHERE email = :email", User.class);
-            query.setParameter("email", email.trim().toLowerCase());
+            query.setParameter("email", User.normalizeEmail(email));
+            query.setCacheable(true);
 
             User user = query.uniqueResult();
             return Optional.ofNullable(user);
@@ -123,4 +681,183 @@ public class UserDaoImpl implements UserDao {
             throw new DaoException("Ошибка поиска пользователя по email: " + email, e);
         }
     }
+
+    @Override
+    public EmailBackfillResult normalizeEmails(int batchSize) throws DaoException {
+        long scanned = 0;
+        List<Long> conflicts = new ArrayList<>();
+        long afterId = Long.MIN_VALUE;
+        try {
+            // Один проход по id: каждая пачка в своей транзакции, уже исправленные строки повторно не читаются
+            while (true) {
+                long from = afterId;
+                List<Object[]> rows = sessionFactory.fromTransaction(session -> {
+                    List<Object[]> batch = session.createQuery(
+                                    "SELECT u.id, u.email FROM User u WHERE u.id > :afterId "
+                                            + "AND u.email <> lower(trim(u.email)) ORDER BY u.id", Object[].class)
+                            .setParameter("afterId", from)
+                            .setMaxResults(batchSize)
+                            .getResultList();
+                    if (!batch.isEmpty()) {
+                        normalizeBatch(session, batch, conflicts);
+                    }
+                    return batch;
+                });
+                if (rows.isEmpty()) {
+                    break;
+                }
+                scanned += rows.size();
+                afterId = (Long) rows.getLast()[0];
+            }
+        } catch (Exception e) {
+            logger.error("Ошибка нормализации email после ID: {}", afterId, e);
+            throw new DaoException("Ошибка нормализации email", e);
+        } finally {
+            // Строки менялись в обход сессии: кэш второго уровня по ним устарел
+            if (scanned > 0) {
+                sessionFactory.getCache().evictEntityData(User.class);
+                sessionFactory.getCache().evictQueryRegions();
+                router.recordWrite(List.of());
+            }
+        }
+
+        if (!conflicts.isEmpty()) {
+            logger.warn("Email не нормализован из-за конфликта у {} пользователей, ID: {}", conflicts.size(), conflicts);
+        }
+        long updated = scanned - conflicts.size();
+        logger.info("Нормализация email: просмотрено {}, обновлено {}", scanned, updated);
+        return new EmailBackfillResult(scanned, updated, conflicts);
+    }
+
+    // Конфликтующие строки пропускаются, чтобы одно нарушение уникальности не откатывало всю пачку
+    private static void normalizeBatch(Session session, List<Object[]> rows, List<Long> conflicts) {
+        Map<Long, String> normalized = new LinkedHashMap<>();
+        rows.forEach(row -> normalized.put((Long) row[0], User.normalizeEmail((String) row[1])));
+
+        Set<String> taken = new HashSet<>(session.createQuery(
+                        "SELECT u.email FROM User u WHERE u.email IN :emails", String.class)
+                .setParameter("emails", new HashSet<>(normalized.values()))
+                .getResultList());
+
+        List<Map.Entry<Long, String>> updates = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : normalized.entrySet()) {
+            if (taken.add(entry.getValue())) {
+                updates.add(entry);
+            } else {
+                conflicts.add(entry.getKey());
+            }
+        }
+
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE users SET email = ?, version = version + 1 WHERE id = ?")) {
+                for (Map.Entry<Long, String> update : updates) {
+                    statement.setString(1, update.getValue());
+                    statement.setLong(2, update.getKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    // Только чтение: без снимков для dirty checking и без flush перед запросами
+    private static Session openReadOnlySession(SessionFactory factory) {
+        Session session = factory.openSession();
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        return session;
+    }
+
+    // Запись, уже лежащая в кэше второго уровня primary, отдается из кэша без похода в базу
+    private SessionFactory readFactory(Long id) {
+        if (id != null && sessionFactory.getCache().containsEntity(User.class, id)) {
+            return sessionFactory;
+        }
+        return router.forRead(id);
+    }
+
+    private void recordWrites(Collection<User> users) {
+        router.recordWrite(users.stream().flatMap(user -> Stream.of(user.getId(), user.getEmail())).toList());
+    }
+
+    private static void closeStream(SharedSessionContract session, Transaction transaction,
+                                    ScrollableResults<?> results) {
+        try {
+            results.close();
+            if (transaction.isActive()) {
+                transaction.commit();
+            }
+        } catch (Exception e) {
+            logger.error("Ошибка закрытия курсора по пользователям", e);
+            throw new DaoException("Ошибка закрытия курсора по пользователям", e);
+        } finally {
+            session.close();
+        }
+    }
+
+    private static int resolveBatchSize(SessionFactory sessionFactory) {
+        Object value = sessionFactory.getProperties().get(AvailableSettings.STATEMENT_BATCH_SIZE);
+        if (value == null) {
+            return DEFAULT_BATCH_SIZE;
+        }
+        int size = Integer.parseInt(value.toString().trim());
+        return size > 0 ? size : DEFAULT_BATCH_SIZE;
+    }
+
+    private static final class RowSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final ScrollableResults<T> results;
+
+        private RowSpliterator(ScrollableResults<T> results) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+            this.results = results;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            T row;
+            try {
+                if (!results.next()) {
+                    return false;
+                }
+                row = results.get();
+            } catch (Exception e) {
+                logger.error("Ошибка чтения строк пользователей из курсора", e);
+                throw new DaoException("Ошибка чтения строк пользователей из курсора", e);
+            }
+            action.accept(row);
+            return true;
+        }
+    }
+
+    private static final class DetachingSpliterator extends Spliterators.AbstractSpliterator<User> {
+
+        private final Session session;
+        private final ScrollableResults<User> results;
+
+        private DetachingSpliterator(Session session, ScrollableResults<User> results) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT);
+            this.session = session;
+            this.results = results;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super User> action) {
+            User user;
+            try {
+                if (!results.next()) {
+                    return false;
+                }
+                user = results.get();
+                // Отсоединяем сразу, чтобы persistence context не рос вместе с таблицей
+                session.detach(user);
+            } catch (Exception e) {
+                logger.error("Ошибка чтения пользователей из курсора", e);
+                throw new DaoException("Ошибка чтения пользователей из курсора", e);
+            }
+            action.accept(user);
+            return true;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.dao;
+
+import com.example.entity.User;
+
+import java.util.List;
+
+public record UserPage(List<User> users, String nextPageToken) {
+
+    public UserPage {
+        users = List.copyOf(users);
+    }
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+}
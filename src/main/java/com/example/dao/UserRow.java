@@ -0,0 +1,7 @@
+package com.example.dao;
+
+import java.time.LocalDateTime;
+
+// Скалярная проекция строки users: без persistence context и без кэша второго уровня
+public record UserRow(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
+}
@@ -0,0 +1,6 @@
+package com.example.dao;
+
+public enum UserSortKey {
+    ID,
+    CREATED_AT
+}
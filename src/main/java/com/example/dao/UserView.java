@@ -0,0 +1,5 @@
+package com.example.dao;
+
+// Только то, что нужно спискам: без age/created_at и без гидрации сущности
+public record UserView(Long id, String name, String email) {
+}
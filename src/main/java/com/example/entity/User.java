@@ -1,16 +1,24 @@
 package com.example.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+// Индексы объявлены только в миграциях db/migration: копия здесь со временем разошлась бы с ними
 @Table(name = "users")
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
@@ -26,17 +34,28 @@ public class User {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Каждое изменение строки увеличивает версию; UPDATE с устаревшей версией не затронет ни одной строки
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public User() {
     }
 
     public User(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
         this.id = id;
         this.name = name;
-        this.email = email;
+        this.email = normalizeEmail(email);
         this.age = age;
         this.createdAt = createdAt;
     }
 
+    // Email хранится только в каноническом виде, иначе поиск по уникальному индексу промахивается
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public Long getId() {
         return id;
     }
@@ -57,6 +76,10 @@ public class User {
         return createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -66,7 +89,7 @@ public class User {
     }
 
     public void setEmail(String email) {
-        this.email = email;
+        this.email = normalizeEmail(email);
     }
 
     public void setAge(Integer age) {
@@ -77,6 +100,10 @@ public class User {
         this.createdAt = createdAt;
     }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -87,6 +114,7 @@ public class User {
         private String email;
         private Integer age;
         private LocalDateTime createdAt;
+        private Long version;
 
         public Builder id(Long id) {
             this.id = id;
@@ -99,7 +127,7 @@ public class User {
         }
 
         public Builder email(String email) {
-            this.email = email;
+            this.email = normalizeEmail(email);
             return this;
         }
 
@@ -113,6 +141,11 @@ public class User {
             return this;
         }
 
+        public Builder version(Long version) {
+            this.version = version;
+            return this;
+        }
+
         public User build() {
             User user = new User();
             user.id = this.id;
@@ -120,6 +153,7 @@ public class User {
             user.email = this.email;
             user.age = this.age;
             user.createdAt = this.createdAt != null ? this.createdAt : LocalDateTime.now();
+            user.version = this.version;
             return user;
         }
     }
@@ -132,6 +166,7 @@ public class User {
                 ", email='" + email + '\'' +
                 ", age=" + age +
                 ", createdAt=" + createdAt +
+                ", version=" + version +
                 '}';
     }
 
@@ -0,0 +1,93 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Запись о переносе строки между шардами: старый id -> новый. Хранится в целевом шарде и пишется
+// в одной транзакции с копией, поэтому у каждой копии есть запись, даже если запуск прервался.
+// sourceShard = -1 для строк из несегментированной базы: их id пересекаются с диапазоном шарда 0
+@Entity
+@IdClass(UserIdMove.Key.class)
+@Table(name = "user_id_moves")
+public class UserIdMove {
+
+    @Id
+    @Column(name = "source_shard", nullable = false)
+    private Integer sourceShard;
+
+    @Id
+    @Column(name = "previous_id", nullable = false)
+    private Long previousId;
+
+    @Column(name = "new_id", nullable = false)
+    private Long newId;
+
+    @Column(name = "moved_at", nullable = false)
+    private LocalDateTime movedAt;
+
+    public UserIdMove() {
+    }
+
+    public UserIdMove(Integer sourceShard, Long previousId, Long newId, LocalDateTime movedAt) {
+        this.sourceShard = sourceShard;
+        this.previousId = previousId;
+        this.newId = newId;
+        this.movedAt = movedAt;
+    }
+
+    public Integer getSourceShard() {
+        return sourceShard;
+    }
+
+    public Long getPreviousId() {
+        return previousId;
+    }
+
+    public Long getNewId() {
+        return newId;
+    }
+
+    public LocalDateTime getMovedAt() {
+        return movedAt;
+    }
+
+    public void setNewId(Long newId) {
+        this.newId = newId;
+    }
+
+    public void setMovedAt(LocalDateTime movedAt) {
+        this.movedAt = movedAt;
+    }
+
+    public static class Key implements Serializable {
+        private Integer sourceShard;
+        private Long previousId;
+
+        public Key() {
+        }
+
+        public Key(Integer sourceShard, Long previousId) {
+            this.sourceShard = sourceShard;
+            this.previousId = previousId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(sourceShard, key.sourceShard) && Objects.equals(previousId, key.previousId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceShard, previousId);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.exception;
+
+public class DuplicateEmailException extends DaoException {
+
+    private final String email;
+
+    public DuplicateEmailException(String email, Throwable cause) {
+        super(email != null ? "Email уже используется: " + email : "Email уже используется", cause);
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.exception;
+
+public class OptimisticLockConflictException extends DaoException {
+
+    private final Long id;
+    private final Long expectedVersion;
+
+    public OptimisticLockConflictException(Long id, Long expectedVersion) {
+        this(id, expectedVersion, null);
+    }
+
+    public OptimisticLockConflictException(Long id, Long expectedVersion, Throwable cause) {
+        super("Пользователь с id: " + id + " изменён параллельно, ожидалась версия " + expectedVersion, cause);
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+}
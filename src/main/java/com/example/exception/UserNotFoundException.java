@@ -0,0 +1,8 @@
+package com.example.exception;
+
+public class UserNotFoundException extends RuntimeException {
+
+    public UserNotFoundException(Long id) {
+        super("Пользователь не найден с id: " + id);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.exporter;
+
+import com.example.dao.UserRow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Заголовок "USR1", затем записи: int длина, long id, UTF name, UTF email, int age (MIN_VALUE = null),
+// long created_at в микросекундах от эпохи UTC. Длина впереди позволяет пропускать записи не разбирая их
+public final class BinaryUserFormat {
+
+    static final byte[] MAGIC = {'U', 'S', 'R', '1'};
+    private static final int NULL_AGE = Integer.MIN_VALUE;
+
+    private BinaryUserFormat() {
+    }
+
+    static final class Writer {
+
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        private final DataOutputStream fields = new DataOutputStream(record);
+
+        Writer(OutputStream out) {
+            this.out = new DataOutputStream(out);
+        }
+
+        void writeHeader() throws IOException {
+            out.write(MAGIC);
+        }
+
+        void write(UserRow row) throws IOException {
+            record.reset();
+            fields.writeLong(row.id());
+            fields.writeUTF(row.name());
+            fields.writeUTF(row.email());
+            fields.writeInt(row.age() == null ? NULL_AGE : row.age());
+            fields.writeLong(toMicros(row.createdAt()));
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+    }
+
+    public static long read(InputStream in, Consumer<UserRow> consumer) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] magic = data.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Неизвестный формат снимка пользователей");
+        }
+        long count = 0;
+        while (true) {
+            try {
+                data.readInt();
+            } catch (EOFException e) {
+                return count;
+            }
+            long id = data.readLong();
+            String name = data.readUTF();
+            String email = data.readUTF();
+            int age = data.readInt();
+            LocalDateTime createdAt = fromMicros(data.readLong());
+            consumer.accept(new UserRow(id, name, email, age == NULL_AGE ? null : age, createdAt));
+            count++;
+        }
+    }
+
+    private static long toMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.exporter;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV,
+    NDJSON,
+    BINARY;
+
+    public static ExportFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return name.endsWith(".bin") ? BINARY : CSV;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.exporter;
+
+import java.time.Duration;
+
+public record ExportReport(long rows, long bytes, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds > 0 ? rows / seconds : 0;
+    }
+}
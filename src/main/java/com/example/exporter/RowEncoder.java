@@ -0,0 +1,145 @@
+package com.example.exporter;
+
+import com.example.dao.UserRow;
+import com.example.json.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+// Кодировщики переиспользуют свои буферы, поэтому на строку не создаётся промежуточных объектов кроме чисел
+abstract class RowEncoder {
+
+    static RowEncoder create(ExportFormat format, OutputStream out) {
+        return switch (format) {
+            case CSV -> new Csv(out);
+            case NDJSON -> new Ndjson(out);
+            case BINARY -> new Binary(out);
+        };
+    }
+
+    abstract void writeHeader() throws IOException;
+
+    abstract void write(UserRow row) throws IOException;
+
+    abstract void flush() throws IOException;
+
+    private static final class Csv extends RowEncoder {
+
+        private final Writer writer;
+
+        private Csv(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            writer.write("id,name,email,age,created_at\n");
+        }
+
+        @Override
+        void write(UserRow row) throws IOException {
+            writer.write(Long.toString(row.id()));
+            writer.write(',');
+            writeField(row.name());
+            writer.write(',');
+            writeField(row.email());
+            writer.write(',');
+            if (row.age() != null) {
+                writer.write(Integer.toString(row.age()));
+            }
+            writer.write(',');
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(row.createdAt(), writer);
+            writer.write('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    writer.write('"');
+                }
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+    }
+
+    private static final class Ndjson extends RowEncoder {
+
+        private final OutputStream out;
+        private final JsonWriter json = new JsonWriter(256);
+
+        private Ndjson(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        void writeHeader() {
+        }
+
+        @Override
+        void write(UserRow row) throws IOException {
+            json.reset()
+                    .beginObject()
+                    .name("id").value(row.id())
+                    .name("name").value(row.name())
+                    .name("email").value(row.email())
+                    .name("age").value(row.age())
+                    .name("createdAt").value(row.createdAt())
+                    .endObject()
+                    .newLine()
+                    .writeTo(out);
+        }
+
+        @Override
+        void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static final class Binary extends RowEncoder {
+
+        private final OutputStream out;
+        private final BinaryUserFormat.Writer writer;
+
+        private Binary(OutputStream out) {
+            this.out = out;
+            this.writer = new BinaryUserFormat.Writer(out);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            writer.writeHeader();
+        }
+
+        @Override
+        void write(UserRow row) throws IOException {
+            writer.write(row);
+        }
+
+        @Override
+        void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.exporter;
+
+import com.example.dao.IdRange;
+import com.example.dao.UserDao;
+import com.example.dao.UserRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Строки идут из курсора прямо в буфер файла: память не зависит от размера таблицы.
+// В параллельном режиме каждый поток пишет свой диапазон id в отдельную часть, части склеиваются по порядку
+// (склеенные gzip-потоки - корректный многочленный gzip)
+public class UserExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExporter.class);
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final long PROGRESS_EVERY = 1_000_000;
+
+    private final UserDao userDao;
+    private final ExportFormat format;
+    private final boolean gzip;
+    private final int threads;
+    private final int fetchSize;
+
+    public UserExporter(UserDao userDao, ExportFormat format, boolean gzip, int threads, int fetchSize) {
+        if (threads <= 0 || fetchSize <= 0) {
+            throw new IllegalArgumentException("Число потоков и fetchSize должны быть больше 0");
+        }
+        this.userDao = userDao;
+        this.format = format;
+        this.gzip = gzip;
+        this.threads = threads;
+        this.fetchSize = fetchSize;
+    }
+
+    public ExportReport export(Path target) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        LongAdder rows = new LongAdder();
+        logger.info("Экспорт в {} ({}, gzip: {}), потоков {}", target, format, gzip, threads);
+
+        List<IdRange> ranges = userDao.findIdRange()
+                .map(range -> range.split(threads))
+                .orElse(List.of());
+        if (ranges.size() <= 1) {
+            writePart(target, ranges.isEmpty() ? null : ranges.getFirst(), true, rows);
+        } else {
+            writeParallel(target, ranges, rows);
+        }
+
+        ExportReport report = new ExportReport(rows.sum(), Files.size(target), Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Экспорт завершён за {} мс: {} строк, {} байт, {} строк/с", report.elapsed().toMillis(),
+                report.rows(), report.bytes(), String.format("%.0f", report.rowsPerSecond()));
+        return report;
+    }
+
+    private void writeParallel(Path target, List<IdRange> ranges, LongAdder rows)
+            throws IOException, InterruptedException {
+        List<Path> parts = new ArrayList<>(ranges.size());
+        ExecutorService executor = Executors.newFixedThreadPool(ranges.size(),
+                Thread.ofPlatform().name("export-", 0).factory());
+        try {
+            List<Future<?>> futures = new ArrayList<>(ranges.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                Path part = target.resolveSibling(target.getFileName() + ".part" + i);
+                parts.add(part);
+                IdRange range = ranges.get(i);
+                boolean first = i == 0;
+                futures.add(executor.submit(() -> {
+                    writePart(part, range, first, rows);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                await(future);
+            }
+            concatenate(parts, target);
+        } finally {
+            executor.shutdownNow();
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    private void writePart(Path file, IdRange range, boolean header, LongAdder rows) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = open(channel)) {
+            RowEncoder encoder = RowEncoder.create(format, out);
+            if (header) {
+                encoder.writeHeader();
+            }
+            if (range != null) {
+                try (Stream<UserRow> stream = userDao.streamRows(range, fetchSize)) {
+                    Iterator<UserRow> iterator = stream.iterator();
+                    long written = 0;
+                    while (iterator.hasNext()) {
+                        encoder.write(iterator.next());
+                        rows.increment();
+                        if (++written % PROGRESS_EVERY == 0) {
+                            logger.info("Выгружено {} строк из диапазона {}", written, range);
+                        }
+                    }
+                }
+            }
+            encoder.flush();
+        }
+    }
+
+    private OutputStream open(FileChannel channel) throws IOException {
+        OutputStream out = Channels.newOutputStream(channel);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    private static void concatenate(List<Path> parts, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void await(Future<?> future) throws IOException, InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.http;
+
+import com.example.dao.UserPage;
+import com.example.dao.UserSortKey;
+import com.example.entity.User;
+import com.example.exception.DuplicateEmailException;
+import com.example.exception.UserNotFoundException;
+import com.example.json.JsonReader;
+import com.example.json.JsonWriter;
+import com.example.metrics.MetricsRegistry;
+import com.example.metrics.OperationMetrics;
+import com.example.service.AsyncUserService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+// Маршруты /users поверх AsyncUserService: обработчик уже работает в виртуальном потоке и просто ждёт future
+class UserHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserHandler.class);
+    private static final String PREFIX = "/users";
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final AsyncUserService users;
+    private final OperationMetrics create;
+    private final OperationMetrics getById;
+    private final OperationMetrics getByEmail;
+    private final OperationMetrics list;
+    private final OperationMetrics update;
+    private final OperationMetrics delete;
+    private final OperationMetrics unknown;
+
+    UserHandler(AsyncUserService users, MetricsRegistry metrics) {
+        this.users = users;
+        this.create = metrics.operation("http", "createUser");
+        this.getById = metrics.operation("http", "getUserById");
+        this.getByEmail = metrics.operation("http", "getUserByEmail");
+        this.list = metrics.operation("http", "listUsers");
+        this.update = metrics.operation("http", "updateUser");
+        this.delete = metrics.operation("http", "deleteUser");
+        this.unknown = metrics.operation("http", "unknown");
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        // Контекст HttpServer совпадает по префиксу, поэтому /usersX сюда тоже попадает
+        String tail = exchange.getRequestURI().getRawPath().substring(PREFIX.length());
+        Long id = null;
+        boolean known = tail.isEmpty() || tail.equals("/");
+        if (!known && tail.charAt(0) == '/') {
+            id = parseId(tail.substring(1));
+            known = id != null;
+        }
+
+        OperationMetrics metrics = known ? route(method, id, exchange.getRequestURI().getRawQuery()) : unknown;
+        long start = metrics.start();
+        try (exchange) {
+            Response response = known ? dispatch(exchange, method, id) : Response.error(404, "Ресурс не найден");
+            send(exchange, response);
+            if (response.status() >= 500) {
+                metrics.failure(start, "HTTP " + response.status());
+            } else {
+                metrics.success(start);
+            }
+        } catch (IOException | RuntimeException e) {
+            metrics.failure(start, e);
+            throw e;
+        }
+    }
+
+    private OperationMetrics route(String method, Long id, String query) {
+        return switch (method) {
+            case "POST" -> id == null ? create : unknown;
+            case "GET" -> id != null ? getById
+                    : query != null && query.contains("email=") ? getByEmail : list;
+            case "PATCH" -> id != null ? update : unknown;
+            case "DELETE" -> id != null ? delete : unknown;
+            default -> unknown;
+        };
+    }
+
+    private Response dispatch(HttpExchange exchange, String method, Long id) {
+        try {
+            return switch (method) {
+                case "POST" -> id == null ? create(exchange) : Response.error(405, "Метод не поддерживается");
+                case "GET" -> id != null ? getById(id) : find(query(exchange));
+                case "PATCH" -> id != null ? update(exchange, id) : Response.error(405, "Метод не поддерживается");
+                case "DELETE" -> id != null ? delete(id) : Response.error(405, "Метод не поддерживается");
+                default -> Response.error(405, "Метод не поддерживается");
+            };
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        } catch (UserNotFoundException e) {
+            return Response.error(404, e.getMessage());
+        } catch (TimeoutException e) {
+            return Response.error(504, "Превышено время ожидания ответа");
+        } catch (CancellationException e) {
+            return Response.error(503, "Запрос отменен");
+        } catch (RuntimeException e) {
+            // Сервис оборачивает ошибки DAO, поэтому занятый email ищется по цепочке причин
+            DuplicateEmailException duplicate = duplicateEmail(e);
+            if (duplicate != null) {
+                return Response.error(409, duplicate.getMessage());
+            }
+            // Текст внутренних ошибок остается в логе, клиенту он ни к чему
+            logger.error("Ошибка обработки {} {}", method, exchange.getRequestURI().getPath(), e);
+            return Response.error(500, "Внутренняя ошибка сервера");
+        } catch (IOException e) {
+            return Response.error(400, "Не удалось прочитать тело запроса");
+        }
+    }
+
+    private Response create(HttpExchange exchange) throws IOException, TimeoutException {
+        Map<String, Object> body = readBody(exchange);
+        String name = UserJson.string(body, "name");
+        String email = UserJson.string(body, "email");
+        if (name == null) {
+            throw new IllegalArgumentException("Введите имя");
+        }
+        if (email == null) {
+            throw new IllegalArgumentException("Введите корректный email");
+        }
+        validate(name, email);
+        User user = await(users.createUser(name.trim(), email.trim(), UserJson.integer(body, "age")));
+        Response response = Response.json(201, UserJson.write(new JsonWriter(), user));
+        exchange.getResponseHeaders().set("Location", PREFIX + "/" + user.getId());
+        return response;
+    }
+
+    private Response getById(Long id) throws TimeoutException {
+        return found(await(users.getUserById(id)));
+    }
+
+    private Response find(Map<String, String> query) throws TimeoutException {
+        String email = query.get("email");
+        if (email != null) {
+            return found(await(users.getUserByEmail(email)));
+        }
+
+        int limit = query.containsKey("limit") ? parseInt(query.get("limit"), "limit") : DEFAULT_PAGE_SIZE;
+        UserPage page;
+        if (query.containsKey("pageToken") || query.containsKey("sort")) {
+            UserSortKey sortKey = query.containsKey("sort") ? parseSortKey(query.get("sort")) : UserSortKey.ID;
+            page = await(users.getUsersPage(query.get("pageToken"), limit, sortKey));
+        } else {
+            Long afterId = query.containsKey("after") ? parseLong(query.get("after"), "after") : null;
+            page = await(users.getUsersPage(afterId, limit));
+        }
+        return Response.json(200, UserJson.write(new JsonWriter(1024), page));
+    }
+
+    private Response update(HttpExchange exchange, Long id) throws IOException, TimeoutException {
+        Map<String, Object> body = readBody(exchange);
+        String name = UserJson.string(body, "name");
+        String email = UserJson.string(body, "email");
+        // В PATCH поля необязательны, но переданные проверяются так же, как при создании
+        validate(name, email);
+        User user = await(users.updateUser(id,
+                name != null ? name.trim() : null, email != null ? email.trim() : null, UserJson.integer(body, "age")));
+        return Response.json(200, UserJson.write(new JsonWriter(), user));
+    }
+
+    private Response delete(Long id) throws TimeoutException {
+        return await(users.deleteUser(id))
+                ? new Response(204, null)
+                : Response.error(404, "Пользователь не найден с id: " + id);
+    }
+
+    private static void validate(String name, String email) {
+        if (name != null && name.isBlank()) {
+            throw new IllegalArgumentException("Введите имя");
+        }
+        if (email != null && !email.contains("@")) {
+            throw new IllegalArgumentException("Введите корректный email");
+        }
+    }
+
+    private static DuplicateEmailException duplicateEmail(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateEmailException duplicate) {
+                return duplicate;
+            }
+        }
+        return null;
+    }
+
+    private static Response found(Optional<User> user) {
+        return user.map(value -> Response.json(200, UserJson.write(new JsonWriter(), value)))
+                .orElseGet(() -> Response.error(404, "Пользователь не найден"));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws TimeoutException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Обработка прервана");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException timeout) {
+                throw timeout;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Тело запроса больше " + MAX_BODY_BYTES + " байт");
+            }
+            return JsonReader.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        // close() дочитывает остаток тела, иначе соединение не вернётся в keep-alive
+        exchange.getRequestBody().close();
+        if (response.body() == null) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(response.status(), response.body().size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            response.body().writeTo(out);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        String raw = exchange.getRequestURI().getRawQuery();
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static Long parseId(String raw) {
+        try {
+            long id = Long.parseLong(raw);
+            return id > 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static UserSortKey parseSortKey(String value) {
+        try {
+            return UserSortKey.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестная сортировка: " + value);
+        }
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть числом");
+        }
+    }
+
+    private static long parseLong(String value, String name) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть числом");
+        }
+    }
+
+    private record Response(int status, JsonWriter body) {
+
+        static Response json(int status, JsonWriter body) {
+            return new Response(status, body);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, UserJson.error(new JsonWriter(64), message));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.http;
+
+import com.example.metrics.MetricsRegistry;
+import com.example.service.AsyncUserService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// HTTP/1.1 с keep-alive из коробки: ответы всегда с Content-Length, каждый запрос в своём виртуальном потоке
+public class UserHttpServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserHttpServer.class);
+    private static final int BACKLOG = 1024;
+    private static final int STOP_DELAY_SECONDS = 2;
+
+    static {
+        // Заголовки и тело уходят отдельными write: без TCP_NODELAY Nagle + delayed ACK дают ~40 мс на ответ.
+        // Свойства читаются один раз при первом создании сервера в JVM
+        System.setProperty("sun.net.httpserver.nodelay",
+                System.getProperty("sun.net.httpserver.nodelay", "true"));
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final MetricsRegistry metrics;
+
+    public UserHttpServer(AsyncUserService users, MetricsRegistry metrics, InetSocketAddress address) throws IOException {
+        this.metrics = metrics;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/users", new UserHandler(users, metrics));
+        server.createContext("/metrics", this::metrics);
+        server.createContext("/health", exchange -> sendText(exchange, 200, "OK"));
+    }
+
+    public UserHttpServer start() {
+        server.start();
+        logger.info("HTTP-сервер запущен на порту {}", port());
+        return this;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.close();
+        logger.info("HTTP-сервер остановлен");
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        sendText(exchange, 200, metrics.toPrometheusText());
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        try (exchange) {
+            byte[] body = text.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
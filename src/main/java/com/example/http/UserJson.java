@@ -0,0 +1,59 @@
+package com.example.http;
+
+import com.example.dao.UserPage;
+import com.example.entity.User;
+import com.example.json.JsonWriter;
+
+import java.util.Map;
+
+final class UserJson {
+
+    private UserJson() {
+    }
+
+    static JsonWriter write(JsonWriter json, User user) {
+        return json.beginObject()
+                .name("id").value(user.getId())
+                .name("name").value(user.getName())
+                .name("email").value(user.getEmail())
+                .name("age").value(user.getAge())
+                .name("createdAt").value(user.getCreatedAt())
+                .endObject();
+    }
+
+    static JsonWriter write(JsonWriter json, UserPage page) {
+        json.beginObject().name("users").beginArray();
+        for (User user : page.users()) {
+            write(json, user);
+        }
+        return json.endArray()
+                .name("nextPageToken").value(page.nextPageToken())
+                .endObject();
+    }
+
+    static JsonWriter error(JsonWriter json, String message) {
+        return json.beginObject().name("error").value(message).endObject();
+    }
+
+    static String string(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof String text)) {
+            throw new IllegalArgumentException("Поле " + field + " должно быть строкой");
+        }
+        return text;
+    }
+
+    static Integer integer(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Long number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Поле " + field + " должно быть целым числом");
+        }
+        return number.intValue();
+    }
+}
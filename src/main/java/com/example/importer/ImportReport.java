@@ -0,0 +1,21 @@
+package com.example.importer;
+
+import java.time.Duration;
+import java.util.List;
+
+// rejectedLines хранит только первые строки с ошибками, rejected - их полное число
+public record ImportReport(long records, long inserted, long updated, long rejected,
+                           List<RejectedLine> rejectedLines, Duration elapsed) {
+
+    public ImportReport {
+        rejectedLines = List.copyOf(rejectedLines);
+    }
+
+    public double rowsPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds > 0 ? (inserted + updated) / seconds : 0;
+    }
+
+    public record RejectedLine(long line, String reason) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.importer;
+
+import com.example.entity.User;
+import com.example.json.JsonReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Проверки те же, что в Main.create: имя не пустое, email содержит '@', возраст - целое число или пусто.
+// Ошибка строки - IllegalArgumentException с причиной для отчёта
+class RecordParser {
+
+    private static final int MAX_LENGTH = 100;
+
+    private final ImportFormat format;
+    private final List<String> fields = new ArrayList<>(4);
+    private final StringBuilder field = new StringBuilder(64);
+    private int nameColumn = 0;
+    private int emailColumn = 1;
+    private int ageColumn = 2;
+
+    RecordParser(ImportFormat format) {
+        this.format = format;
+    }
+
+    // Заголовок CSV задаёт порядок колонок; без заголовка - name,email,age
+    boolean readHeader(String line) {
+        if (format != ImportFormat.CSV) {
+            return false;
+        }
+        split(line);
+        List<String> columns = fields.stream().map(column -> column.trim().toLowerCase(Locale.ROOT)).toList();
+        int email = columns.indexOf("email");
+        if (email < 0) {
+            return false;
+        }
+        nameColumn = columns.indexOf("name");
+        emailColumn = email;
+        ageColumn = columns.indexOf("age");
+        if (nameColumn < 0) {
+            throw new IllegalArgumentException("В заголовке нет колонки name");
+        }
+        return true;
+    }
+
+    User parse(String line) {
+        return format == ImportFormat.CSV ? parseCsv(line) : parseJson(line);
+    }
+
+    private User parseCsv(String line) {
+        split(line);
+        return toUser(column(nameColumn), column(emailColumn), column(ageColumn));
+    }
+
+    private User parseJson(String line) {
+        Map<String, Object> object = JsonReader.parseObject(line);
+        Object age = object.get("age");
+        if (age != null && !(age instanceof Long)) {
+            throw new IllegalArgumentException("Возраст должен быть целым числом: " + age);
+        }
+        return toUser(text(object, "name"), text(object, "email"), age == null ? null : age.toString());
+    }
+
+    private static User toUser(String rawName, String rawEmail, String rawAge) {
+        String name = rawName == null ? "" : rawName.trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Введите имя");
+        }
+        if (name.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Имя длиннее " + MAX_LENGTH + " символов");
+        }
+        String email = User.normalizeEmail(rawEmail);
+        if (email == null || email.isEmpty() || !email.contains("@")) {
+            throw new IllegalArgumentException("Введите корректный email");
+        }
+        if (email.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Email длиннее " + MAX_LENGTH + " символов");
+        }
+        String ageText = rawAge == null ? "" : rawAge.trim();
+        Integer age;
+        try {
+            age = ageText.isEmpty() ? null : Integer.parseInt(ageText);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Возраст должен быть целым числом: " + ageText);
+        }
+        return User.builder().name(name).email(email).age(age).build();
+    }
+
+    private String column(int index) {
+        return index >= 0 && index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static String text(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("Поле " + name + " должно быть строкой");
+        }
+        return (String) value;
+    }
+
+    // RFC 4180 без переносов строк внутри кавычек: "a ""b""",c
+    private void split(String line) {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка");
+        }
+        fields.add(field.toString());
+    }
+}
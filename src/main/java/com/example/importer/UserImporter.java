@@ -0,0 +1,274 @@
+package com.example.importer;
+
+import com.example.dao.UpsertResult;
+import com.example.dao.UserDao;
+import com.example.entity.User;
+import com.example.exception.DuplicateEmailException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Чтение и разбор идут в вызывающем потоке, запись - в отдельных потоках через ограниченную очередь:
+// если база не успевает, читатель ждёт на очереди и память не растёт
+public class UserImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImporter.class);
+    private static final int MAX_REPORTED_REJECTS = 1000;
+    private static final long PROGRESS_EVERY = 100_000;
+    private static final Batch END = new Batch(List.of(), new long[0]);
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final UserDao userDao;
+    private final int batchSize;
+    private final int writers;
+    private final boolean upsert;
+
+    public UserImporter(UserDao userDao, int batchSize, int writers, boolean upsert) {
+        if (batchSize <= 0 || writers <= 0) {
+            throw new IllegalArgumentException("Размер пачки и число писателей должны быть больше 0");
+        }
+        this.userDao = userDao;
+        this.batchSize = batchSize;
+        this.writers = writers;
+        this.upsert = upsert;
+    }
+
+    public ImportReport importFile(Path file) throws IOException, InterruptedException {
+        return importFile(file, ImportFormat.of(file));
+    }
+
+    public ImportReport importFile(Path file, ImportFormat format) throws IOException, InterruptedException {
+        Run run = new Run();
+        logger.info("Импорт {} ({}), пачка {}, писателей {}, upsert: {}", file, format, batchSize, writers, upsert);
+
+        List<Thread> threads = new ArrayList<>(writers);
+        for (int i = 0; i < writers; i++) {
+            threads.add(Thread.ofPlatform().name("import-writer-" + i).start(() -> drain(run)));
+        }
+        long records = 0;
+        try (LineReader reader = new LineReader(file)) {
+            RecordParser parser = new RecordParser(format);
+            List<User> users = new ArrayList<>(batchSize);
+            long[] lines = new long[batchSize];
+            boolean first = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (first) {
+                    first = false;
+                    if (parser.readHeader(line)) {
+                        continue;
+                    }
+                }
+                records++;
+                try {
+                    lines[users.size()] = reader.lineNumber();
+                    users.add(parser.parse(line));
+                } catch (IllegalArgumentException e) {
+                    run.reject(reader.lineNumber(), e.getMessage());
+                }
+                if (users.size() == batchSize) {
+                    if (run.failure.get() != null) {
+                        break;
+                    }
+                    run.submit(new Batch(users, lines));
+                    users = new ArrayList<>(batchSize);
+                    lines = new long[batchSize];
+                }
+            }
+            if (!users.isEmpty() && run.failure.get() == null) {
+                run.submit(new Batch(users, lines));
+            }
+        } finally {
+            for (int i = 0; i < writers; i++) {
+                run.submit(END);
+            }
+            if (run.failure.get() != null) {
+                threads.forEach(Thread::interrupt);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        if (run.failure.get() != null) {
+            throw new IllegalStateException("Импорт прерван: " + run.failure.get().getMessage(), run.failure.get());
+        }
+
+        ImportReport report = run.report(records);
+        logger.info("Импорт завершён за {} мс: записей {}, добавлено {}, обновлено {}, отклонено {}, {} строк/с",
+                report.elapsed().toMillis(), report.records(), report.inserted(), report.updated(),
+                report.rejected(), String.format("%.0f", report.rowsPerSecond()));
+        return report;
+    }
+
+    private void drain(Run run) {
+        try {
+            while (true) {
+                Batch batch = run.queue.take();
+                if (batch == END) {
+                    return;
+                }
+                write(run, batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            logger.error("Писатель импорта остановлен", e);
+            run.failure.compareAndSet(null, e);
+        }
+    }
+
+    private void write(Run run, Batch batch) {
+        try {
+            store(run, batch.users());
+        } catch (RuntimeException e) {
+            // Отказ базы или пула не относится к строкам: повтор по одной дал бы тысячи "отклоненных" строк
+            if (!isDataError(e)) {
+                throw e;
+            }
+            // Пачка откатилась целиком: повторяем по одной записи, чтобы отклонить только плохие строки
+            logger.warn("Пачка из {} записей не записана, повтор по одной: {}", batch.users().size(), reason(e));
+            for (int i = 0; i < batch.users().size(); i++) {
+                try {
+                    store(run, List.of(copyOf(batch.users().get(i))));
+                } catch (RuntimeException rowError) {
+                    if (!isDataError(rowError)) {
+                        throw rowError;
+                    }
+                    run.reject(batch.lines()[i], reason(rowError));
+                }
+            }
+        }
+        run.progress(batch.users().size());
+    }
+
+    private void store(Run run, List<User> users) {
+        if (upsert) {
+            UpsertResult result = userDao.upsertAll(users);
+            run.inserted.add(result.inserted());
+            run.updated.add(result.updated());
+        } else {
+            userDao.saveAll(users);
+            run.inserted.add(users.size());
+        }
+    }
+
+    // После отката у сущности остался id из последовательности, persist такой посчитал бы её отсоединённой
+    private static User copyOf(User user) {
+        return User.builder()
+                .name(user.getName())
+                .email(user.getEmail())
+                .age(user.getAge())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+
+    // Ошибки строки: нарушение ограничения (SQLSTATE класса 23) или некорректные данные (класса 22)
+    private static boolean isDataError(Throwable error) {
+        return sqlState(error) != null || hasCause(error, DuplicateEmailException.class)
+                || hasCause(error, ConstraintViolationException.class);
+    }
+
+    // В отчет идут код причины и поле, но не текст драйвера с SQL и значениями
+    private static String reason(Throwable error) {
+        String state = sqlState(error);
+        if (hasCause(error, DuplicateEmailException.class) || UNIQUE_VIOLATION.equals(state)) {
+            return "Email уже используется (SQLSTATE " + UNIQUE_VIOLATION + "), поле: email";
+        }
+        ConstraintViolationException violation = findCause(error, ConstraintViolationException.class);
+        String field = violation != null && violation.getConstraintName() != null
+                ? ", ограничение: " + violation.getConstraintName()
+                : "";
+        if (state != null && state.startsWith("22")) {
+            return "Некорректное значение (SQLSTATE " + state + ")" + field;
+        }
+        return "Нарушено ограничение (SQLSTATE " + (state != null ? state : "23000") + ")" + field;
+    }
+
+    private static String sqlState(Throwable error) {
+        for (Throwable cause = error; cause != null && cause != cause.getCause(); cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("23") || sql.getSQLState().startsWith("22"))) {
+                return sql.getSQLState();
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasCause(Throwable error, Class<? extends Throwable> type) {
+        return findCause(error, type) != null;
+    }
+
+    private static <T extends Throwable> T findCause(Throwable error, Class<T> type) {
+        for (Throwable cause = error; cause != null && cause != cause.getCause(); cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+        }
+        return null;
+    }
+
+    private record Batch(List<User> users, long[] lines) {
+    }
+
+    private final class Run {
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(writers * 2);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final LongAdder inserted = new LongAdder();
+        private final LongAdder updated = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder written = new LongAdder();
+        private final AtomicInteger reportedRejects = new AtomicInteger();
+        private final ConcurrentLinkedQueue<ImportReport.RejectedLine> rejectedLines = new ConcurrentLinkedQueue<>();
+        private final long start = System.nanoTime();
+
+        void submit(Batch batch) throws InterruptedException {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    return;
+                }
+            }
+        }
+
+        void reject(long line, String reason) {
+            rejected.increment();
+            if (reportedRejects.incrementAndGet() <= MAX_REPORTED_REJECTS) {
+                rejectedLines.add(new ImportReport.RejectedLine(line, reason));
+            }
+        }
+
+        void progress(int records) {
+            long before = written.sum();
+            written.add(records);
+            if ((before + records) / PROGRESS_EVERY > before / PROGRESS_EVERY) {
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                logger.info("Импортировано {} записей, {} строк/с", before + records,
+                        String.format("%.0f", (inserted.sum() + updated.sum()) / seconds));
+            }
+        }
+
+        ImportReport report(long records) {
+            List<ImportReport.RejectedLine> lines = new ArrayList<>(rejectedLines);
+            lines.sort(Comparator.comparingLong(ImportReport.RejectedLine::line));
+            return new ImportReport(records, inserted.sum(), updated.sum(), rejected.sum(), lines,
+                    Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Минимальный разбор JSON: объекты -> LinkedHashMap, массивы -> ArrayList,
+// целые -> Long, дробные -> Double; ошибки - IllegalArgumentException с позицией
+public final class JsonReader {
+
+    // Разбор рекурсивный: без предела глубины тело из одних '[' кончается StackOverflowError
+    static final int MAX_DEPTH = 32;
+
+    private final CharSequence input;
+    private int position;
+    private int depth;
+
+    private JsonReader(CharSequence input) {
+        this.input = input;
+    }
+
+    public static Object parse(CharSequence input) {
+        JsonReader reader = new JsonReader(input);
+        reader.skipWhitespace();
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position != input.length()) {
+            throw reader.error("лишние символы после значения");
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(CharSequence input) {
+        Object value = parse(input);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Ожидался JSON-объект");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private Object readValue() {
+        if (position >= input.length()) {
+            throw error("неожиданный конец данных");
+        }
+        char c = input.charAt(position);
+        return switch (c) {
+            case '{' -> readNested(true);
+            case '[' -> readNested(false);
+            case '"' -> readString();
+            case 't' -> readLiteral("true", Boolean.TRUE);
+            case 'f' -> readLiteral("false", Boolean.FALSE);
+            case 'n' -> readLiteral("null", null);
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    yield readNumber();
+                }
+                throw error("неожиданный символ '" + c + "'");
+            }
+        };
+    }
+
+    private Object readNested(boolean object) {
+        if (++depth > MAX_DEPTH) {
+            throw error("вложенность больше " + MAX_DEPTH);
+        }
+        Object value = object ? readObject() : readArray();
+        depth--;
+        return value;
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("ожидалось имя поля");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            object.put(name, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw error("ожидалась ',' или '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            skipWhitespace();
+            array.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                return array;
+            }
+            if (c != ',') {
+                throw error("ожидалась ',' или ']'");
+            }
+        }
+    }
+
+    private String readString() {
+        position++;
+        int start = position;
+        // Быстрый путь: строка без экранирования
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c == '"') {
+                return input.subSequence(start, position++).toString();
+            }
+            if (c == '\\' || c < 0x20) {
+                break;
+            }
+            position++;
+        }
+        StringBuilder out = new StringBuilder(position - start + 16).append(input, start, position);
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return out.toString();
+            }
+            if (c < 0x20) {
+                throw error("управляющий символ в строке");
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"', '\\', '/' -> out.append(escaped);
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'u' -> {
+                    if (position + 4 > input.length()) {
+                        throw error("обрезанная escape-последовательность");
+                    }
+                    try {
+                        out.append((char) Integer.parseInt(input, position, position + 4, 16));
+                    } catch (NumberFormatException e) {
+                        throw error("некорректная escape-последовательность");
+                    }
+                    position += 4;
+                }
+                default -> throw error("некорректная escape-последовательность");
+            }
+        }
+    }
+
+    private Object readNumber() {
+        int start = position;
+        if (peek() == '-') {
+            position++;
+        }
+        boolean integral = true;
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c >= '0' && c <= '9') {
+                position++;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                integral = false;
+                position++;
+            } else {
+                break;
+            }
+        }
+        try {
+            if (integral) {
+                return Long.parseLong(input, start, position, 10);
+            }
+            return Double.parseDouble(input.subSequence(start, position).toString());
+        } catch (NumberFormatException e) {
+            throw error("некорректное число");
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        int end = position + literal.length();
+        if (end > input.length() || !literal.contentEquals(input.subSequence(position, end))) {
+            throw error("неизвестное значение");
+        }
+        position = end;
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= input.length()) {
+            throw error("неожиданный конец данных");
+        }
+        return input.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("ожидался символ '" + expected + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Некорректный JSON в позиции " + position + ": " + message);
+    }
+}
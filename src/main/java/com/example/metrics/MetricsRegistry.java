@@ -0,0 +1,194 @@
+package com.example.metrics;
+
+import com.example.util.ConnectionPoolMetrics;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public class MetricsRegistry {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private volatile Statistics hibernateStatistics;
+    private volatile Supplier<ConnectionPoolMetrics.Snapshot> poolMetrics;
+
+    public OperationMetrics operation(String layer, String operation) {
+        return operations.computeIfAbsent(layer + "." + operation, key -> new OperationMetrics(layer, operation));
+    }
+
+    public MetricsRegistry bindHibernate(SessionFactory sessionFactory) {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+        this.hibernateStatistics = statistics;
+        return this;
+    }
+
+    public MetricsRegistry bindConnectionPool(Supplier<ConnectionPoolMetrics.Snapshot> poolMetrics) {
+        this.poolMetrics = poolMetrics;
+        return this;
+    }
+
+    public Snapshot snapshot() {
+        List<OperationMetrics.Snapshot> operationSnapshots = new ArrayList<>();
+        operations.values().forEach(metrics -> operationSnapshots.add(metrics.snapshot()));
+        operationSnapshots.sort(Comparator.comparing(OperationMetrics.Snapshot::layer)
+                .thenComparing(OperationMetrics.Snapshot::operation));
+
+        Statistics statistics = hibernateStatistics;
+        Supplier<ConnectionPoolMetrics.Snapshot> pool = poolMetrics;
+        return new Snapshot(operationSnapshots,
+                statistics != null ? HibernateSnapshot.of(statistics) : null,
+                pool != null ? pool.get() : null);
+    }
+
+    // Текстовый формат экспозиции Prometheus 0.0.4
+    public String toPrometheusText() {
+        Snapshot snapshot = snapshot();
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "user_service_operation_calls_total", "counter", "Number of calls per operation");
+        for (OperationMetrics.Snapshot op : snapshot.operations()) {
+            sample(out, "user_service_operation_calls_total", labels(op), op.calls());
+        }
+
+        header(out, "user_service_operation_errors_total", "counter", "Number of failed calls per operation and exception type");
+        for (OperationMetrics.Snapshot op : snapshot.operations()) {
+            for (Map.Entry<String, Long> error : op.errors().entrySet()) {
+                sample(out, "user_service_operation_errors_total",
+                        labels(op) + ",exception=\"" + escape(error.getKey()) + "\"", error.getValue());
+            }
+        }
+
+        header(out, "user_service_operation_latency_seconds", "summary", "Operation latency");
+        for (OperationMetrics.Snapshot op : snapshot.operations()) {
+            LatencyHistogram.Snapshot latency = op.latency();
+            String labels = labels(op);
+            sample(out, "user_service_operation_latency_seconds", labels + ",quantile=\"0.5\"", seconds(latency.p50Nanos()));
+            sample(out, "user_service_operation_latency_seconds", labels + ",quantile=\"0.99\"", seconds(latency.p99Nanos()));
+            sample(out, "user_service_operation_latency_seconds", labels + ",quantile=\"0.999\"", seconds(latency.p999Nanos()));
+            sample(out, "user_service_operation_latency_seconds_sum", labels, seconds(latency.totalNanos()));
+            sample(out, "user_service_operation_latency_seconds_count", labels, latency.count());
+        }
+
+        header(out, "user_service_operation_latency_max_seconds", "gauge", "Maximum observed operation latency");
+        for (OperationMetrics.Snapshot op : snapshot.operations()) {
+            sample(out, "user_service_operation_latency_max_seconds", labels(op), seconds(op.latency().maxNanos()));
+        }
+
+        HibernateSnapshot hibernate = snapshot.hibernate();
+        if (hibernate != null) {
+            counter(out, "hibernate_sessions_opened_total", "Sessions opened", hibernate.sessionsOpened());
+            counter(out, "hibernate_sessions_closed_total", "Sessions closed", hibernate.sessionsClosed());
+            counter(out, "hibernate_transactions_total", "Transactions completed", hibernate.transactions());
+            counter(out, "hibernate_statements_prepared_total", "JDBC statements prepared", hibernate.statementsPrepared());
+            counter(out, "hibernate_entity_loads_total", "Entities loaded", hibernate.entityLoads());
+            counter(out, "hibernate_entity_fetches_total", "Entities fetched", hibernate.entityFetches());
+            counter(out, "hibernate_entity_inserts_total", "Entities inserted", hibernate.entityInserts());
+            counter(out, "hibernate_entity_updates_total", "Entities updated", hibernate.entityUpdates());
+            counter(out, "hibernate_entity_deletes_total", "Entities deleted", hibernate.entityDeletes());
+            counter(out, "hibernate_queries_executed_total", "Queries executed", hibernate.queriesExecuted());
+            counter(out, "hibernate_second_level_cache_hits_total", "Second-level cache hits", hibernate.secondLevelCacheHits());
+            counter(out, "hibernate_second_level_cache_misses_total", "Second-level cache misses", hibernate.secondLevelCacheMisses());
+            counter(out, "hibernate_query_cache_hits_total", "Query cache hits", hibernate.queryCacheHits());
+            counter(out, "hibernate_query_cache_misses_total", "Query cache misses", hibernate.queryCacheMisses());
+            counter(out, "hibernate_optimistic_failures_total", "Optimistic lock failures", hibernate.optimisticFailures());
+        }
+
+        ConnectionPoolMetrics.Snapshot pool = snapshot.pool();
+        if (pool != null) {
+            gauge(out, "connection_pool_active", "Connections in use", pool.active());
+            gauge(out, "connection_pool_idle", "Idle connections", pool.idle());
+            gauge(out, "connection_pool_total", "Open connections", pool.total());
+            gauge(out, "connection_pool_pending_threads", "Threads waiting for a connection", pool.awaiting());
+            counter(out, "connection_pool_acquisitions_total", "Connections acquired", pool.acquisitions());
+            counter(out, "connection_pool_timeouts_total", "Connection acquisition timeouts", pool.timeouts());
+            gauge(out, "connection_pool_wait_mean_seconds", "Mean connection wait time", pool.meanWaitMillis() / 1000);
+            gauge(out, "connection_pool_wait_max_seconds", "Maximum connection wait time", pool.maxWaitMillis() / 1000);
+        }
+        return out.toString();
+    }
+
+    private static String labels(OperationMetrics.Snapshot op) {
+        return "layer=\"" + op.layer() + "\",operation=\"" + op.operation() + "\"";
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, "counter", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        header(out, name, "gauge", help);
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append('{').append(labels).append("} ").append(format(value)).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.9f", value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    public record Snapshot(List<OperationMetrics.Snapshot> operations, HibernateSnapshot hibernate,
+                           ConnectionPoolMetrics.Snapshot pool) {
+
+        public OperationMetrics.Snapshot operation(String layer, String operation) {
+            return operations.stream()
+                    .filter(op -> op.layer().equals(layer) && op.operation().equals(operation))
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    public record HibernateSnapshot(long sessionsOpened, long sessionsClosed, long transactions,
+                                    long statementsPrepared, long entityLoads, long entityFetches,
+                                    long entityInserts, long entityUpdates, long entityDeletes,
+                                    long queriesExecuted, long secondLevelCacheHits, long secondLevelCacheMisses,
+                                    long queryCacheHits, long queryCacheMisses, long optimisticFailures) {
+
+        static HibernateSnapshot of(Statistics statistics) {
+            return new HibernateSnapshot(
+                    statistics.getSessionOpenCount(),
+                    statistics.getSessionCloseCount(),
+                    statistics.getTransactionCount(),
+                    statistics.getPrepareStatementCount(),
+                    statistics.getEntityLoadCount(),
+                    statistics.getEntityFetchCount(),
+                    statistics.getEntityInsertCount(),
+                    statistics.getEntityUpdateCount(),
+                    statistics.getEntityDeleteCount(),
+                    statistics.getQueryExecutionCount(),
+                    statistics.getSecondLevelCacheHitCount(),
+                    statistics.getSecondLevelCacheMissCount(),
+                    statistics.getQueryCacheHitCount(),
+                    statistics.getQueryCacheMissCount(),
+                    statistics.getOptimisticFailureCount());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationMetrics {
+
+    private final String layer;
+    private final String operation;
+    private final LongAdder calls = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(String layer, String operation) {
+        this.layer = layer;
+        this.operation = operation;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void success(long startNanos) {
+        calls.increment();
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    public void failure(long startNanos, Throwable error) {
+        failure(startNanos, error.getClass().getName());
+    }
+
+    public void failure(long startNanos, String errorType) {
+        success(startNanos);
+        errors.computeIfAbsent(errorType, key -> new LongAdder()).increment();
+    }
+
+    public Snapshot snapshot() {
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((type, count) -> errorCounts.put(type, count.sum()));
+        return new Snapshot(layer, operation, calls.sum(), errorCounts, latency.snapshot());
+    }
+
+    public record Snapshot(String layer, String operation, long calls, Map<String, Long> errors,
+                           LatencyHistogram.Snapshot latency) {
+
+        public long errorCount() {
+            return errors.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.migration;
+
+import com.example.exception.MigrationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Скрипт V<версия>__<описание>.sql; первая строка "-- migration:no-transaction" - выполнение вне транзакции
+public record Migration(int version, String description, String script, String sql, boolean transactional) {
+
+    private static final Pattern NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String NO_TRANSACTION = "-- migration:no-transaction";
+
+    static Migration parse(String script, String content) {
+        Matcher matcher = NAME.matcher(script);
+        if (!matcher.matches()) {
+            throw new MigrationException("Имя миграции должно иметь вид V<версия>__<описание>.sql: " + script);
+        }
+        String sql = content.replace("\r\n", "\n");
+        return new Migration(
+                Integer.parseInt(matcher.group(1)),
+                matcher.group(2).replace('_', ' '),
+                script,
+                sql,
+                !sql.stripLeading().startsWith(NO_TRANSACTION));
+    }
+
+    public String checksum() {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sql.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Разбивает на операторы по ';' вне строк и комментариев; dollar-quoting не поддерживается
+    List<String> statements() {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inString = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (!inString && c == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end;
+                current.append('\n');
+                continue;
+            }
+            if (c == '\'') {
+                inString = !inString;
+            }
+            if (c == ';' && !inString) {
+                addStatement(statements, current);
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder statement) {
+        String trimmed = statement.toString().strip();
+        if (!trimmed.isEmpty()) {
+            statements.add(trimmed);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.migration;
+
+import com.example.exception.MigrationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Скрипты лежат в classpath: <location>/migrations.txt перечисляет файлы, потому что каталог внутри jar не перечислить.
+// Применённые версии с контрольными суммами хранятся в schema_migrations; изменённый после применения скрипт - ошибка
+public class MigrationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+    public static final String DEFAULT_LOCATION = "db/migration";
+    private static final String INDEX_FILE = "migrations.txt";
+    private static final String HISTORY_TABLE = "schema_migrations";
+    // Ключ pg_advisory_lock, чтобы несколько экземпляров не применяли миграции одновременно
+    private static final long POSTGRES_LOCK_KEY = 0x75736572_6d696772L;
+
+    private final DataSource dataSource;
+    private final String location;
+
+    public MigrationRunner(DataSource dataSource) {
+        this(dataSource, DEFAULT_LOCATION);
+    }
+
+    public MigrationRunner(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    public List<Migration> load() {
+        String index = location + "/" + INDEX_FILE;
+        List<Migration> migrations = new ArrayList<>();
+        Set<Integer> versions = new HashSet<>();
+        for (String script : readLines(index)) {
+            Migration migration = Migration.parse(script, read(location + "/" + script));
+            if (!versions.add(migration.version())) {
+                throw new MigrationException("Версия " + migration.version() + " встречается дважды в " + index);
+            }
+            migrations.add(migration);
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        return migrations;
+    }
+
+    public List<Migration> migrate() {
+        List<Migration> migrations = load();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL");
+            if (postgres) {
+                execute(connection, "SELECT pg_advisory_lock(" + POSTGRES_LOCK_KEY + ")");
+            }
+            try {
+                return migrate(connection, migrations);
+            } finally {
+                if (postgres) {
+                    execute(connection, "SELECT pg_advisory_unlock(" + POSTGRES_LOCK_KEY + ")");
+                }
+            }
+        } catch (SQLException e) {
+            throw new MigrationException("Ошибка применения миграций", e);
+        }
+    }
+
+    public Status status() {
+        List<Migration> migrations = load();
+        try (Connection connection = dataSource.getConnection()) {
+            ensureHistoryTable(connection);
+            Map<Integer, AppliedMigration> applied = applied(connection);
+            List<Migration> pending = migrations.stream()
+                    .filter(migration -> !applied.containsKey(migration.version()))
+                    .toList();
+            return new Status(List.copyOf(applied.values()), pending);
+        } catch (SQLException e) {
+            throw new MigrationException("Ошибка чтения истории миграций", e);
+        }
+    }
+
+    private List<Migration> migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        ensureHistoryTable(connection);
+        Map<Integer, AppliedMigration> applied = applied(connection);
+        validate(migrations, applied);
+
+        List<Migration> appliedNow = new ArrayList<>();
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.version())) {
+                apply(connection, migration);
+                appliedNow.add(migration);
+            }
+        }
+        if (appliedNow.isEmpty()) {
+            logger.info("Схема актуальна, версия {}", migrations.isEmpty() ? 0 : migrations.getLast().version());
+        }
+        return appliedNow;
+    }
+
+    private void validate(List<Migration> migrations, Map<Integer, AppliedMigration> applied) {
+        for (Migration migration : migrations) {
+            AppliedMigration existing = applied.get(migration.version());
+            if (existing != null && !existing.checksum().equals(migration.checksum())) {
+                throw new MigrationException("Миграция V" + migration.version() + " (" + migration.script()
+                        + ") изменена после применения: контрольная сумма не совпадает");
+            }
+        }
+        Set<Integer> known = new HashSet<>();
+        migrations.forEach(migration -> known.add(migration.version()));
+        applied.keySet().stream()
+                .filter(version -> !known.contains(version))
+                .forEach(version -> logger.warn("Применённая миграция V{} отсутствует в {}", version, location));
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        logger.info("Применение миграции V{}: {}", migration.version(), migration.description());
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(!migration.transactional());
+        try {
+            for (String sql : migration.statements()) {
+                execute(connection, sql);
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            record(connection, migration, elapsedMillis);
+            if (migration.transactional()) {
+                connection.commit();
+            }
+            logger.info("Миграция V{} применена за {} мс", migration.version(), elapsedMillis);
+        } catch (SQLException | RuntimeException e) {
+            if (migration.transactional()) {
+                connection.rollback();
+            }
+            throw new MigrationException("Ошибка миграции V" + migration.version() + " (" + migration.script() + ")", e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void ensureHistoryTable(Connection connection) throws SQLException {
+        execute(connection, "CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+                + "version INTEGER PRIMARY KEY, "
+                + "description VARCHAR(200) NOT NULL, "
+                + "script VARCHAR(200) NOT NULL, "
+                + "checksum VARCHAR(64) NOT NULL, "
+                + "installed_at TIMESTAMP NOT NULL, "
+                + "execution_ms BIGINT NOT NULL)");
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+
+    private static Map<Integer, AppliedMigration> applied(Connection connection) throws SQLException {
+        Map<Integer, AppliedMigration> applied = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, script, checksum, installed_at, execution_ms FROM "
+                     + HISTORY_TABLE + " ORDER BY version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), new AppliedMigration(rs.getInt(1), rs.getString(2), rs.getString(3),
+                        rs.getTimestamp(4).toLocalDateTime(), rs.getLong(5)));
+            }
+        }
+        return applied;
+    }
+
+    private static void record(Connection connection, Migration migration, long elapsedMillis) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + HISTORY_TABLE
+                + " (version, description, script, checksum, installed_at, execution_ms) VALUES (?, ?, ?, ?, ?, ?)")) {
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.setString(3, migration.script());
+            insert.setString(4, migration.checksum());
+            insert.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            insert.setLong(6, elapsedMillis);
+            insert.executeUpdate();
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static List<String> readLines(String resource) {
+        List<String> lines = new ArrayList<>();
+        for (String line : read(resource).split("\n")) {
+            String trimmed = line.strip();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                lines.add(trimmed);
+            }
+        }
+        return lines;
+    }
+
+    private static String read(String resource) {
+        try (InputStream in = MigrationRunner.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new MigrationException("Не найден ресурс миграций: " + resource);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                StringBuilder content = new StringBuilder();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    content.append(line).append('\n');
+                }
+                return content.toString();
+            }
+        } catch (IOException e) {
+            throw new MigrationException("Не удалось прочитать " + resource, e);
+        }
+    }
+
+    public record AppliedMigration(int version, String script, String checksum, LocalDateTime installedAt,
+                                   long executionMillis) {
+    }
+
+    public record Status(List<AppliedMigration> applied, List<Migration> pending) {
+    }
+}
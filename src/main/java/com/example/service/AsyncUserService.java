@@ -0,0 +1,27 @@
+package com.example.service;
+
+import com.example.dao.UserPage;
+import com.example.dao.UserSortKey;
+import com.example.entity.User;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncUserService extends AutoCloseable {
+    CompletableFuture<User> createUser(String name, String email, Integer age);
+    CompletableFuture<List<User>> saveAll(Collection<User> users);
+    CompletableFuture<Optional<User>> getUserById(Long id);
+    CompletableFuture<Map<Long, User>> getUsersByIds(Collection<Long> ids);
+    CompletableFuture<Optional<User>> getUserByEmail(String email);
+    CompletableFuture<List<User>> getAllUsers();
+    CompletableFuture<UserPage> getUsersPage(Long afterId, int limit);
+    CompletableFuture<UserPage> getUsersPage(String pageToken, int limit, UserSortKey sortKey);
+    CompletableFuture<User> updateUser(Long id, String name, String email, Integer age);
+    CompletableFuture<Boolean> deleteUser(Long id);
+    CompletableFuture<Integer> deleteUsers(Collection<Long> ids);
+
+    @Override
+    void close();
+}
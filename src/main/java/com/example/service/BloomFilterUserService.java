@@ -0,0 +1,171 @@
+package com.example.service;
+
+import com.example.entity.User;
+import com.example.util.CountingBloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+// "Точно нет" по email отвечает фильтр без похода в базу; пока фильтр не построен, все запросы идут в делегата.
+// Фильтр только пополняется: удаленные и замененные email остаются "возможно есть" до перестройки и стоят
+// лишь лишнего запроса. Уменьшать счетчики нельзя - email мог попасть в базу мимо фильтра (импорт, другие узлы),
+// и remove такого адреса дал бы ложное "точно нет". Новые email в обход этого экземпляра фильтр не видит
+// до следующей перестройки
+public class BloomFilterUserService extends ForwardingUserService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BloomFilterUserService.class);
+    private static final int FETCH_SIZE = 1000;
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder definitelyAbsent = new LongAdder();
+    private final LongAdder passedThrough = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private volatile CountingBloomFilter filter;
+    // Строящийся фильтр получает добавления сразу
+    private volatile CountingBloomFilter building;
+
+    public BloomFilterUserService(UserService delegate, long expectedInsertions, double falsePositiveRate,
+                                  long maxBytes, Duration rebuildInterval) {
+        super(delegate);
+        // Проверяем параметры сразу, а не при первой перестройке в фоне
+        CountingBloomFilter.create(expectedInsertions, falsePositiveRate, maxBytes);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        this.rebuildInterval = rebuildInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("bloom-filter-rebuild").daemon().factory());
+    }
+
+    // Первое построение в фоне, чтобы не задерживать старт на большой таблице
+    public BloomFilterUserService start() {
+        if (rebuildInterval.isZero() || rebuildInterval.isNegative()) {
+            scheduler.execute(this::rebuildQuietly);
+        } else {
+            scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    public void rebuild() {
+        CountingBloomFilter current = filter;
+        // Таблица растёт: размер берётся с запасом от текущего числа email, но в пределах бюджета
+        long expected = Math.max(expectedInsertions, current == null ? 0 : current.approximateItems() * 2);
+        CountingBloomFilter fresh = CountingBloomFilter.create(expected, falsePositiveRate, maxBytes);
+        long start = System.nanoTime();
+        building = fresh;
+        try (Stream<User> users = delegate.streamAllUsers(FETCH_SIZE)) {
+            users.forEach(user -> fresh.add(user.getEmail()));
+            // Порядок важен: add() читает building раньше filter
+            filter = fresh;
+        } finally {
+            building = null;
+        }
+        rebuilds.increment();
+        logger.info("Bloom-фильтр email построен за {} мс: {} адресов, {} КиБ, {} хеш-функций, ожидаемые ложные срабатывания {}",
+                (System.nanoTime() - start) / 1_000_000, fresh.approximateItems(), fresh.sizeBytes() / 1024,
+                fresh.hashFunctions(), String.format("%.4f", fresh.expectedFalsePositiveRate()));
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        CountingBloomFilter current = filter;
+        if (email == null || current == null) {
+            return delegate.getUserByEmail(email);
+        }
+        if (!current.mightContain(User.normalizeEmail(email))) {
+            definitelyAbsent.increment();
+            return Optional.empty();
+        }
+        passedThrough.increment();
+        Optional<User> user = delegate.getUserByEmail(email);
+        if (user.isEmpty()) {
+            falsePositives.increment();
+        }
+        return user;
+    }
+
+    @Override
+    public User createUser(String name, String email, Integer age) {
+        User created = delegate.createUser(name, email, age);
+        add(created.getEmail());
+        return created;
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        List<User> saved = delegate.saveAll(users);
+        saved.forEach(user -> add(user.getEmail()));
+        return saved;
+    }
+
+    @Override
+    public User updateUser(Long id, String name, String email, Integer age) {
+        User updated = delegate.updateUser(id, name, email, age);
+        if (email != null) {
+            add(updated.getEmail());
+        }
+        return updated;
+    }
+
+    @Override
+    public User modifyUser(Long id, UnaryOperator<User> change) {
+        User updated = delegate.modifyUser(id, change);
+        add(updated.getEmail());
+        return updated;
+    }
+
+    public Stats getStats() {
+        CountingBloomFilter current = filter;
+        return new Stats(current != null, definitelyAbsent.sum(), passedThrough.sum(), falsePositives.sum(),
+                rebuilds.sum(),
+                current != null ? current.approximateItems() : 0,
+                current != null ? current.sizeBytes() : 0,
+                current != null ? current.expectedFalsePositiveRate() : 0);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    // Уже возможно присутствующий email не добавляется повторно: неизменный адрес не раздувает счетчики
+    private void add(String email) {
+        CountingBloomFilter next = building;
+        CountingBloomFilter current = filter;
+        if (next != null && next != current && !next.mightContain(email)) {
+            next.add(email);
+        }
+        if (current != null && !current.mightContain(email)) {
+            current.add(email);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Остаётся прежний фильтр (или проход в базу, если его ещё нет)
+            logger.error("Не удалось построить Bloom-фильтр email", e);
+        }
+    }
+
+    public record Stats(boolean ready, long definitelyAbsent, long passedThrough, long falsePositives,
+                        long rebuilds, long items, long sizeBytes, double expectedFalsePositiveRate) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.service;
+
+import com.example.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+public class CachingUserService extends ForwardingUserService {
+
+    private final Cache<Long, User> usersById;
+    private final Cache<String, Long> idsByEmail;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Растет перед каждой инвалидацией: загрузка, начатая до нее, могла прочитать уже удаленную строку
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CachingUserService(UserService delegate, long maximumSize, Duration timeToLive) {
+        super(delegate);
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .executor(Runnable::run)
+                .evictionListener((Long id, User user, RemovalCause cause) ->
+                        evictions.increment())
+                .build();
+        // Индекс email -> id только ссылается на основной кэш, поэтому его вытеснение не считается
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    @Override
+    public User createUser(String name, String email, Integer age) {
+        User created = delegate.createUser(name, email, age);
+        cache(created);
+        return created;
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        User cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(copyOf(cached));
+        }
+        misses.increment();
+        long stamp = invalidations.get();
+        Optional<User> loaded = delegate.getUserById(id);
+        loaded.ifPresent(user -> cacheLoaded(user, stamp));
+        return loaded;
+    }
+
+    @Override
+    public Map<Long, User> getUsersByIds(Collection<Long> ids) {
+        Map<Long, User> result = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null || result.containsKey(id)) {
+                continue;
+            }
+            User cached = usersById.getIfPresent(id);
+            if (cached != null) {
+                hits.increment();
+                result.put(id, copyOf(cached));
+            } else {
+                misses.increment();
+                // Резервируем позицию, чтобы сохранить порядок входного списка
+                result.put(id, null);
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long stamp = invalidations.get();
+            Map<Long, User> loaded = delegate.getUsersByIds(missing);
+            loaded.values().forEach(user -> cacheLoaded(user, stamp));
+            for (Long id : missing) {
+                User user = loaded.get(id);
+                if (user != null) {
+                    result.put(id, user);
+                } else {
+                    result.remove(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        String key = normalize(email);
+        Long id = idsByEmail.getIfPresent(key);
+        if (id != null) {
+            User cached = usersById.getIfPresent(id);
+            // Email мог смениться, пока запись жила в индексе
+            if (cached != null && key.equals(normalize(cached.getEmail()))) {
+                hits.increment();
+                return Optional.of(copyOf(cached));
+            }
+            idsByEmail.asMap().remove(key, id);
+        }
+        misses.increment();
+        long stamp = invalidations.get();
+        Optional<User> loaded = delegate.getUserByEmail(email);
+        loaded.ifPresent(user -> cacheLoaded(user, stamp));
+        return loaded;
+    }
+
+    @Override
+    public User updateUser(Long id, String name, String email, Integer age) {
+        return refresh(id, () -> delegate.updateUser(id, name, email, age));
+    }
+
+    @Override
+    public User modifyUser(Long id, UnaryOperator<User> change) {
+        return refresh(id, () -> delegate.modifyUser(id, change));
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+        User previous = usersById.getIfPresent(id);
+        try {
+            return delegate.deleteUser(id);
+        } finally {
+            evict(id, previous);
+        }
+    }
+
+    @Override
+    public int deleteUsers(Collection<Long> ids) {
+        try {
+            return delegate.deleteUsers(ids);
+        } finally {
+            for (Long id : ids) {
+                if (id != null) {
+                    evict(id, usersById.getIfPresent(id));
+                }
+            }
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), usersById.estimatedSize());
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        usersById.invalidateAll();
+        idsByEmail.invalidateAll();
+    }
+
+    private User refresh(Long id, Supplier<User> write) {
+        User previous = usersById.getIfPresent(id);
+        User updated;
+        try {
+            updated = write.get();
+        } catch (RuntimeException e) {
+            evict(id, previous);
+            throw e;
+        }
+        if (previous != null && !normalize(previous.getEmail()).equals(normalize(updated.getEmail()))) {
+            idsByEmail.asMap().remove(normalize(previous.getEmail()), id);
+        }
+        cache(updated);
+        return updated;
+    }
+
+    // Кэш хранит и отдает копии, чтобы изменения у вызывающей стороны не портили закэшированное значение
+    private void cache(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        usersById.asMap().compute(user.getId(), (id, cached) -> newer(cached, user));
+        indexEmail(user);
+    }
+
+    // Прочитанная строка не должна затереть ни более свежую версию, положенную параллельной записью,
+    // ни инвалидацию после удаления: проверка и вставка идут атомарно в compute по этому id
+    private void cacheLoaded(User user, long stamp) {
+        if (user.getId() == null) {
+            return;
+        }
+        usersById.asMap().compute(user.getId(), (id, cached) ->
+                invalidations.get() != stamp ? cached : newer(cached, user));
+        indexEmail(user);
+    }
+
+    private static User newer(User cached, User candidate) {
+        if (cached != null && cached.getVersion() != null && candidate.getVersion() != null
+                && cached.getVersion() > candidate.getVersion()) {
+            return cached;
+        }
+        return copyOf(candidate);
+    }
+
+    // Индекс только ссылается на основной кэш, а чтение сверяет email записи, поэтому лишняя ссылка безопасна
+    private void indexEmail(User user) {
+        if (user.getEmail() != null) {
+            idsByEmail.put(normalize(user.getEmail()), user.getId());
+        }
+    }
+
+    private void evict(Long id, User previous) {
+        invalidations.incrementAndGet();
+        usersById.invalidate(id);
+        if (previous != null && previous.getEmail() != null) {
+            idsByEmail.asMap().remove(normalize(previous.getEmail()), id);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : User.normalizeEmail(email);
+    }
+
+    public record Stats(long hits, long misses, long evictions, long size) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.service;
+
+import com.example.entity.User;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Одновременные запросы одного и того же ключа разделяют один поход в базу
+public class CoalescingUserService extends ForwardingUserService {
+
+    private final ConcurrentMap<Long, CompletableFuture<Optional<User>>> inFlightById = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Optional<User>>> inFlightByEmail = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    public CoalescingUserService(UserService delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        return coalesce(inFlightById, id, () -> delegate.getUserById(id));
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        if (email == null) {
+            return delegate.getUserByEmail(null);
+        }
+        return coalesce(inFlightByEmail, User.normalizeEmail(email), () -> delegate.getUserByEmail(email));
+    }
+
+    public Stats getStats() {
+        return new Stats(calls.sum(), collapsed.sum(), inFlightById.size() + inFlightByEmail.size());
+    }
+
+    private <K> Optional<User> coalesce(ConcurrentMap<K, CompletableFuture<Optional<User>>> inFlight,
+                                        K key, Supplier<Optional<User>> loader) {
+        calls.increment();
+        CompletableFuture<Optional<User>> own = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> leader = inFlight.putIfAbsent(key, own);
+        if (leader != null) {
+            collapsed.increment();
+            return await(leader).map(ForwardingUserService::copyOf);
+        }
+
+        try {
+            Optional<User> result = loader.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Ключ снимается сразу после завершения, следующий вызов снова пойдет в базу
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static Optional<User> await(CompletableFuture<Optional<User>> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public record Stats(long calls, long collapsed, int inFlight) {
+    }
+}
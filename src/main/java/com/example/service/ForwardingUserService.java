@@ -0,0 +1,104 @@
+package com.example.service;
+
+import com.example.dao.UserPage;
+import com.example.dao.UserSortKey;
+import com.example.dao.UserView;
+import com.example.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+// Базовый декоратор: переопределяются только те операции, которые нужно изменить
+public abstract class ForwardingUserService implements UserService {
+
+    protected final UserService delegate;
+
+    protected ForwardingUserService(UserService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public User createUser(String name, String email, Integer age) {
+        return delegate.createUser(name, email, age);
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        return delegate.saveAll(users);
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        return delegate.getUserById(id);
+    }
+
+    @Override
+    public Map<Long, User> getUsersByIds(Collection<Long> ids) {
+        return delegate.getUsersByIds(ids);
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        return delegate.getUserByEmail(email);
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public Stream<User> streamAllUsers(int fetchSize) {
+        return delegate.streamAllUsers(fetchSize);
+    }
+
+    @Override
+    public Stream<UserView> streamUserViews(int fetchSize) {
+        return delegate.streamUserViews(fetchSize);
+    }
+
+    @Override
+    public UserPage getUsersPage(Long afterId, int limit) {
+        return delegate.getUsersPage(afterId, limit);
+    }
+
+    @Override
+    public UserPage getUsersPage(String pageToken, int limit, UserSortKey sortKey) {
+        return delegate.getUsersPage(pageToken, limit, sortKey);
+    }
+
+    @Override
+    public User updateUser(Long id, String name, String email, Integer age) {
+        return delegate.updateUser(id, name, email, age);
+    }
+
+    @Override
+    public User modifyUser(Long id, UnaryOperator<User> change) {
+        return delegate.modifyUser(id, change);
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+        return delegate.deleteUser(id);
+    }
+
+    @Override
+    public int deleteUsers(Collection<Long> ids) {
+        return delegate.deleteUsers(ids);
+    }
+
+    protected static User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .age(user.getAge())
+                .createdAt(user.getCreatedAt())
+                .version(user.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.service;
+
+import com.example.dao.UserPage;
+import com.example.dao.UserSortKey;
+import com.example.dao.UserView;
+import com.example.entity.User;
+import com.example.metrics.MetricsRegistry;
+import com.example.metrics.OperationMetrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public class InstrumentedUserService extends ForwardingUserService {
+
+    private static final String LAYER = "service";
+
+    private final OperationMetrics createUser;
+    private final OperationMetrics saveAll;
+    private final OperationMetrics getUserById;
+    private final OperationMetrics getUsersByIds;
+    private final OperationMetrics getUserByEmail;
+    private final OperationMetrics getAllUsers;
+    private final OperationMetrics streamAllUsers;
+    private final OperationMetrics streamUserViews;
+    private final OperationMetrics getUsersPage;
+    private final OperationMetrics updateUser;
+    private final OperationMetrics modifyUser;
+    private final OperationMetrics deleteUser;
+    private final OperationMetrics deleteUsers;
+
+    public InstrumentedUserService(UserService delegate, MetricsRegistry registry) {
+        super(delegate);
+        this.createUser = registry.operation(LAYER, "createUser");
+        this.saveAll = registry.operation(LAYER, "saveAll");
+        this.getUserById = registry.operation(LAYER, "getUserById");
+        this.getUsersByIds = registry.operation(LAYER, "getUsersByIds");
+        this.getUserByEmail = registry.operation(LAYER, "getUserByEmail");
+        this.getAllUsers = registry.operation(LAYER, "getAllUsers");
+        this.streamAllUsers = registry.operation(LAYER, "streamAllUsers");
+        this.streamUserViews = registry.operation(LAYER, "streamUserViews");
+        this.getUsersPage = registry.operation(LAYER, "getUsersPage");
+        this.updateUser = registry.operation(LAYER, "updateUser");
+        this.modifyUser = registry.operation(LAYER, "modifyUser");
+        this.deleteUser = registry.operation(LAYER, "deleteUser");
+        this.deleteUsers = registry.operation(LAYER, "deleteUsers");
+    }
+
+    @Override
+    public User createUser(String name, String email, Integer age) {
+        return timed(createUser, () -> delegate.createUser(name, email, age));
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        return timed(saveAll, () -> delegate.saveAll(users));
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        return timed(getUserById, () -> delegate.getUserById(id));
+    }
+
+    @Override
+    public Map<Long, User> getUsersByIds(Collection<Long> ids) {
+        return timed(getUsersByIds, () -> delegate.getUsersByIds(ids));
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        return timed(getUserByEmail, () -> delegate.getUserByEmail(email));
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return timed(getAllUsers, delegate::getAllUsers);
+    }
+
+    @Override
+    public Stream<User> streamAllUsers(int fetchSize) {
+        return timed(streamAllUsers, () -> delegate.streamAllUsers(fetchSize));
+    }
+
+    @Override
+    public Stream<UserView> streamUserViews(int fetchSize) {
+        return timed(streamUserViews, () -> delegate.streamUserViews(fetchSize));
+    }
+
+    @Override
+    public UserPage getUsersPage(Long afterId, int limit) {
+        return timed(getUsersPage, () -> delegate.getUsersPage(afterId, limit));
+    }
+
+    @Override
+    public UserPage getUsersPage(String pageToken, int limit, UserSortKey sortKey) {
+        return timed(getUsersPage, () -> delegate.getUsersPage(pageToken, limit, sortKey));
+    }
+
+    @Override
+    public User updateUser(Long id, String name, String email, Integer age) {
+        return timed(updateUser, () -> delegate.updateUser(id, name, email, age));
+    }
+
+    @Override
+    public User modifyUser(Long id, UnaryOperator<User> change) {
+        return timed(modifyUser, () -> delegate.modifyUser(id, change));
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+        return timed(deleteUser, () -> delegate.deleteUser(id));
+    }
+
+    @Override
+    public int deleteUsers(Collection<Long> ids) {
+        return timed(deleteUsers, () -> delegate.deleteUsers(ids));
+    }
+
+    private static <T> T timed(OperationMetrics metrics, Supplier<T> call) {
+        long start = metrics.start();
+        try {
+            T result = call.get();
+            metrics.success(start);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.failure(start, e);
+            throw e;
+        }
+    }
+}
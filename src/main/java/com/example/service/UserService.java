@@ -1,14 +1,29 @@
 package com.example.service;
 
+import com.example.dao.UserPage;
+import com.example.dao.UserSortKey;
+import com.example.dao.UserView;
 import com.example.entity.User;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 public interface UserService {
     User createUser(String name, String email, Integer age);
+    List<User> saveAll(Collection<User> users);
     Optional<User> getUserById(Long id);
+    Map<Long, User> getUsersByIds(Collection<Long> ids);
     Optional<User> getUserByEmail(String email);
     List<User> getAllUsers();
+    Stream<User> streamAllUsers(int fetchSize);
+    Stream<UserView> streamUserViews(int fetchSize);
+    UserPage getUsersPage(Long afterId, int limit);
+    UserPage getUsersPage(String pageToken, int limit, UserSortKey sortKey);
     User updateUser(Long id, String name, String email, Integer age);
-    void deleteUser(Long id);
+    User modifyUser(Long id, UnaryOperator<User> change);
+    boolean deleteUser(Long id);
+    int deleteUsers(Collection<Long> ids);
 }
\ No newline at end of file
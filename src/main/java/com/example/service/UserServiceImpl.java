@@ -1,25 +1,54 @@
 package com.example.service;
 
 import com.example.dao.UserDao;
+import com.example.dao.UserPage;
+import com.example.dao.UserSortKey;
+import com.example.dao.UserView;
 import com.example.entity.User;
 import com.example.exception.DaoException;
+import com.example.exception.OptimisticLockConflictException;
+import com.example.exception.UserNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 public class UserServiceImpl implements UserService {
 
     private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final Duration DEFAULT_BACKOFF = Duration.ofMillis(5);
+    private static final Duration MAX_BACKOFF = Duration.ofMillis(200);
     private final UserDao userDao;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
 
     public UserServiceImpl(UserDao userDao) {
+        this(userDao, DEFAULT_MAX_ATTEMPTS, DEFAULT_BACKOFF);
+    }
+
+    public UserServiceImpl(UserDao userDao, int maxAttempts, Duration backoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Число попыток должно быть положительным: " + maxAttempts);
+        }
         this.userDao = userDao;
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
     }
 
     public UserServiceImpl() {
-        this.userDao = new com.example.dao.UserDaoImpl();
+        this(new com.example.dao.UserDaoImpl());
     }
 
     @Override
@@ -37,6 +66,16 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        try {
+            return userDao.saveAll(users);
+        } catch (DaoException e) {
+            log.error("Ошибка пакетного создания {} пользователей", users.size(), e);
+            throw new RuntimeException("Не удалось создать пользователей", e);
+        }
+    }
+
     @Override
     public Optional<User> getUserById(Long id) {
         try {
@@ -47,6 +86,16 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    public Map<Long, User> getUsersByIds(Collection<Long> ids) {
+        try {
+            return userDao.findAllByIds(ids);
+        } catch (DaoException e) {
+            log.error("Ошибка получения {} пользователей по списку ID", ids.size(), e);
+            throw new RuntimeException("Не удалось получить пользователей", e);
+        }
+    }
+
     @Override
     public Optional<User> getUserByEmail(String email) {
         try {
@@ -68,29 +117,117 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public User updateUser(Long id, String name, String email, Integer age) {
+    public Stream<User> streamAllUsers(int fetchSize) {
         try {
-            User user = getUserById(id)
-                    .orElseThrow(() -> new RuntimeException("Пользователь не найден с id: " + id));
+            return userDao.streamAll(fetchSize);
+        } catch (DaoException e) {
+            log.error("Ошибка потокового чтения пользователей", e);
+            throw new RuntimeException("Не удалось получить список пользователей", e);
+        }
+    }
+
+    @Override
+    public Stream<UserView> streamUserViews(int fetchSize) {
+        try {
+            return userDao.streamViews(fetchSize);
+        } catch (DaoException e) {
+            log.error("Ошибка потокового чтения списка пользователей", e);
+            throw new RuntimeException("Не удалось получить список пользователей", e);
+        }
+    }
+
+    @Override
+    public UserPage getUsersPage(Long afterId, int limit) {
+        try {
+            return userDao.findPage(afterId, limit);
+        } catch (DaoException e) {
+            log.error("Ошибка получения страницы пользователей после ID: {}", afterId, e);
+            throw new RuntimeException("Не удалось получить список пользователей", e);
+        }
+    }
 
-            if (name != null) user.setName(name);
-            if (email != null) user.setEmail(email);
-            if (age != null) user.setAge(age);
+    @Override
+    public UserPage getUsersPage(String pageToken, int limit, UserSortKey sortKey) {
+        try {
+            return userDao.findPage(pageToken, limit, sortKey);
+        } catch (DaoException e) {
+            log.error("Ошибка получения страницы пользователей, сортировка: {}", sortKey, e);
+            throw new RuntimeException("Не удалось получить список пользователей", e);
+        }
+    }
 
-            return userDao.update(user);
+    @Override
+    public User updateUser(Long id, String name, String email, Integer age) {
+        try {
+            return userDao.updateFields(id, name, email, age)
+                    .orElseThrow(() -> new UserNotFoundException(id));
         } catch (DaoException e) {
             log.error("Ошибка обновления пользователя с ID: {}", id, e);
             throw new RuntimeException("Не удалось обновить пользователя", e);
         }
     }
 
+    // Чтение и условная запись по версии; при конфликте перечитываем и применяем изменение заново
     @Override
-    public void deleteUser(Long id) {
+    public User modifyUser(Long id, UnaryOperator<User> change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                User current = userDao.findById(id).orElseThrow(() -> new UserNotFoundException(id));
+                return userDao.update(change.apply(current));
+            } catch (OptimisticLockConflictException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("Пользователь с ID: {} не обновлен после {} попыток из-за конфликтов версий", id, attempt);
+                    throw new RuntimeException("Не удалось обновить пользователя: конфликт параллельных изменений", e);
+                }
+                retries.increment();
+                backoff(attempt);
+            } catch (DaoException e) {
+                log.error("Ошибка обновления пользователя с ID: {}", id, e);
+                throw new RuntimeException("Не удалось обновить пользователя", e);
+            }
+        }
+    }
+
+    public UpdateStats getUpdateStats() {
+        return new UpdateStats(conflicts.sum(), retries.sum(), exhausted.sum());
+    }
+
+    // Полный джиттер: случайная пауза до base * 2^(attempt-1), чтобы конкуренты не столкнулись снова
+    private void backoff(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF.toNanos(), backoffNanos << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Обновление пользователя прервано", e);
+        }
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
         try {
-            userDao.delete(id);
+            return userDao.delete(id);
         } catch (DaoException e) {
             log.error("Ошибка удаления пользователя с ID: {}", id, e);
             throw new RuntimeException("Не удалось удалить пользователя", e);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public int deleteUsers(Collection<Long> ids) {
+        try {
+            return userDao.deleteAll(ids);
+        } catch (DaoException e) {
+            log.error("Ошибка пакетного удаления {} пользователей", ids.size(), e);
+            throw new RuntimeException("Не удалось удалить пользователей", e);
+        }
+    }
+
+    public record UpdateStats(long conflicts, long retries, long exhausted) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.service;
+
+import com.example.dao.UserPage;
+import com.example.dao.UserSortKey;
+import com.example.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Каждый вызов - отдельный виртуальный поток; семафор не пускает к базе больше задач, чем соединений в пуле.
+// Отмена или таймаут возвращённого future прерывают задачу: ожидающая разрешения просто снимается с очереди
+public class VirtualThreadUserService implements AsyncUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadUserService.class);
+
+    private final UserService delegate;
+    private final ExecutorService executor;
+    private final Semaphore bulkhead;
+    private final int maxConcurrency;
+    private final Duration timeout;
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+
+    public VirtualThreadUserService(UserService delegate, int maxConcurrency, Duration timeout) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Лимит одновременных запросов должен быть положительным");
+        }
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.timeout = timeout;
+        this.bulkhead = new Semaphore(maxConcurrency, true);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("user-service-", 0).factory());
+    }
+
+    @Override
+    public CompletableFuture<User> createUser(String name, String email, Integer age) {
+        return submit(() -> delegate.createUser(name, email, age));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> saveAll(Collection<User> users) {
+        return submit(() -> delegate.saveAll(users));
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> getUserById(Long id) {
+        return submit(() -> delegate.getUserById(id));
+    }
+
+    @Override
+    public CompletableFuture<Map<Long, User>> getUsersByIds(Collection<Long> ids) {
+        return submit(() -> delegate.getUsersByIds(ids));
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> getUserByEmail(String email) {
+        return submit(() -> delegate.getUserByEmail(email));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> getAllUsers() {
+        return submit(delegate::getAllUsers);
+    }
+
+    @Override
+    public CompletableFuture<UserPage> getUsersPage(Long afterId, int limit) {
+        return submit(() -> delegate.getUsersPage(afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<UserPage> getUsersPage(String pageToken, int limit, UserSortKey sortKey) {
+        return submit(() -> delegate.getUsersPage(pageToken, limit, sortKey));
+    }
+
+    @Override
+    public CompletableFuture<User> updateUser(Long id, String name, String email, Integer age) {
+        return submit(() -> delegate.updateUser(id, name, email, age));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteUser(Long id) {
+        return submit(() -> delegate.deleteUser(id));
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteUsers(Collection<Long> ids) {
+        return submit(() -> delegate.deleteUsers(ids));
+    }
+
+    public Stats getStats() {
+        return new Stats(maxConcurrency - bulkhead.availablePermits(), bulkhead.getQueueLength(),
+                timeouts.sum(), cancellations.sum());
+    }
+
+    @Override
+    public void close() {
+        // Дожидается уже принятых задач, новые отклоняются
+        executor.close();
+        logger.info("Асинхронный сервис пользователей остановлен");
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> run(call, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        result.whenComplete((value, error) -> {
+            if (error instanceof CancellationException) {
+                cancellations.increment();
+                task.cancel(true);
+            } else if (error instanceof TimeoutException) {
+                timeouts.increment();
+                task.cancel(true);
+            }
+        });
+        if (timeout != null) {
+            result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return result;
+    }
+
+    private <T> void run(Supplier<T> call, CompletableFuture<T> result) {
+        try {
+            bulkhead.acquire();
+        } catch (InterruptedException e) {
+            // Отменили, пока ждали разрешения: до базы дело не дошло
+            result.completeExceptionally(new CancellationException("Запрос отменен до начала выполнения"));
+            return;
+        }
+        T value = null;
+        Throwable failure = null;
+        try {
+            if (!result.isDone()) {
+                value = call.get();
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            // Разрешение возвращается до завершения future: следующий вызов из цепочки не встанет в очередь
+            bulkhead.release();
+        }
+        if (failure != null) {
+            result.completeExceptionally(failure);
+        } else {
+            result.complete(value);
+        }
+    }
+
+    public record Stats(int inFlight, int waiting, long timeouts, long cancellations) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.util;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private volatile HikariPoolMXBean pool;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    void bind(HikariPoolMXBean pool) {
+        this.pool = pool;
+    }
+
+    public Snapshot snapshot() {
+        HikariPoolMXBean current = pool;
+        long count = acquisitions.sum();
+        double meanWaitMillis = count == 0 ? 0 : acquireNanos.sum() / (double) count / 1_000_000;
+        return new Snapshot(
+                current != null ? current.getActiveConnections() : 0,
+                current != null ? current.getIdleConnections() : 0,
+                current != null ? current.getTotalConnections() : 0,
+                current != null ? current.getThreadsAwaitingConnection() : 0,
+                count,
+                timeouts.sum(),
+                meanWaitMillis,
+                maxAcquireNanos.get() / 1_000_000.0);
+    }
+
+    public record Snapshot(int active, int idle, int total, int awaiting,
+                           long acquisitions, long timeouts,
+                           double meanWaitMillis, double maxWaitMillis) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Счётчики по 4 бита, 16 в одном long; обновление через CAS без блокировок.
+// Достигший 15 счётчик больше не уменьшается: лишний положительный ответ безопасен, ложный отрицательный - нет
+public class CountingBloomFilter {
+
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long MAX_COUNT = (1L << COUNTER_BITS) - 1;
+    private static final int MAX_HASH_FUNCTIONS = 16;
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final int counters;
+    private final int hashFunctions;
+    private final LongAdder items = new LongAdder();
+
+    CountingBloomFilter(int counters, int hashFunctions) {
+        this.counters = counters;
+        this.hashFunctions = hashFunctions;
+        this.words = new AtomicLongArray((counters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+    }
+
+    // Размер по классической формуле m = -n*ln(p)/ln(2)^2, но не больше бюджета памяти
+    public static CountingBloomFilter create(long expectedInsertions, double falsePositiveRate, long maxBytes) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Ожидаемое число элементов должно быть больше 0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Доля ложных срабатываний должна быть в интервале (0, 1)");
+        }
+        if (maxBytes < Long.BYTES) {
+            throw new IllegalArgumentException("Бюджет памяти должен быть не меньше " + Long.BYTES + " байт");
+        }
+        long optimal = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long budget = Math.min(maxBytes * (Byte.SIZE / COUNTER_BITS), Integer.MAX_VALUE - COUNTERS_PER_WORD);
+        int counters = (int) Math.max(COUNTERS_PER_WORD, Math.min(optimal, budget));
+        int hashFunctions = (int) Math.max(1, Math.round((double) counters / expectedInsertions * LN2));
+        return new CountingBloomFilter(counters, Math.min(hashFunctions, MAX_HASH_FUNCTIONS));
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashFunctions; i++) {
+            increment(index(hash, i));
+        }
+        items.increment();
+    }
+
+    // Удалять можно только то, что было добавлено, иначе появятся ложные отрицательные ответы
+    public void remove(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashFunctions; i++) {
+            decrement(index(hash, i));
+        }
+        items.decrement();
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashFunctions; i++) {
+            if (count(index(hash, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long approximateItems() {
+        return Math.max(0, items.sum());
+    }
+
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashFunctions * approximateItems() / counters), hashFunctions);
+    }
+
+    public int counters() {
+        return counters;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    public long sizeBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    int count(int index) {
+        return (int) ((words.get(index / COUNTERS_PER_WORD) >>> shift(index)) & MAX_COUNT);
+    }
+
+    private void increment(int index) {
+        int word = index / COUNTERS_PER_WORD;
+        int shift = shift(index);
+        while (true) {
+            long current = words.get(word);
+            if (((current >>> shift) & MAX_COUNT) == MAX_COUNT) {
+                return;
+            }
+            if (words.compareAndSet(word, current, current + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(int index) {
+        int word = index / COUNTERS_PER_WORD;
+        int shift = shift(index);
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & MAX_COUNT;
+            if (count == 0 || count == MAX_COUNT) {
+                return;
+            }
+            if (words.compareAndSet(word, current, current - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private static int shift(int index) {
+        return (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+    }
+
+    // Двойное хеширование Кирша-Митценмахера: k позиций из двух половин одного 64-битного хеша
+    private int index(long hash, int i) {
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % counters;
+    }
+
+    // FNV-1a по символам с финальным перемешиванием из MurmurHash3
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+public final class DataSourceFactory {
+
+    public static final String POOL_PREFIX = "hibernate.hikari.";
+    static final String DEFAULT_POOL_NAME = "user-service-pool";
+    private static final Set<String> CONNECTION_SETTINGS = Set.of(
+            AvailableSettings.URL, AvailableSettings.DRIVER, AvailableSettings.USER, AvailableSettings.PASS,
+            AvailableSettings.POOL_SIZE);
+
+    private DataSourceFactory() {
+    }
+
+    // Настройки пула берутся из свойств hibernate.hikari.* без префикса, JDBC-параметры из hibernate.connection.*
+    public static HikariDataSource create(Map<?, ?> settings, ConnectionPoolMetrics metrics) {
+        Properties poolProperties = new Properties();
+        settings.forEach((key, value) -> {
+            String name = key.toString();
+            if (name.startsWith(POOL_PREFIX) && value != null) {
+                poolProperties.setProperty(name.substring(POOL_PREFIX.length()), value.toString().trim());
+            }
+        });
+
+        HikariConfig config = new HikariConfig(poolProperties);
+        config.setJdbcUrl(required(settings, AvailableSettings.URL));
+        Object driver = settings.get(AvailableSettings.DRIVER);
+        if (driver != null) {
+            config.setDriverClassName(driver.toString().trim());
+        }
+        Object username = settings.get(AvailableSettings.USER);
+        if (username != null) {
+            config.setUsername(username.toString());
+        }
+        Object password = settings.get(AvailableSettings.PASS);
+        if (password != null) {
+            config.setPassword(password.toString());
+        }
+        if (config.getPoolName() == null) {
+            config.setPoolName(DEFAULT_POOL_NAME);
+        }
+        config.setMetricsTrackerFactory(metrics);
+
+        HikariDataSource dataSource = new HikariDataSource(config);
+        metrics.bind(dataSource.getHikariPoolMXBean());
+        return dataSource;
+    }
+
+    public static boolean isPoolSetting(String key) {
+        return key.startsWith(POOL_PREFIX) || CONNECTION_SETTINGS.contains(key);
+    }
+
+    private static String required(Map<?, ?> settings, String key) {
+        Object value = settings.get(key);
+        if (value == null || value.toString().isBlank()) {
+            throw new IllegalStateException("Не задано свойство " + key);
+        }
+        return value.toString().trim();
+    }
+}
@@ -1,58 +1,277 @@
 package com.example.util;
 
-import com.example.entity.User;
+import com.example.migration.Migration;
+import com.example.migration.MigrationRunner;
+import com.zaxxer.hikari.HikariDataSource;
 import org.hibernate.SessionFactory;
-import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
-import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.AvailableSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// SessionFactory строится при первом обращении (holder idiom), а не при загрузке класса
 public class HibernateUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(HibernateUtil.class);
-    private static SessionFactory sessionFactory;
+    public static final String CONFIG_PROPERTY = "user-service.hibernate-config";
+    public static final String MIGRATE_ON_STARTUP = "user-service.migrations.apply-on-startup";
+    public static final String REPLICA_URLS = "user-service.replicas.urls";
+    public static final String REPLICA_STRATEGY = "user-service.replicas.strategy";
+    public static final String READ_YOUR_WRITES_MILLIS = "user-service.replicas.read-your-writes-ms";
+    private static final String DEFAULT_CONFIG = "hibernate.cfg.xml";
+    private static final ConnectionPoolMetrics poolMetrics = new ConnectionPoolMetrics();
+    // Явно подставленная фабрика (setSessionFactory) имеет приоритет над собственной
+    private static volatile SessionFactory sessionFactory;
+    private static volatile Bootstrap started;
+
+    private static final class Holder {
+        private static final Bootstrap BOOTSTRAP = start();
+
+        private static Bootstrap start() {
+            try {
+                Bootstrap bootstrap = bootstrap(System.getProperty(CONFIG_PROPERTY, DEFAULT_CONFIG), poolMetrics);
+                started = bootstrap;
+                logger.info("Hibernate SessionFactory создана за {} мс", bootstrap.startupMillis());
+                return bootstrap;
+            } catch (Exception e) {
+                logger.error("Failed to create Hibernate 6 SessionFactory", e);
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
+    // Один проход: cfg.xml читается сервис-реестром, <mapping> из него и есть единственная регистрация User
+    static Bootstrap bootstrap(String configResource, ConnectionPoolMetrics metrics) {
+        long start = System.nanoTime();
+        StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder().configure(configResource);
+        Map<String, Object> settings = registryBuilder.getSettings();
+        List<String> replicaUrls = replicaUrls(settings);
+        ReadReplicaRouter.Strategy strategy = ReadReplicaRouter.Strategy.parse(
+                String.valueOf(settings.getOrDefault(REPLICA_STRATEGY, "round-robin")));
+        Duration window = Duration.ofMillis(Long.parseLong(
+                String.valueOf(settings.getOrDefault(READ_YOUR_WRITES_MILLIS, "1000")).trim()));
+        HikariDataSource dataSource = DataSourceFactory.create(settings, metrics);
+        List<ReplicaNode> replicas = new ArrayList<>();
+        try {
+            if (Boolean.parseBoolean(String.valueOf(settings.get(MIGRATE_ON_STARTUP)))) {
+                new MigrationRunner(dataSource).migrate();
+            }
+            SessionFactory factory = buildSessionFactory(registryBuilder, dataSource);
+            try {
+                for (int i = 0; i < replicaUrls.size(); i++) {
+                    replicas.add(bootstrapReplica(configResource, replicaUrls.get(i), i + 1));
+                }
+            } catch (RuntimeException e) {
+                replicas.forEach(ReplicaNode::close);
+                factory.close();
+                throw e;
+            }
+            ReadReplicaRouter router = new ReadReplicaRouter(factory,
+                    replicas.stream().map(ReplicaNode::asReplica).toList(), strategy, window);
+            return new Bootstrap(factory, dataSource, replicas, router, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+    }
 
-    static {
+    // Реплика: тот же cfg.xml с другим URL, без миграций, DDL и кэша второго уровня -
+    // инвалидации кэша идут только через primary, и закэшированное на реплике устаревало бы без срока
+    private static ReplicaNode bootstrapReplica(String configResource, String url, int index) {
+        StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder().configure(configResource);
+        Map<String, Object> settings = registryBuilder.getSettings();
+        String poolName = String.valueOf(settings.getOrDefault(
+                DataSourceFactory.POOL_PREFIX + "poolName", DataSourceFactory.DEFAULT_POOL_NAME));
+        settings.put(AvailableSettings.URL, url);
+        settings.put(DataSourceFactory.POOL_PREFIX + "poolName", poolName + "-replica-" + index);
+        settings.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+        settings.put(AvailableSettings.USE_QUERY_CACHE, "false");
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "none");
+
+        HikariDataSource dataSource = DataSourceFactory.create(settings, new ConnectionPoolMetrics());
         try {
-            Configuration configuration = new Configuration();
-            configuration.configure("hibernate.cfg.xml");
+            return new ReplicaNode("replica-" + index, buildSessionFactory(registryBuilder, dataSource), dataSource);
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+    }
+
+    // Шарды - самостоятельные primary: свои миграции и L2-кэш, регионы которого разведены префиксом,
+    // чтобы фабрики шардов не делили записи общего CacheManager
+    public static ShardSet openShards(List<String> urls) {
+        return openShards(System.getProperty(CONFIG_PROPERTY, DEFAULT_CONFIG), urls);
+    }
 
-            configuration.addAnnotatedClass(User.class);
+    static ShardSet openShards(String configResource, List<String> urls) {
+        List<ReplicaNode> shards = new ArrayList<>(urls.size());
+        try {
+            for (int i = 0; i < urls.size(); i++) {
+                shards.add(bootstrapShard(configResource, urls.get(i), i));
+            }
+        } catch (RuntimeException e) {
+            shards.forEach(ReplicaNode::close);
+            throw e;
+        }
+        logger.info("Открыто шардов: {}", shards.size());
+        return new ShardSet(shards);
+    }
 
-            StandardServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
-                    .applySettings(configuration.getProperties())
-                    .build();
+    private static ReplicaNode bootstrapShard(String configResource, String url, int index) {
+        StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder().configure(configResource);
+        Map<String, Object> settings = registryBuilder.getSettings();
+        String poolName = String.valueOf(settings.getOrDefault(
+                DataSourceFactory.POOL_PREFIX + "poolName", DataSourceFactory.DEFAULT_POOL_NAME));
+        settings.put(AvailableSettings.URL, url);
+        settings.put(DataSourceFactory.POOL_PREFIX + "poolName", poolName + "-shard-" + index);
+        settings.put(AvailableSettings.CACHE_REGION_PREFIX, "shard-" + index);
 
-            Metadata metadata = new MetadataSources(serviceRegistry)
-                    .addAnnotatedClass(User.class)
-                    .getMetadataBuilder()
-                    .build();
+        HikariDataSource dataSource = DataSourceFactory.create(settings, new ConnectionPoolMetrics());
+        try {
+            if (Boolean.parseBoolean(String.valueOf(settings.get(MIGRATE_ON_STARTUP)))) {
+                new MigrationRunner(dataSource).migrate();
+            }
+            return new ReplicaNode("shard-" + index, buildSessionFactory(registryBuilder, dataSource), dataSource);
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+    }
 
-            sessionFactory = metadata.getSessionFactoryBuilder().build();
+    private static SessionFactory buildSessionFactory(StandardServiceRegistryBuilder registryBuilder,
+                                                      HikariDataSource dataSource) {
+        // JDBC-параметры уже ушли в пул: с user/password Hibernate вызвал бы неподдерживаемый getConnection(user, password)
+        registryBuilder.getSettings().keySet().removeIf(DataSourceFactory::isPoolSetting);
+        registryBuilder.applySetting(AvailableSettings.DATASOURCE, dataSource);
 
-            logger.info("Hibernate 6 SessionFactory created successfully for Java 25");
+        StandardServiceRegistry serviceRegistry = registryBuilder.build();
+        try {
+            return new MetadataSources(serviceRegistry)
+                    .buildMetadata()
+                    .buildSessionFactory();
+        } catch (RuntimeException e) {
+            StandardServiceRegistryBuilder.destroy(serviceRegistry);
+            throw e;
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to create Hibernate 6 SessionFactory", e);
-            throw new ExceptionInInitializerError(e);
+    private static List<String> replicaUrls(Map<String, Object> settings) {
+        Object value = settings.get(REPLICA_URLS);
+        if (value == null) {
+            return List.of();
         }
+        return Arrays.stream(value.toString().split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
     }
 
     public static SessionFactory getSessionFactory() {
-        return sessionFactory;
+        SessionFactory explicit = sessionFactory;
+        return explicit != null ? explicit : Holder.BOOTSTRAP.sessionFactory();
+    }
+
+    // Явно подставленная фабрика обслуживает и чтения: реплик у нее нет
+    public static ReadReplicaRouter getReadRouter() {
+        SessionFactory explicit = sessionFactory;
+        return explicit != null ? ReadReplicaRouter.primaryOnly(explicit) : Holder.BOOTSTRAP.router();
+    }
+
+    public static int getMaximumPoolSize() {
+        return Holder.BOOTSTRAP.dataSource().getMaximumPoolSize();
+    }
+
+    public static ConnectionPoolMetrics.Snapshot getPoolMetrics() {
+        return poolMetrics.snapshot();
+    }
+
+    public static List<Migration> migrate() {
+        return new MigrationRunner(Holder.BOOTSTRAP.dataSource()).migrate();
+    }
+
+    public static MigrationRunner.Status migrationStatus() {
+        return new MigrationRunner(Holder.BOOTSTRAP.dataSource()).status();
+    }
+
+    // Схема больше не трогается при старте; проверка и создание - отдельные явные шаги
+    public static void validateSchema() {
+        getSessionFactory().getSchemaManager().validateMappedObjects();
+        logger.info("Схема базы данных соответствует маппингу");
+    }
+
+    public static void exportSchema() {
+        getSessionFactory().getSchemaManager().exportMappedObjects(true);
+        logger.info("Схема базы данных создана по маппингу");
     }
 
     public static void shutdown() {
-        if (sessionFactory != null && !sessionFactory.isClosed()) {
-            sessionFactory.close();
-            logger.info("Hibernate SessionFactory closed");
+        Bootstrap bootstrap = started;
+        if (bootstrap != null) {
+            bootstrap.close();
+            logger.info("Hibernate SessionFactory и пулы соединений закрыты, реплик: {}", bootstrap.replicas().size());
         }
     }
 
     public static void setSessionFactory(SessionFactory sessionFactory) {
         HibernateUtil.sessionFactory = sessionFactory;
     }
-}
\ No newline at end of file
+
+    record Bootstrap(SessionFactory sessionFactory, HikariDataSource dataSource, List<ReplicaNode> replicas,
+                     ReadReplicaRouter router, long startupMillis) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            replicas.forEach(ReplicaNode::close);
+            if (!sessionFactory.isClosed()) {
+                sessionFactory.close();
+            }
+            if (!dataSource.isClosed()) {
+                dataSource.close();
+            }
+        }
+    }
+
+    public static final class ShardSet implements AutoCloseable {
+
+        private final List<ReplicaNode> shards;
+
+        private ShardSet(List<ReplicaNode> shards) {
+            this.shards = List.copyOf(shards);
+        }
+
+        public List<SessionFactory> sessionFactories() {
+            return shards.stream().map(ReplicaNode::sessionFactory).toList();
+        }
+
+        @Override
+        public void close() {
+            shards.forEach(ReplicaNode::close);
+        }
+    }
+
+    record ReplicaNode(String name, SessionFactory sessionFactory, HikariDataSource dataSource) implements AutoCloseable {
+
+        ReadReplicaRouter.Replica asReplica() {
+            return new ReadReplicaRouter.Replica(name, sessionFactory,
+                    () -> dataSource.getHikariPoolMXBean().getActiveConnections());
+        }
+
+        @Override
+        public void close() {
+            if (!sessionFactory.isClosed()) {
+                sessionFactory.close();
+            }
+            if (!dataSource.isClosed()) {
+                dataSource.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Переключение SQL-логов Hibernate без перезапуска; по умолчанию они выключены в logback.xml
+public final class LoggingControl {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingControl.class);
+
+    static final String SQL_LOGGER = "org.hibernate.SQL";
+    static final String BIND_LOGGER = "org.hibernate.orm.jdbc.bind";
+
+    private LoggingControl() {
+    }
+
+    public static void setSqlLogging(boolean enabled) {
+        setLevel(SQL_LOGGER, enabled ? "DEBUG" : "OFF");
+        setLevel(BIND_LOGGER, enabled ? "TRACE" : "OFF");
+        logger.info("SQL-логирование {}", enabled ? "включено" : "выключено");
+    }
+
+    public static boolean isSqlLoggingEnabled() {
+        return LoggerFactory.getLogger(SQL_LOGGER).isDebugEnabled();
+    }
+
+    public static void setLevel(String loggerName, String level) {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (!(factory instanceof LoggerContext context)) {
+            logger.warn("Смена уровня логирования не поддерживается для {}", factory.getClass().getName());
+            return;
+        }
+        context.getLogger(loggerName).setLevel(Level.toLevel(level, null));
+    }
+}
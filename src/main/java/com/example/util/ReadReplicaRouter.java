@@ -0,0 +1,136 @@
+package com.example.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.SessionFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+// Чтения уходят на реплики, записи - на primary. Ключи (id, email), записанные в пределах окна, и списки
+// сразу после любой записи читаются с primary: отставание реплики не должно прятать только что записанное
+public class ReadReplicaRouter {
+
+    private static final long MAX_TRACKED_KEYS = 100_000;
+
+    private final SessionFactory primary;
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+    private final long windowNanos;
+    private final Cache<Object, Boolean> recentWrites;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private volatile long lastWriteNanos;
+
+    public ReadReplicaRouter(SessionFactory primary, List<Replica> replicas, Strategy strategy,
+                             Duration readYourWritesWindow) {
+        if (readYourWritesWindow.isNegative()) {
+            throw new IllegalArgumentException("Окно read-your-writes не может быть отрицательным: " + readYourWritesWindow);
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.windowNanos = readYourWritesWindow.toNanos();
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        this.lastWriteNanos = System.nanoTime() - windowNanos - 1;
+    }
+
+    public static ReadReplicaRouter primaryOnly(SessionFactory primary) {
+        return new ReadReplicaRouter(primary, List.of(), Strategy.ROUND_ROBIN, Duration.ZERO);
+    }
+
+    public SessionFactory primary() {
+        return primary;
+    }
+
+    // Списки и курсоры: на primary, пока не истекло окно после последней записи
+    public SessionFactory forRead() {
+        if (replicas.isEmpty() || System.nanoTime() - lastWriteNanos <= windowNanos) {
+            primaryReads.increment();
+            return primary;
+        }
+        return pickReplica();
+    }
+
+    // Точечное чтение: на primary, только если этот ключ записывался в пределах окна
+    public SessionFactory forRead(Object key) {
+        if (replicas.isEmpty() || (key != null && recentWrites.getIfPresent(key) != null)) {
+            primaryReads.increment();
+            return primary;
+        }
+        return pickReplica();
+    }
+
+    // Без реплик или с нулевым окном записи не отслеживаются: вызывающему незачем дочитывать ключи для recordWrite
+    public boolean tracksWrites() {
+        return !replicas.isEmpty() && windowNanos > 0;
+    }
+
+    public void recordWrite(Collection<?> keys) {
+        if (!tracksWrites()) {
+            return;
+        }
+        lastWriteNanos = System.nanoTime();
+        for (Object key : keys) {
+            if (key != null) {
+                recentWrites.put(key, Boolean.TRUE);
+            }
+        }
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    public Stats getStats() {
+        return new Stats(primaryReads.sum(), replicaReads.sum(), replicas.size());
+    }
+
+    private SessionFactory pickReplica() {
+        replicaReads.increment();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        if (strategy == Strategy.ROUND_ROBIN) {
+            return replicas.get(start).sessionFactory();
+        }
+        // Обход со сдвигающегося начала: при равной нагрузке реплики все равно чередуются
+        Replica best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            int active = replica.activeConnections().getAsInt();
+            if (active < bestActive) {
+                best = replica;
+                bestActive = active;
+            }
+        }
+        return best.sessionFactory();
+    }
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS;
+
+        public static Strategy parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неизвестная стратегия выбора реплики: " + value, e);
+            }
+        }
+    }
+
+    public record Replica(String name, SessionFactory sessionFactory, IntSupplier activeConnections) {
+    }
+
+    public record Stats(long primaryReads, long replicaReads, int replicas) {
+    }
+}
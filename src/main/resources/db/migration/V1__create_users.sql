@@ -0,0 +1,10 @@
+-- Базовая схема; IF NOT EXISTS - чтобы принять базу, созданную раньше через hbm2ddl
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    email      VARCHAR(100) NOT NULL UNIQUE,
+    age        INTEGER,
+    created_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,2 @@
+-- pooled-оптимизатор выдаёт id из (nextval - 49 .. nextval]: последовательность должна опережать MAX(id)
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users) + 50, (SELECT last_value FROM users_seq)), true);
@@ -0,0 +1,14 @@
+-- migration:no-transaction
+-- Запрещает дубликаты email в разном регистре. Поиск findByEmail идет по email = :email с уже
+-- нормализованным значением и обслуживается обычным уникальным индексом на email, не этим.
+-- Сначала тот же бэкфилл, что и normalize-emails: строки, у которых есть двойник в другом регистре,
+-- не трогаются - их нужно разобрать вручную, а до тех пор создание индекса падает и V3 не применяется
+UPDATE users SET email = lower(trim(email))
+WHERE email <> lower(trim(email))
+  AND NOT EXISTS (SELECT 1 FROM users twin
+                  WHERE twin.id <> users.id AND lower(trim(twin.email)) = lower(trim(users.email)));
+-- Упавший CREATE INDEX CONCURRENTLY оставляет INVALID индекс, который IF NOT EXISTS молча принял бы
+-- при повторном запуске. Пока V3 не записана как примененная, индекс с этим именем может быть только
+-- остатком такой попытки, поэтому он пересоздается
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_email_lower;
+CREATE UNIQUE INDEX CONCURRENTLY idx_users_email_lower ON users (lower(email));
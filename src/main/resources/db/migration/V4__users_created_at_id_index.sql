@@ -0,0 +1,5 @@
+-- migration:no-transaction
+-- Keyset-пагинация ORDER BY created_at, id.
+-- Остаток прерванной попытки (INVALID индекс) пересоздается, а не принимается через IF NOT EXISTS, как и в V3
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_created_at_id;
+CREATE INDEX CONCURRENTLY idx_users_created_at_id ON users (created_at, id);
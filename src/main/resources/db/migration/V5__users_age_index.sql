@@ -0,0 +1,5 @@
+-- migration:no-transaction
+-- Выборки и сортировка по возрасту без полного сканирования таблицы.
+-- Остаток прерванной попытки (INVALID индекс) пересоздается, а не принимается через IF NOT EXISTS, как и в V3
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_age;
+CREATE INDEX CONCURRENTLY idx_users_age ON users (age);
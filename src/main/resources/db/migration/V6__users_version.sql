@@ -0,0 +1,2 @@
+-- Версия для оптимистической блокировки; существующие строки начинают с 0
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,8 @@
+-- Соответствие старых id новым после переноса строк между шардами (ShardRebalancer)
+CREATE TABLE IF NOT EXISTS user_id_moves (
+    source_shard INTEGER      NOT NULL,
+    previous_id  BIGINT       NOT NULL,
+    new_id       BIGINT       NOT NULL,
+    moved_at     TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (source_shard, previous_id)
+);
@@ -0,0 +1,229 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardRebalancerTest {
+
+    @TempDir
+    static Path directory;
+
+    private SessionFactory unsharded;
+    private List<SessionFactory> factories;
+
+    @BeforeAll
+    void setUpAll() {
+        unsharded = EmbeddedHibernateUtil.buildSessionFactoryForUrl(
+                "jdbc:h2:file:" + directory.resolve("unsharded"), Map.of());
+        factories = IntStream.range(0, 3)
+                .mapToObj(shard -> EmbeddedHibernateUtil.buildSessionFactoryForUrl(
+                        "jdbc:h2:file:" + directory.resolve("shard" + shard),
+                        Map.of(AvailableSettings.GENERATE_STATISTICS, "true")))
+                .toList();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        unsharded.close();
+        factories.forEach(SessionFactory::close);
+    }
+
+    @BeforeEach
+    void setUp() {
+        unsharded.inTransaction(session -> session.createMutationQuery("DELETE FROM User").executeUpdate());
+        factories.forEach(factory -> factory.inTransaction(session -> {
+            session.createMutationQuery("DELETE FROM User").executeUpdate();
+            session.createMutationQuery("DELETE FROM UserIdMove").executeUpdate();
+        }));
+    }
+
+    @Test
+    @DisplayName("Перенос основной базы должен разложить строки по шардам, повторный запуск - ничего не копировать")
+    void migrateFrom_ShouldCopyIntoHomeShards_AndBeIdempotent() {
+        UserDao source = new UserDaoImpl(unsharded);
+        List<User> originals = source.saveAll(IntStream.range(0, 25).mapToObj(i -> newUser("legacy" + i)).toList());
+        ShardedUserDao sharded = new ShardedUserDao(factories);
+        List<ShardRebalancer.Move> moves = new ArrayList<>();
+        factories.forEach(factory -> factory.getStatistics().clear());
+
+        ShardRebalancer.RebalanceReport report = new ShardRebalancer(sharded, 10).migrateFrom(source, moves::add);
+
+        assertThat(report.scanned()).isEqualTo(25);
+        assertThat(report.moved()).isEqualTo(25);
+        assertThat(moves).extracting(ShardRebalancer.Move::previousId)
+                .containsExactlyInAnyOrderElementsOf(originals.stream().map(User::getId).toList());
+        for (ShardRebalancer.Move move : moves) {
+            User copy = sharded.findById(move.newId()).orElseThrow();
+            User original = source.findById(move.previousId()).orElseThrow();
+            assertThat(copy.getEmail()).isEqualTo(original.getEmail());
+            assertThat(copy.getCreatedAt()).isEqualTo(original.getCreatedAt());
+            assertThat(ShardRouting.shardOfId(copy.getId())).isEqualTo(move.toShard());
+            assertThat(sharded.findMovedId(-1, move.previousId())).contains(move.newId());
+        }
+        // Занятые email ищутся одним IN на пачку и шард, а не запросом на строку
+        assertThat(factories).allSatisfy(factory -> {
+            assertThat(factory.getStatistics().getQueryStatistics("FROM User u WHERE u.email IN :emails")
+                    .getExecutionCount()).isBetween(1L, 3L);
+            assertThat(factory.getStatistics().getQueryStatistics("FROM User WHERE email = :email")
+                    .getExecutionCount()).isZero();
+        });
+
+        ShardRebalancer.RebalanceReport rerun = new ShardRebalancer(sharded, 10).migrateFrom(source, move -> { });
+        assertThat(rerun.moved()).isZero();
+        assertThat(rerun.duplicates()).isEqualTo(25);
+        assertThat(sharded.findAll()).hasSize(25);
+    }
+
+    @Test
+    @DisplayName("После добавления шарда ребалансировка должна перенести строки в их новые шарды")
+    void rebalance_ShouldMoveRows_WhenShardAdded() {
+        ShardedUserDao twoShards = new ShardedUserDao(factories.subList(0, 2));
+        twoShards.saveAll(IntStream.range(0, 40).mapToObj(i -> newUser("grow" + i)).toList());
+        ShardedUserDao threeShards = new ShardedUserDao(factories);
+        List<ShardRebalancer.Move> moves = new ArrayList<>();
+
+        ShardRebalancer.RebalanceReport report = new ShardRebalancer(threeShards, 7).rebalance(moves::add);
+
+        assertThat(report.scanned()).isGreaterThanOrEqualTo(40);
+        assertThat(report.moved()).isPositive().isEqualTo(moves.size());
+        List<User> all = threeShards.findAll();
+        assertThat(all).hasSize(40);
+        assertThat(all).allSatisfy(user -> assertThat(ShardRouting.shardOfId(user.getId()))
+                .isEqualTo(threeShards.routing().shardOfEmail(user.getEmail())));
+        assertThat(moves).allSatisfy(move -> {
+            assertThat(threeShards.findById(move.previousId())).isEmpty();
+            assertThat(threeShards.findMovedId(move.fromShard(), move.previousId())).contains(move.newId());
+        });
+
+        assertThat(new ShardRebalancer(threeShards, 7).rebalance(move -> { }).moved()).isZero();
+    }
+
+    @Test
+    @DisplayName("Копия, оставшаяся от прерванного запуска, не должна дублироваться")
+    void rebalance_ShouldDropSourceRow_WhenCopyAlreadyExists() {
+        ShardedUserDao sharded = new ShardedUserDao(factories);
+        User user = sharded.save(newUser("interrupted"));
+        int home = ShardRouting.shardOfId(user.getId());
+        int other = (home + 1) % factories.size();
+        User stale = sharded.shard(other).save(newUser("interrupted"));
+        // Копия прерванного запуска несет исходное время создания
+        LocalDateTime createdAt = sharded.findById(user.getId()).orElseThrow().getCreatedAt();
+        factories.get(other).inTransaction(session ->
+                session.createNativeMutationQuery("UPDATE users SET created_at = :createdAt WHERE id = :id")
+                        .setParameter("createdAt", createdAt)
+                        .setParameter("id", stale.getId())
+                        .executeUpdate());
+        factories.get(other).getCache().evictEntityData(User.class, stale.getId());
+
+        ShardRebalancer.RebalanceReport report = new ShardRebalancer(sharded, 10).rebalance(move -> { });
+
+        assertThat(report.moved()).isZero();
+        assertThat(report.duplicates()).isEqualTo(1);
+        assertThat(report.conflictIds()).isEmpty();
+        assertThat(sharded.findById(stale.getId())).isEmpty();
+        assertThat(sharded.findAll()).extracting(User::getId).containsExactly(user.getId());
+    }
+
+    @Test
+    @DisplayName("Другой пользователь с тем же email в целевом шарде - конфликт, исходная строка должна остаться")
+    void rebalance_ShouldKeepSourceRow_WhenTargetEmailBelongsToAnotherUser() {
+        ShardedUserDao sharded = new ShardedUserDao(factories);
+        User owner = sharded.save(newUser("contested"));
+        int home = ShardRouting.shardOfId(owner.getId());
+        int other = (home + 1) % factories.size();
+        User stranger = sharded.shard(other).save(User.builder()
+                .name("Stranger").email("contested@example.com").age(44).build());
+        List<ShardRebalancer.Move> moves = new ArrayList<>();
+
+        ShardRebalancer.RebalanceReport report = new ShardRebalancer(sharded, 10).rebalance(moves::add);
+
+        assertThat(report.moved()).isZero();
+        assertThat(report.duplicates()).isZero();
+        assertThat(report.conflictIds()).containsExactly(stranger.getId());
+        assertThat(moves).isEmpty();
+        assertThat(sharded.findById(stranger.getId())).map(User::getName).contains("Stranger");
+        assertThat(sharded.findById(owner.getId())).map(User::getName).contains("User contested");
+    }
+
+    @Test
+    @DisplayName("Строка, измененная между копированием и удалением, должна остаться в исходном шарде до следующего запуска")
+    void rebalance_ShouldKeepSourceRow_WhenUpdatedDuringMove() {
+        ShardedUserDao plain = new ShardedUserDao(factories);
+        int home = plain.routing().shardOfEmail("racing@example.com");
+        int other = (home + 1) % factories.size();
+        User user = plain.shard(other).save(newUser("racing"));
+
+        // Запись в исходный шард, пока в целевом пишется запись о переносе, то есть копия уже сделана
+        AtomicReference<Runnable> concurrentWrite = new AtomicReference<>(() -> {
+            User current = plain.shard(other).findById(user.getId()).orElseThrow();
+            current.setName("Renamed");
+            plain.shard(other).update(current);
+        });
+        StatementInspector inspector = sql -> {
+            if (sql.toLowerCase(Locale.ROOT).startsWith("insert into user_id_moves")) {
+                Runnable write = concurrentWrite.getAndSet(null);
+                if (write != null) {
+                    write.run();
+                }
+            }
+            return sql;
+        };
+        SessionFactory inspected = EmbeddedHibernateUtil.buildSessionFactoryForUrl(
+                "jdbc:h2:file:" + directory.resolve("shard" + home),
+                Map.of(AvailableSettings.HBM2DDL_AUTO, "none", AvailableSettings.STATEMENT_INSPECTOR, inspector));
+        try {
+            List<SessionFactory> withInspector = new ArrayList<>(factories);
+            withInspector.set(home, inspected);
+            ShardedUserDao sharded = new ShardedUserDao(withInspector);
+            List<ShardRebalancer.Move> moves = new ArrayList<>();
+
+            ShardRebalancer.RebalanceReport report = new ShardRebalancer(sharded, 10).rebalance(moves::add);
+
+            assertThat(concurrentWrite.get()).isNull();
+            assertThat(report.moved()).isZero();
+            assertThat(report.changedIds()).containsExactly(user.getId());
+            assertThat(moves).isEmpty();
+            assertThat(sharded.findAll()).extracting(User::getId).containsExactly(user.getId());
+            assertThat(sharded.findMovedId(other, user.getId())).isEmpty();
+
+            ShardRebalancer.RebalanceReport rerun = new ShardRebalancer(sharded, 10).rebalance(moves::add);
+
+            assertThat(rerun.moved()).isEqualTo(1);
+            assertThat(rerun.changedIds()).isEmpty();
+            Long newId = moves.getFirst().newId();
+            assertThat(sharded.findMovedId(other, user.getId())).contains(newId);
+            assertThat(sharded.findAll()).singleElement().satisfies(moved -> {
+                assertThat(moved.getId()).isEqualTo(newId);
+                assertThat(moved.getName()).isEqualTo("Renamed");
+            });
+        } finally {
+            inspected.close();
+        }
+    }
+
+    private static User newUser(String prefix) {
+        return User.builder()
+                .name("User " + prefix)
+                .email(prefix + "@example.com")
+                .age(30)
+                .createdAt(LocalDateTime.of(2020, 1, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.exception.DaoException;
+import com.example.exception.DuplicateEmailException;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Каждый шард - отдельный файл H2: по тому, в каком файле лежит строка, видно, куда ушла запись
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardedUserDaoTest {
+
+    private static final int SHARDS = 3;
+
+    @TempDir
+    static Path directory;
+
+    private List<SessionFactory> factories;
+    private ShardedUserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        factories = IntStream.range(0, SHARDS)
+                .mapToObj(shard -> EmbeddedHibernateUtil.buildSessionFactoryForUrl(
+                        "jdbc:h2:file:" + directory.resolve("shard" + shard), Map.of()))
+                .toList();
+        userDao = new ShardedUserDao(factories);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        factories.forEach(SessionFactory::close);
+    }
+
+    @BeforeEach
+    void setUp() {
+        factories.forEach(factory -> factory.inTransaction(session ->
+                session.createMutationQuery("DELETE FROM User").executeUpdate()));
+    }
+
+    @Test
+    @DisplayName("Новый пользователь должен попадать в шард по email, а id - нести номер этого шарда")
+    void save_ShouldPlaceByEmailHash_AndEncodeShardInId() {
+        List<User> saved = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            saved.add(userDao.save(newUser("placed" + i)));
+        }
+
+        for (User user : saved) {
+            int shard = userDao.routing().shardOfEmail(user.getEmail());
+            assertThat(ShardRouting.shardOfId(user.getId())).isEqualTo(shard);
+            assertThat(userDao.shard(shard).findById(user.getId())).isPresent();
+            assertThat(userDao.findById(user.getId())).map(User::getEmail).contains(user.getEmail());
+            assertThat(userDao.findByEmail(user.getEmail().toUpperCase())).map(User::getId).contains(user.getId());
+        }
+        assertThat(saved).extracting(user -> ShardRouting.shardOfId(user.getId()))
+                .as("30 email должны разойтись по всем шардам").containsAll(List.of(0, 1, 2));
+    }
+
+    @Test
+    @DisplayName("Списки и страницы должны собираться со всех шардов в общем порядке id")
+    void findAllAndFindPage_ShouldMergeShardsInIdOrder() {
+        List<User> batch = IntStream.range(0, 40).mapToObj(i -> newUser("merged" + i)).toList();
+        userDao.saveAll(batch);
+        List<Long> expected = batch.stream().map(User::getId).sorted().toList();
+
+        assertThat(userDao.findAll()).extracting(User::getId).containsExactlyElementsOf(expected);
+        try (var stream = userDao.streamAll(7)) {
+            assertThat(stream.map(User::getId).toList()).containsExactlyElementsOf(expected);
+        }
+
+        List<Long> paged = new ArrayList<>();
+        UserPage page = userDao.findPage(null, 15, UserSortKey.ID);
+        paged.addAll(page.users().stream().map(User::getId).toList());
+        while (page.hasNext()) {
+            page = userDao.findPage(page.nextPageToken(), 15, UserSortKey.ID);
+            assertThat(page.users()).hasSizeLessThanOrEqualTo(15);
+            paged.addAll(page.users().stream().map(User::getId).toList());
+        }
+        assertThat(paged).containsExactlyElementsOf(expected);
+        assertThat(userDao.findIdRange()).contains(new IdRange(expected.getFirst(), expected.getLast() + 1));
+    }
+
+    @Test
+    @DisplayName("Пакетные операции по id должны расходиться по шардам и сохранять порядок запроса")
+    void findAllByIdsAndDeleteAll_ShouldRouteByIdShard() {
+        List<User> batch = IntStream.range(0, 12).mapToObj(i -> newUser("batch" + i)).toList();
+        userDao.saveAll(batch);
+        List<Long> ids = new ArrayList<>(batch.stream().map(User::getId).toList()).reversed();
+        long foreignId = ShardRouting.firstId(SHARDS + 5);
+
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(foreignId);
+        assertThat(userDao.findAllByIds(requested).keySet()).containsExactlyElementsOf(ids);
+        assertThat(userDao.findById(foreignId)).isEmpty();
+        assertThat(userDao.delete(foreignId)).isFalse();
+
+        assertThat(userDao.deleteAll(requested)).isEqualTo(ids.size());
+        assertThat(userDao.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("После смены email пользователь должен находиться по новому email и в чужом шарде")
+    void findByEmail_ShouldFallBackToOtherShards_AfterEmailChange() {
+        User user = userDao.save(newUser("mover"));
+        int shard = ShardRouting.shardOfId(user.getId());
+        String foreignEmail = emailOutside(shard, "moved");
+
+        assertThat(userDao.updateFields(user.getId(), null, foreignEmail, null)).isPresent();
+
+        assertThat(userDao.findByEmail(foreignEmail)).map(User::getId).contains(user.getId());
+        assertThat(userDao.findViewByEmail(foreignEmail)).map(UserView::id).contains(user.getId());
+        assertThat(userDao.findByEmail("mover@example.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Email, занятый в другом шарде, не должен назначаться при обновлении")
+    void updateFields_ShouldRejectEmailTakenInAnotherShard() {
+        User owner = userDao.save(newUser("owner"));
+        String takenEmail = owner.getEmail();
+        User other = userDao.save(User.builder().name("Other").email(emailOutside(
+                ShardRouting.shardOfId(owner.getId()), "other")).age(30).build());
+
+        assertThatThrownBy(() -> userDao.updateFields(other.getId(), null, takenEmail, null))
+                .isInstanceOf(DaoException.class)
+                .hasMessageContaining(takenEmail);
+        assertThat(userDao.findById(other.getId())).map(User::getEmail).contains(other.getEmail());
+    }
+
+    @Test
+    @DisplayName("Вставка не должна дублировать email, живущий в чужом шарде, а upsert - обновлять его на месте")
+    void inserts_ShouldRespectEmailTakenInAnotherShard() {
+        User mover = userDao.save(newUser("wanderer"));
+        String foreignEmail = emailOutside(ShardRouting.shardOfId(mover.getId()), "wandered");
+        userDao.updateFields(mover.getId(), null, foreignEmail, null);
+
+        assertThatThrownBy(() -> userDao.save(User.builder().name("Twin").email(foreignEmail).age(20).build()))
+                .isInstanceOf(DuplicateEmailException.class)
+                .hasMessageContaining(foreignEmail);
+        assertThatThrownBy(() -> userDao.saveAll(List.of(newUser("fresh"),
+                User.builder().name("Twin").email(foreignEmail.toUpperCase()).age(20).build())))
+                .isInstanceOf(DuplicateEmailException.class)
+                .hasMessageContaining(foreignEmail);
+        assertThat(userDao.findByEmail("fresh@example.com")).isEmpty();
+
+        UpsertResult result = userDao.upsertAll(List.of(
+                User.builder().name("Upserted").email(foreignEmail).age(21).build(), newUser("fresh")));
+
+        assertThat(result).isEqualTo(new UpsertResult(1, 1));
+        assertThat(userDao.findAll()).extracting(User::getEmail).filteredOn(foreignEmail::equals).hasSize(1);
+        assertThat(userDao.findById(mover.getId())).map(User::getName).contains("Upserted");
+    }
+
+    @Test
+    @DisplayName("Повторное открытие шардов не должно выводить последовательности из их диапазонов")
+    void constructor_ShouldKeepSequencesInShardRanges_WhenReopened() {
+        userDao.save(newUser("before-reopen"));
+        ShardedUserDao reopened = new ShardedUserDao(factories);
+
+        List<User> saved = IntStream.range(0, 20).mapToObj(i -> reopened.save(newUser("reopen" + i))).toList();
+
+        assertThat(saved).allSatisfy(user -> assertThat(ShardRouting.shardOfId(user.getId()))
+                .isEqualTo(reopened.routing().shardOfEmail(user.getEmail())));
+    }
+
+    private String emailOutside(int shard, String prefix) {
+        for (int i = 0; ; i++) {
+            String email = prefix + i + "@example.com";
+            if (userDao.routing().shardOfEmail(email) != shard) {
+                return email;
+            }
+        }
+    }
+
+    private static User newUser(String prefix) {
+        return User.builder()
+                .name("User " + prefix)
+                .email(prefix + "@example.com")
+                .age(25)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.exception.DaoException;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplBatchInsertTest {
+
+    private static final int ROWS = 5_000;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("batch_insert");
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.inTransaction(session ->
+                session.createMutationQuery("DELETE FROM User").executeUpdate());
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Должен сохранить всех пользователей одной транзакцией и выдать им ID")
+    void saveAll_ShouldPersistAllUsers() {
+        List<User> users = createTestUsers(ROWS);
+
+        List<User> saved = userDao.saveAll(users);
+
+        assertThat(saved).hasSize(ROWS);
+        assertThat(saved).extracting(User::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(countUsers()).isEqualTo(ROWS);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть пустой список для пустой коллекции")
+    void saveAll_ShouldReturnEmptyList_WhenNothingToSave() {
+        assertThat(userDao.saveAll(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Должен откатить всю пачку при нарушении уникальности email")
+    void saveAll_ShouldRollbackWholeBatch_OnDuplicateEmail() {
+        List<User> users = createTestUsers(10);
+        users.add(createTestUser(users.get(0).getEmail()));
+
+        assertThatThrownBy(() -> userDao.saveAll(users)).isInstanceOf(DaoException.class);
+        assertThat(countUsers()).isZero();
+    }
+
+    private long countUsers() {
+        try (var session = sessionFactory.openSession()) {
+            return session.createQuery("SELECT count(u) FROM User u", Long.class).getSingleResult();
+        }
+    }
+
+    private List<User> createTestUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(createTestUser("batch" + sequence.incrementAndGet() + "@example.com"));
+        }
+        return users;
+    }
+
+    private User createTestUser(String email) {
+        return User.builder()
+                .name("Batch User")
+                .email(email)
+                .age(25)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplEmailNormalizationTest {
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("email-normalization");
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.inTransaction(session ->
+                session.createMutationQuery("DELETE FROM User").executeUpdate());
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Email должен сохраняться и обновляться в каноническом виде")
+    void save_ShouldStoreNormalizedEmail() {
+        User saved = userDao.save(User.builder()
+                .name("Mixed")
+                .email("  Mixed.Case@Example.COM ")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        assertThat(storedEmail(saved.getId())).isEqualTo("mixed.case@example.com");
+        assertThat(userDao.findByEmail("MIXED.case@example.com")).map(User::getId).contains(saved.getId());
+
+        userDao.updateFields(saved.getId(), null, "Renamed@Example.com", null);
+        assertThat(storedEmail(saved.getId())).isEqualTo("renamed@example.com");
+    }
+
+    @Test
+    @DisplayName("Бэкфилл должен нормализовать старые строки пачками и пропускать конфликты")
+    void normalizeEmails_ShouldRewriteRowsAndSkipConflicts() {
+        insertRaw(1001, "Alice@Example.com");
+        insertRaw(1002, " BOB@example.com ");
+        insertRaw(1003, "carol@example.com");
+        insertRaw(1004, "CAROL@example.com");
+        insertRaw(1005, "Dave@Example.com");
+        insertRaw(1006, "dave@EXAMPLE.com");
+
+        EmailBackfillResult result = userDao.normalizeEmails(2);
+
+        assertThat(result.scanned()).isEqualTo(5);
+        assertThat(result.updated()).isEqualTo(3);
+        assertThat(result.conflictIds()).containsExactly(1004L, 1006L);
+        assertThat(storedEmail(1001L)).isEqualTo("alice@example.com");
+        assertThat(storedEmail(1002L)).isEqualTo("bob@example.com");
+        assertThat(storedEmail(1004L)).isEqualTo("CAROL@example.com");
+        assertThat(userDao.findByEmail("Bob@Example.com")).map(User::getId).contains(1002L);
+    }
+
+    @Test
+    @DisplayName("Повторный бэкфилл должен видеть только неразрешённые конфликты")
+    void normalizeEmails_ShouldBeRepeatable() {
+        insertRaw(1001, "Alice@Example.com");
+        insertRaw(1002, "alice@example.com");
+        insertRaw(1003, "Erin@Example.com");
+        userDao.normalizeEmails(50);
+
+        EmailBackfillResult again = userDao.normalizeEmails(50);
+
+        assertThat(again.scanned()).isEqualTo(1);
+        assertThat(again.updated()).isZero();
+        assertThat(again.conflictIds()).isEqualTo(List.of(1001L));
+    }
+
+    private void insertRaw(long id, String email) {
+        sessionFactory.inTransaction(session -> session.createNativeMutationQuery(
+                        "INSERT INTO users (id, name, email, age, created_at) VALUES (:id, :name, :email, 30, :createdAt)")
+                .setParameter("id", id)
+                .setParameter("name", "Legacy " + id)
+                .setParameter("email", email)
+                .setParameter("createdAt", LocalDateTime.now())
+                .executeUpdate());
+    }
+
+    private String storedEmail(Long id) {
+        return sessionFactory.fromTransaction(session -> (String) session.createNativeQuery(
+                        "SELECT email FROM users WHERE id = :id", String.class)
+                .setParameter("id", id)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplMultiGetTest {
+
+    private static final int ROWS = 2_500;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private UserDao userDao;
+    private List<Long> ids;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("multi_get",
+                Map.of(AvailableSettings.GENERATE_STATISTICS, "true"));
+        statistics = sessionFactory.getStatistics();
+        userDao = new UserDaoImpl(sessionFactory);
+
+        List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(User.builder()
+                    .name("Multi User " + i)
+                    .email("multi" + i + "@example.com")
+                    .age(25)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        ids = userDao.saveAll(users).stream().map(User::getId).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics.clear();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Должен вернуть пользователей в порядке входного списка, пропуская отсутствующих")
+    void findAllByIds_ShouldPreserveInputOrderAndSkipMissing() {
+        List<Long> requested = List.of(ids.get(5), 999_999L, ids.get(1), ids.get(3), ids.get(1));
+
+        Map<Long, User> result = userDao.findAllByIds(requested);
+
+        assertThat(result.keySet()).containsExactly(ids.get(5), ids.get(1), ids.get(3));
+        assertThat(result.values()).extracting(User::getId).containsExactly(ids.get(5), ids.get(1), ids.get(3));
+    }
+
+    @Test
+    @DisplayName("Должен загружать большой список ограниченными IN-чанками в одной сессии")
+    void findAllByIds_ShouldLoadInBoundedChunks() {
+        Map<Long, User> result = userDao.findAllByIds(ids);
+
+        assertThat(result).hasSize(ROWS);
+        assertThat(statistics.getSessionOpenCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Пустой список не должен обращаться к базе")
+    void findAllByIds_ShouldSkipDatabase_WhenNoIds() {
+        assertThat(userDao.findAllByIds(List.of())).isEmpty();
+        assertThat(statistics.getSessionOpenCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Перемешанный список должен загружаться одним IN-запросом в порядке запроса")
+    void findAllByIds_ShouldKeepShuffledOrderInSingleQuery() {
+        List<Long> shuffled = new ArrayList<>(ids.subList(0, 1000));
+        Collections.shuffle(shuffled, new Random(42));
+
+        Map<Long, User> result = userDao.findAllByIds(shuffled);
+
+        assertThat(result.keySet()).containsExactlyElementsOf(shuffled);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
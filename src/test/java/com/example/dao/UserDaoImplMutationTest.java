@@ -0,0 +1,138 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplMutationTest {
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("mutation",
+                Map.of(AvailableSettings.GENERATE_STATISTICS, "true"));
+        statistics = sessionFactory.getStatistics();
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.inTransaction(session ->
+                session.createMutationQuery("DELETE FROM User").executeUpdate());
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Частичное обновление должно менять только переданные поля одной сессией")
+    void updateFields_ShouldApplyOnlyNonNullFieldsInOneSession() {
+        User saved = userDao.save(createTestUser("partial@example.com"));
+        statistics.clear();
+
+        Optional<User> updated = userDao.updateFields(saved.getId(), "New Name", null, 40);
+
+        assertThat(updated).isPresent();
+        assertThat(updated.get().getName()).isEqualTo("New Name");
+        assertThat(updated.get().getEmail()).isEqualTo("partial@example.com");
+        assertThat(updated.get().getAge()).isEqualTo(40);
+        assertThat(statistics.getSessionOpenCount()).isEqualTo(1);
+        assertThat(statistics.getConnectCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Частичное обновление несуществующего пользователя должно вернуть пустой Optional")
+    void updateFields_ShouldReturnEmpty_WhenUserNotExists() {
+        assertThat(userDao.updateFields(999L, "New Name", null, null)).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Частичное обновление без полей должно вернуть текущие данные")
+    void updateFields_ShouldReturnCurrentRow_WhenNothingToUpdate() {
+        User saved = userDao.save(createTestUser("noop@example.com"));
+
+        assertThat(userDao.updateFields(saved.getId(), null, null, null))
+                .map(User::getEmail)
+                .contains("noop@example.com");
+    }
+
+    @Test
+    @DisplayName("Удаление по ID должно выполняться одним запросом без загрузки сущности")
+    void delete_ShouldRemoveRowWithSingleStatement() {
+        User saved = userDao.save(createTestUser("delete@example.com"));
+        statistics.clear();
+
+        assertThat(userDao.delete(saved.getId())).isTrue();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(userDao.findById(saved.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Удаление несуществующего пользователя должно вернуть false")
+    void delete_ShouldReturnFalse_WhenUserNotExists() {
+        assertThat(userDao.delete(999L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Пакетное удаление должно разбивать большие наборы ID на IN-чанки")
+    void deleteAll_ShouldRemoveLargeIdSetInChunks() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            users.add(createTestUser("purge" + i + "@example.com"));
+        }
+        List<Long> ids = new ArrayList<>(userDao.saveAll(users).stream().map(User::getId).toList());
+        User survivor = userDao.save(createTestUser("survivor@example.com"));
+        ids.add(999_999L);
+        ids.add(ids.get(0));
+        statistics.clear();
+
+        int deleted = userDao.deleteAll(ids);
+
+        assertThat(deleted).isEqualTo(2_500);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getTransactionCount()).isEqualTo(1);
+        assertThat(userDao.findAll()).extracting(User::getId).containsExactly(survivor.getId());
+    }
+
+    @Test
+    @DisplayName("Пакетное удаление пустого набора не должно обращаться к базе")
+    void deleteAll_ShouldSkipDatabase_WhenNoIds() {
+        assertThat(userDao.deleteAll(List.of())).isZero();
+        assertThat(statistics.getSessionOpenCount()).isZero();
+    }
+
+    private User createTestUser(String email) {
+        return User.builder()
+                .name("Test User")
+                .email(email)
+                .age(25)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
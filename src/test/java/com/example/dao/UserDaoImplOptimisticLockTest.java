@@ -0,0 +1,128 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.exception.OptimisticLockConflictException;
+import com.example.exception.UserNotFoundException;
+import com.example.service.UserServiceImpl;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplOptimisticLockTest {
+
+    private static final int WRITERS = 8;
+    private static final int INCREMENTS = 10;
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("optimistic_lock");
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Запись с устаревшей версией должна отклоняться, а не затирать чужое изменение")
+    void update_ShouldRejectStaleVersion() {
+        User saved = userDao.save(newUser("stale"));
+        assertThat(saved.getVersion()).isZero();
+
+        User first = userDao.findById(saved.getId()).orElseThrow();
+        User second = userDao.findById(saved.getId()).orElseThrow();
+        first.setAge(40);
+        User updated = userDao.update(first);
+        second.setAge(50);
+
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThatThrownBy(() -> userDao.update(second))
+                .isInstanceOf(OptimisticLockConflictException.class)
+                .hasMessageContaining("ожидалась версия 0");
+        assertThat(userDao.findById(saved.getId())).map(User::getAge).contains(40);
+    }
+
+    @Test
+    @DisplayName("Частичное обновление должно увеличивать версию")
+    void updateFields_ShouldBumpVersion() {
+        User saved = userDao.save(newUser("fields"));
+
+        userDao.updateFields(saved.getId(), null, null, 33);
+
+        User reloaded = userDao.findById(saved.getId()).orElseThrow();
+        assertThat(reloaded.getVersion()).isEqualTo(1L);
+        assertThatThrownBy(() -> userDao.update(saved)).isInstanceOf(OptimisticLockConflictException.class);
+    }
+
+    @Test
+    @DisplayName("Изменение удаленного пользователя должно сразу давать \"не найден\", а не конфликт с повторами")
+    void modifyUser_ShouldFailFast_WhenUserDeletedMeanwhile() {
+        User saved = userDao.save(newUser("deleted"));
+        UserServiceImpl service = new UserServiceImpl(userDao, 5, Duration.ofMillis(1));
+
+        assertThatThrownBy(() -> service.modifyUser(saved.getId(), user -> {
+            userDao.delete(user.getId());
+            return user;
+        }))
+                .isInstanceOf(UserNotFoundException.class);
+        assertThatThrownBy(() -> userDao.update(saved)).isInstanceOf(UserNotFoundException.class);
+        assertThat(service.getUpdateStats().conflicts()).isZero();
+    }
+
+    @Test
+    @DisplayName("Параллельные изменения через сервис не должны терять записи")
+    void modifyUser_ShouldNotLoseConcurrentIncrements() throws Exception {
+        User saved = userDao.save(newUser("counter"));
+        UserServiceImpl service = new UserServiceImpl(userDao, 1_000, Duration.ofMillis(1));
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < INCREMENTS; j++) {
+                        service.modifyUser(saved.getId(), user -> {
+                            user.setAge(user.getAge() + 1);
+                            return user;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        User reloaded = userDao.findById(saved.getId()).orElseThrow();
+        assertThat(reloaded.getAge()).isEqualTo(20 + WRITERS * INCREMENTS);
+        assertThat(reloaded.getVersion()).isEqualTo((long) WRITERS * INCREMENTS);
+        UserServiceImpl.UpdateStats stats = service.getUpdateStats();
+        assertThat(stats.retries()).isEqualTo(stats.conflicts());
+        assertThat(stats.exhausted()).isZero();
+    }
+
+    private User newUser(String key) {
+        return User.builder()
+                .name("User " + key)
+                .email(key + "@example.com")
+                .age(20)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplPageTest {
+
+    private static final int ROWS = 95;
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+    private List<User> saved;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("keyset_page");
+        userDao = new UserDaoImpl(sessionFactory);
+
+        // Несколько пользователей на одну метку времени, чтобы проверить разрешение ничьих по id
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(User.builder()
+                    .name("Page User " + i)
+                    .email("page" + i + "@example.com")
+                    .age(30)
+                    .createdAt(base.minusMinutes(i / 3))
+                    .build());
+        }
+        saved = userDao.saveAll(users);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Должен обойти всю таблицу страницами по ID без пропусков и повторов")
+    void findPage_ShouldWalkWholeTableById() {
+        List<Long> ids = new ArrayList<>();
+        Long afterId = null;
+        UserPage page;
+        do {
+            page = userDao.findPage(afterId, 10);
+            page.users().forEach(user -> ids.add(user.getId()));
+            afterId = page.users().isEmpty() ? null : page.users().get(page.users().size() - 1).getId();
+        } while (page.hasNext());
+
+        assertThat(ids).hasSize(ROWS).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Должен продолжать чтение по токену в порядке created_at, id")
+    void findPage_ShouldResumeByTokenOrderedByCreatedAt() {
+        List<User> walked = new ArrayList<>();
+        String token = null;
+        do {
+            UserPage page = userDao.findPage(token, 7, UserSortKey.CREATED_AT);
+            walked.addAll(page.users());
+            token = page.nextPageToken();
+        } while (token != null);
+
+        List<Long> expected = saved.stream()
+                .sorted((a, b) -> {
+                    int byCreatedAt = a.getCreatedAt().compareTo(b.getCreatedAt());
+                    return byCreatedAt != 0 ? byCreatedAt : a.getId().compareTo(b.getId());
+                })
+                .map(User::getId)
+                .toList();
+        assertThat(walked).extracting(User::getId).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Последняя страница не должна содержать токен продолжения")
+    void findPage_ShouldNotReturnToken_OnLastPage() {
+        UserPage page = userDao.findPage(null, ROWS);
+
+        assertThat(page.users()).hasSize(ROWS);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Должен отклонить токен другой сортировки и испорченный токен")
+    void findPage_ShouldRejectForeignOrBrokenToken() {
+        String idToken = userDao.findPage(null, 5).nextPageToken();
+
+        assertThatThrownBy(() -> userDao.findPage(idToken, 5, UserSortKey.CREATED_AT))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> userDao.findPage("not-a-token", 5, UserSortKey.ID))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Должен отклонить limit вне допустимого диапазона")
+    void findPage_ShouldRejectInvalidLimit() {
+        assertThatThrownBy(() -> userDao.findPage(null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplReadPathTest {
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private UserDao userDao;
+    private List<User> seeded;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("read-path",
+                Map.of(AvailableSettings.GENERATE_STATISTICS, "true"));
+        statistics = sessionFactory.getStatistics();
+        userDao = new UserDaoImpl(sessionFactory);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(User.builder()
+                    .name("User " + i)
+                    .email("user" + i + "@example.com")
+                    .age(20 + i)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        seeded = userDao.saveAll(users);
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics.clear();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Проекции по id и email не должны гидрировать сущности")
+    void findView_ShouldNotLoadEntities() {
+        User expected = seeded.get(3);
+
+        assertThat(userDao.findViewById(expected.getId()))
+                .contains(new UserView(expected.getId(), "User 3", "user3@example.com"));
+        assertThat(userDao.findViewByEmail(" USER3@example.com")).map(UserView::id).contains(expected.getId());
+        assertThat(userDao.findViewById(-1L)).isEmpty();
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Поток проекций должен идти по порядку id и закрывать курсор")
+    void streamViews_ShouldReturnAllRowsOrderedById() {
+        try (Stream<UserView> views = userDao.streamViews(5)) {
+            assertThat(views).extracting(UserView::id)
+                    .containsExactlyElementsOf(seeded.stream().map(User::getId).toList());
+        }
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getSessionCloseCount()).isEqualTo(statistics.getSessionOpenCount());
+    }
+
+    @Test
+    @DisplayName("Чтение сущностей не должно сбрасывать persistence context перед запросом")
+    void findAll_ShouldUseReadOnlySession() {
+        assertThat(userDao.findAll()).hasSize(seeded.size());
+        assertThat(userDao.findByEmail("user5@example.com")).isPresent();
+
+        assertThat(statistics.getFlushCount()).isZero();
+    }
+}
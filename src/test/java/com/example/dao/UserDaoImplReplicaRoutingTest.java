@@ -0,0 +1,157 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.service.UserServiceImpl;
+import com.example.util.EmbeddedHibernateUtil;
+import com.example.util.ReadReplicaRouter;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Реплики - отдельные базы H2 без репликации: по тому, чью копию строки вернул DAO, видно, куда ушло чтение
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplReplicaRoutingTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(300);
+
+    private SessionFactory primary;
+    private SessionFactory firstReplica;
+    private SessionFactory secondReplica;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        primary = EmbeddedHibernateUtil.buildSessionFactory("routing_primary");
+        firstReplica = EmbeddedHibernateUtil.buildSessionFactory("routing_replica_1");
+        secondReplica = EmbeddedHibernateUtil.buildSessionFactory("routing_replica_2");
+        ReadReplicaRouter router = new ReadReplicaRouter(primary, List.of(
+                new ReadReplicaRouter.Replica("replica-1", firstReplica, () -> 0),
+                new ReadReplicaRouter.Replica("replica-2", secondReplica, () -> 0)),
+                ReadReplicaRouter.Strategy.ROUND_ROBIN, WINDOW);
+        userDao = new UserDaoImpl(primary, router);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        primary.close();
+        firstReplica.close();
+        secondReplica.close();
+    }
+
+    @Test
+    @DisplayName("Сразу после записи чтение должно идти на primary, после окна - на реплики по очереди")
+    void findById_ShouldReadOwnWriteFromPrimary_ThenFromReplicas() throws InterruptedException {
+        User saved = userDao.save(newUser("own-write", "Primary"));
+        copyTo(firstReplica, saved, "Replica 1");
+        copyTo(secondReplica, saved, "Replica 2");
+
+        assertThat(userDao.findById(saved.getId())).map(User::getName).contains("Primary");
+        assertThat(userDao.findByEmail("own-write@example.com")).map(User::getName).contains("Primary");
+
+        Thread.sleep(WINDOW.toMillis() + 100);
+        List<String> names = List.of(
+                userDao.findById(saved.getId()).orElseThrow().getName(),
+                userDao.findById(saved.getId()).orElseThrow().getName());
+        assertThat(names).containsExactlyInAnyOrder("Replica 1", "Replica 2");
+    }
+
+    @Test
+    @DisplayName("Списки должны уходить на реплику, когда окно после записей истекло")
+    void findAll_ShouldUseReplica_OutsideWindow() throws InterruptedException {
+        userDao.save(newUser("list-primary", "Primary"));
+        assertThat(userDao.findAll()).extracting(User::getEmail).contains("list-primary@example.com");
+
+        Thread.sleep(WINDOW.toMillis() + 100);
+        assertThat(userDao.findAll()).extracting(User::getEmail).doesNotContain("list-primary@example.com");
+    }
+
+    @Test
+    @DisplayName("Записи всегда должны идти на primary")
+    void writes_ShouldGoToPrimary() {
+        User saved = userDao.save(newUser("write-only", "Primary"));
+        userDao.updateFields(saved.getId(), "Renamed", null, null);
+
+        try (var session = primary.openSession()) {
+            assertThat(session.get(User.class, saved.getId()).getName()).isEqualTo("Renamed");
+        }
+        for (SessionFactory replica : List.of(firstReplica, secondReplica)) {
+            try (var session = replica.openSession()) {
+                assertThat(session.get(User.class, saved.getId())).isNull();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("После конфликта версий повтор изменения должен читать строку с primary, а не с отстающей реплики")
+    void modifyUser_ShouldRereadFromPrimary_AfterConflict() throws InterruptedException {
+        User saved = userDao.save(newUser("conflict", "Primary"));
+        copyTo(firstReplica, saved, "Replica 1");
+        copyTo(secondReplica, saved, "Replica 2");
+        Thread.sleep(WINDOW.toMillis() + 100);
+        // Запись другого узла: версия на primary ушла вперед, реплики и кэш этого узла о ней не знают
+        primary.inTransaction(session -> session.createNativeMutationQuery(
+                        "UPDATE users SET name = 'Other node', version = version + 1 WHERE id = :id")
+                .setParameter("id", saved.getId())
+                .executeUpdate());
+        primary.getCache().evictEntityData(User.class, saved.getId());
+        UserServiceImpl service = new UserServiceImpl(userDao, 2, Duration.ZERO);
+
+        User modified = service.modifyUser(saved.getId(), user -> {
+            user.setAge(user.getAge() + 1);
+            return user;
+        });
+
+        assertThat(modified.getName()).isEqualTo("Other node");
+        assertThat(modified.getVersion()).isEqualTo(2L);
+        assertThat(service.getUpdateStats().conflicts()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Старый email после смены и email удаленного пользователя должны искаться на primary")
+    void findByEmail_ShouldReadReplacedAndDeletedEmailsFromPrimary() throws InterruptedException {
+        User renamed = userDao.save(newUser("old-address", "Primary"));
+        User removed = userDao.save(newUser("removed", "Primary"));
+        User batchRemoved = userDao.save(newUser("batch-removed", "Primary"));
+        for (User user : List.of(renamed, removed, batchRemoved)) {
+            copyTo(firstReplica, user, "Replica 1");
+            copyTo(secondReplica, user, "Replica 2");
+        }
+        Thread.sleep(WINDOW.toMillis() + 100);
+
+        userDao.updateFields(renamed.getId(), null, "new-address@example.com", null);
+        userDao.delete(removed.getId());
+        userDao.deleteAll(List.of(batchRemoved.getId()));
+
+        assertThat(userDao.findByEmail("old-address@example.com")).isEmpty();
+        assertThat(userDao.findByEmail("new-address@example.com")).map(User::getId).contains(renamed.getId());
+        assertThat(userDao.findByEmail("removed@example.com")).isEmpty();
+        assertThat(userDao.findByEmail("batch-removed@example.com")).isEmpty();
+    }
+
+    private static void copyTo(SessionFactory replica, User user, String name) {
+        replica.inTransaction(session -> session.createNativeMutationQuery(
+                        "INSERT INTO users (id, name, email, age, created_at, version) "
+                                + "VALUES (:id, :name, :email, :age, :createdAt, 0)")
+                .setParameter("id", user.getId())
+                .setParameter("name", name)
+                .setParameter("email", user.getEmail())
+                .setParameter("age", user.getAge())
+                .setParameter("createdAt", user.getCreatedAt())
+                .executeUpdate());
+    }
+
+    private static User newUser(String key, String name) {
+        return User.builder()
+                .name(name)
+                .email(key + "@example.com")
+                .age(30)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplSecondLevelCacheTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDaoImplSecondLevelCacheTest.class);
+
+    private static final int LOOKUPS = 10;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("second_level_cache", Map.of(
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, "true",
+                AvailableSettings.USE_QUERY_CACHE, "true",
+                AvailableSettings.CACHE_REGION_FACTORY, "jcache",
+                "hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+                "hibernate.javax.cache.missing_cache_strategy", "create",
+                AvailableSettings.GENERATE_STATISTICS, "true"));
+        statistics = sessionFactory.getStatistics();
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.inTransaction(session ->
+                session.createMutationQuery("DELETE FROM User").executeUpdate());
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Повторный поиск по ID в новых сессиях не должен ходить в базу")
+    void findById_ShouldBeServedFromSecondLevelCache() {
+        User saved = userDao.save(createTestUser("l2@example.com"));
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertThat(userDao.findById(saved.getId())).isPresent();
+        }
+
+        logger.debug("findById x{}: SQL {}, попаданий в L2 {}",
+                LOOKUPS, statistics.getPrepareStatementCount(), statistics.getSecondLevelCacheHitCount());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(LOOKUPS - 1);
+    }
+
+    @Test
+    @DisplayName("Повторный поиск по email должен обслуживаться кэшем запросов")
+    void findByEmail_ShouldBeServedFromQueryCache() {
+        userDao.save(createTestUser("query-cache@example.com"));
+        statistics.clear();
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertThat(userDao.findByEmail("query-cache@example.com")).isPresent();
+        }
+
+        logger.debug("findByEmail x{}: SQL {}, попаданий в кэш запросов {}",
+                LOOKUPS, statistics.getPrepareStatementCount(), statistics.getQueryCacheHitCount());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(LOOKUPS - 1);
+    }
+
+    @Test
+    @DisplayName("После обновления кэш должен отдавать новые данные")
+    void update_ShouldKeepCacheConsistent() {
+        User saved = userDao.save(createTestUser("consistent@example.com"));
+        userDao.findById(saved.getId());
+        userDao.findByEmail("consistent@example.com");
+
+        saved.setName("Updated Name");
+        userDao.update(saved);
+
+        assertThat(userDao.findById(saved.getId())).map(User::getName).contains("Updated Name");
+        assertThat(userDao.findByEmail("consistent@example.com")).map(User::getName).contains("Updated Name");
+    }
+
+    private User createTestUser(String email) {
+        return User.builder()
+                .name("Cached User")
+                .email(email)
+                .age(25)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
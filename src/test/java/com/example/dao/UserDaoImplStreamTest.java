@@ -0,0 +1,72 @@
+package com.example.dao;
+
+import com.example.entity.User;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserDaoImplStreamTest {
+
+    private static final int ROWS = 1_000;
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("stream_all");
+        userDao = new UserDaoImpl(sessionFactory);
+
+        List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(User.builder()
+                    .name("Stream User " + i)
+                    .email("stream" + i + "@example.com")
+                    .age(20 + i % 50)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        userDao.saveAll(users);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Должен отдать всех пользователей по возрастанию ID")
+    void streamAll_ShouldReturnAllUsersOrderedById() {
+        List<Long> ids;
+        try (Stream<User> users = userDao.streamAll(100)) {
+            ids = users.map(User::getId).toList();
+        }
+
+        assertThat(ids).hasSize(ROWS).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Должен корректно закрываться при частичном чтении")
+    void streamAll_ShouldReleaseResources_WhenPartiallyConsumed() {
+        try (Stream<User> users = userDao.streamAll(10)) {
+            assertThat(users.limit(5).count()).isEqualTo(5);
+        }
+
+        assertThat(userDao.findAll()).hasSize(ROWS);
+    }
+
+    @Test
+    @DisplayName("Должен отклонить неположительный fetchSize")
+    void streamAll_ShouldRejectNonPositiveFetchSize() {
+        assertThatThrownBy(() -> userDao.streamAll(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.exporter;
+
+import com.example.dao.IdRange;
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.dao.UserRow;
+import com.example.entity.User;
+import com.example.json.JsonReader;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserExporterTest {
+
+    private static final int USERS = 2_000;
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+    private List<User> seeded;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("exporter");
+        userDao = new UserDaoImpl(sessionFactory);
+        List<User> users = new ArrayList<>();
+        users.add(createUser("Smith, \"Agent\"", "agent@example.com", null));
+        for (int i = 1; i < USERS; i++) {
+            users.add(createUser("User " + i, "user" + i + "@example.com", i % 90));
+        }
+        seeded = userDao.saveAll(users);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("CSV должен содержать заголовок и все строки по порядку id с экранированием")
+    void export_ShouldWriteCsv() throws Exception {
+        Path file = directory.resolve("users.csv");
+
+        ExportReport report = new UserExporter(userDao, ExportFormat.CSV, false, 1, 500).export(file);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(report.rows()).isEqualTo(USERS);
+        assertThat(report.bytes()).isEqualTo(Files.size(file));
+        assertThat(lines).hasSize(USERS + 1);
+        assertThat(lines.getFirst()).isEqualTo("id,name,email,age,created_at");
+        assertThat(lines.get(1)).startsWith(seeded.getFirst().getId() + ",\"Smith, \"\"Agent\"\"\",agent@example.com,,");
+    }
+
+    @Test
+    @DisplayName("Параллельный NDJSON с gzip должен склеиваться в один поток, упорядоченный по id")
+    void export_ShouldWriteGzipNdjsonInParallel() throws Exception {
+        Path file = directory.resolve("users.ndjson.gz");
+
+        ExportReport report = new UserExporter(userDao, ExportFormat.of(file), true, 4, 100).export(file);
+
+        List<Long> ids = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Map<String, Object> object = JsonReader.parseObject(line);
+                ids.add((Long) object.get("id"));
+            }
+        }
+        assertThat(report.rows()).isEqualTo(USERS);
+        assertThat(ids).hasSize(USERS).isSorted().doesNotHaveDuplicates();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).noneMatch(path -> path.toString().contains(".part"));
+        }
+    }
+
+    @Test
+    @DisplayName("Бинарный снимок должен читаться обратно без потерь")
+    void export_ShouldWriteReadableBinarySnapshot() throws Exception {
+        Path file = directory.resolve("users.bin");
+
+        new UserExporter(userDao, ExportFormat.BINARY, false, 3, 500).export(file);
+
+        List<UserRow> rows = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file)) {
+            assertThat(BinaryUserFormat.read(in, rows::add)).isEqualTo(USERS);
+        }
+        UserRow first = rows.getFirst();
+        User expected = seeded.getFirst();
+        assertThat(first.id()).isEqualTo(expected.getId());
+        assertThat(first.name()).isEqualTo("Smith, \"Agent\"");
+        assertThat(first.age()).isNull();
+        assertThat(first.createdAt()).isEqualTo(expected.getCreatedAt().truncatedTo(ChronoUnit.MICROS));
+        assertThat(rows.getLast().email()).isEqualTo("user" + (USERS - 1) + "@example.com");
+    }
+
+    @Test
+    @DisplayName("Диапазон id должен делиться на непересекающиеся части без потерь")
+    void split_ShouldCoverWholeRange() {
+        List<IdRange> parts = new IdRange(1, 11).split(3);
+
+        assertThat(parts).containsExactly(new IdRange(1, 5), new IdRange(5, 9), new IdRange(9, 11));
+        assertThat(new IdRange(1, 3).split(8)).hasSize(2);
+    }
+
+    private User createUser(String name, String email, Integer age) {
+        return User.builder()
+                .name(name)
+                .email(email)
+                .age(age)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
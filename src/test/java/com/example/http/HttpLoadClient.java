@@ -0,0 +1,111 @@
+package com.example.http;
+
+import com.example.json.JsonReader;
+import com.example.metrics.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Нагрузочный клиент без внешних зависимостей: сидирует пользователей через POST и читает их по ID.
+// Запуск против работающего сервера: java ... com.example.http.HttpLoadClient http://localhost:8080 64 30
+public class HttpLoadClient implements AutoCloseable {
+
+    private final URI baseUri;
+    private final HttpClient client;
+
+    public HttpLoadClient(URI baseUri) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI baseUri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+        try (HttpLoadClient loadClient = new HttpLoadClient(baseUri)) {
+            List<Long> ids = loadClient.seed(1000, "load-" + System.currentTimeMillis());
+            System.out.println(loadClient.run(ids, concurrency, duration));
+        }
+    }
+
+    public List<Long> seed(int count, String prefix) throws Exception {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String body = "{\"name\":\"Load " + i + "\",\"email\":\"" + prefix + "-" + i + "@load.example.com\",\"age\":30}";
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(baseUri.resolve("/users"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Не удалось создать пользователя: " + response.body());
+            }
+            ids.add((Long) JsonReader.parseObject(response.body()).get("id"));
+        }
+        return ids;
+    }
+
+    public Result run(List<Long> ids, int concurrency, Duration duration) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        long started = System.nanoTime();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/users/" + id)).GET().build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latency.record(System.nanoTime() - start);
+                    }
+                    return null;
+                });
+            }
+        }
+
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        return new Result(snapshot.count(), errors.sum(), snapshot.count() / seconds,
+                snapshot.p50Nanos() / 1_000_000.0, snapshot.p99Nanos() / 1_000_000.0,
+                snapshot.p999Nanos() / 1_000_000.0);
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    public record Result(long requests, long errors, double requestsPerSecond,
+                         double p50Millis, double p99Millis, double p999Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("запросов: %d, ошибок: %d, %.0f rps, p50 %.2f мс, p99 %.2f мс, p999 %.2f мс",
+                    requests, errors, requestsPerSecond, p50Millis, p99Millis, p999Millis);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.http;
+
+import com.example.dao.UserDaoImpl;
+import com.example.json.JsonReader;
+import com.example.metrics.MetricsRegistry;
+import com.example.service.UserServiceImpl;
+import com.example.service.VirtualThreadUserService;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserHttpServerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserHttpServerTest.class);
+
+    private SessionFactory sessionFactory;
+    private VirtualThreadUserService asyncService;
+    private UserHttpServer server;
+    private HttpClient client;
+    private URI baseUri;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("http");
+        asyncService = new VirtualThreadUserService(
+                new UserServiceImpl(new UserDaoImpl(sessionFactory)), 8, Duration.ofSeconds(5));
+        server = new UserHttpServer(asyncService, new MetricsRegistry(), new InetSocketAddress("localhost", 0)).start();
+        baseUri = URI.create("http://localhost:" + server.port());
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.inTransaction(session ->
+                session.createMutationQuery("DELETE FROM User").executeUpdate());
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        client.close();
+        server.close();
+        asyncService.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("POST должен создавать пользователя и возвращать 201 с Location")
+    void post_ShouldCreateUser() throws Exception {
+        HttpResponse<String> response = send("POST", "/users", "{\"name\":\"Иван\",\"email\":\"ivan@example.com\",\"age\":30}");
+
+        assertThat(response.statusCode()).isEqualTo(201);
+        Map<String, Object> body = JsonReader.parseObject(response.body());
+        assertThat(body).containsEntry("name", "Иван").containsEntry("email", "ivan@example.com").containsEntry("age", 30L);
+        assertThat(response.headers().firstValue("Location")).contains("/users/" + body.get("id"));
+        assertThat(body.get("createdAt")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("GET по ID и по email должен находить пользователя, иначе 404")
+    void get_ShouldFindByIdAndEmail() throws Exception {
+        long id = create("find@example.com");
+
+        assertThat(send("GET", "/users/" + id, null).statusCode()).isEqualTo(200);
+        HttpResponse<String> byEmail = send("GET", "/users?email=find%40example.com", null);
+        assertThat(byEmail.statusCode()).isEqualTo(200);
+        assertThat(JsonReader.parseObject(byEmail.body())).containsEntry("id", id);
+
+        assertThat(send("GET", "/users/999999", null).statusCode()).isEqualTo(404);
+        assertThat(send("GET", "/users?email=none%40example.com", null).statusCode()).isEqualTo(404);
+        assertThat(send("GET", "/users/abc", null).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    @DisplayName("Постраничный GET должен отдавать страницы по курсору after")
+    @SuppressWarnings("unchecked")
+    void get_ShouldPageWithAfterCursor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            create("page" + i + "@example.com");
+        }
+
+        Map<String, Object> first = JsonReader.parseObject(send("GET", "/users?limit=3", null).body());
+        List<Map<String, Object>> firstUsers = (List<Map<String, Object>>) first.get("users");
+        assertThat(firstUsers).hasSize(3);
+        assertThat(first.get("nextPageToken")).isNotNull();
+
+        Object lastId = firstUsers.get(2).get("id");
+        Map<String, Object> second = JsonReader.parseObject(send("GET", "/users?after=" + lastId + "&limit=3", null).body());
+        assertThat((List<?>) second.get("users")).hasSize(2);
+        assertThat(second.get("nextPageToken")).isNull();
+
+        assertThat(send("GET", "/users?limit=0", null).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("PATCH должен менять только переданные поля, DELETE - удалять")
+    void patchAndDelete_ShouldModifyUser() throws Exception {
+        long id = create("patch@example.com");
+
+        HttpResponse<String> patched = send("PATCH", "/users/" + id, "{\"age\":41}");
+        assertThat(patched.statusCode()).isEqualTo(200);
+        assertThat(JsonReader.parseObject(patched.body()))
+                .containsEntry("age", 41L)
+                .containsEntry("email", "patch@example.com");
+
+        assertThat(send("PATCH", "/users/999999", "{\"age\":41}").statusCode()).isEqualTo(404);
+        assertThat(send("DELETE", "/users/" + id, null).statusCode()).isEqualTo(204);
+        assertThat(send("DELETE", "/users/" + id, null).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    @DisplayName("Некорректные запросы должны получать 400 и 405")
+    void invalidRequests_ShouldBeRejected() throws Exception {
+        assertThat(send("POST", "/users", "{\"name\":").statusCode()).isEqualTo(400);
+        assertThat(send("POST", "/users", "{\"name\":\"A\",\"email\":\"no-at\"}").statusCode()).isEqualTo(400);
+        assertThat(send("POST", "/users", "{\"name\":\"A\",\"email\":\"a@example.com\",\"age\":\"x\"}").statusCode())
+                .isEqualTo(400);
+        assertThat(send("POST", "/users", "{\"name\":" + "[".repeat(50_000)).statusCode()).isEqualTo(400);
+        assertThat(send("PUT", "/users/1", "{}").statusCode()).isEqualTo(405);
+    }
+
+    @Test
+    @DisplayName("Занятый email должен давать 409, некорректные поля PATCH и сортировка - 400")
+    void conflictsAndPatchValidation_ShouldMapToClientErrors() throws Exception {
+        long id = create("taken@example.com");
+        long other = create("other@example.com");
+
+        HttpResponse<String> duplicate = send("POST", "/users", "{\"name\":\"B\",\"email\":\"TAKEN@example.com\"}");
+        assertThat(duplicate.statusCode()).isEqualTo(409);
+        assertThat(JsonReader.parseObject(duplicate.body())).containsEntry("error", "Email уже используется: taken@example.com");
+        assertThat(send("PATCH", "/users/" + other, "{\"email\":\"taken@example.com\"}").statusCode()).isEqualTo(409);
+
+        assertThat(send("PATCH", "/users/" + id, "{\"email\":\"no-at\"}").statusCode()).isEqualTo(400);
+        assertThat(send("PATCH", "/users/" + id, "{\"name\":\"  \"}").statusCode()).isEqualTo(400);
+        assertThat(send("GET", "/users?sort=unknown", null).statusCode()).isEqualTo(400);
+        assertThat(JsonReader.parseObject(send("GET", "/users/" + id, null).body()))
+                .containsEntry("email", "taken@example.com");
+    }
+
+    @Test
+    @DisplayName("Нагрузочный клиент должен проходить без ошибок")
+    void loadClient_ShouldRunWithoutErrors() throws Exception {
+        try (HttpLoadClient loadClient = new HttpLoadClient(baseUri)) {
+            List<Long> ids = loadClient.seed(50, "http-load");
+
+            HttpLoadClient.Result result = loadClient.run(ids, 32, Duration.ofSeconds(1));
+
+            logger.debug("HTTP GET /users/{id}, 32 клиента: {}", result);
+            assertThat(result.errors()).isZero();
+            assertThat(result.requests()).isPositive();
+        }
+        assertThat(send("GET", "/metrics", null).body())
+                .contains("user_service_operation_calls_total{layer=\"http\",operation=\"getUserById\"}");
+    }
+
+    private long create(String email) throws Exception {
+        HttpResponse<String> response = send("POST", "/users", "{\"name\":\"Test\",\"email\":\"" + email + "\"}");
+        assertThat(response.statusCode()).isEqualTo(201);
+        return (Long) JsonReader.parseObject(response.body()).get("id");
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body);
+        return client.send(HttpRequest.newBuilder(baseUri.resolve(path)).method(method, publisher).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
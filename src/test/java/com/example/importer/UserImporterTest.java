@@ -0,0 +1,171 @@
+package com.example.importer;
+
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import com.example.exception.DaoException;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserImporterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImporterTest.class);
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("importer");
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.inTransaction(session ->
+                session.createMutationQuery("DELETE FROM User").executeUpdate());
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("CSV с заголовком должен импортироваться, невалидные строки - попадать в отчёт с номерами")
+    void importFile_ShouldImportCsvAndReportRejectedLines() throws Exception {
+        Path file = write("users.csv", """
+                email,name,age
+                Alice@Example.com,"Smith, Alice",30
+                bob@example.com,Bob,
+
+                carol@example.com,,41
+                not-an-email,Dave,20
+                erin@example.com,Erin,abc
+                "frank@example.com","Frank ""F"" Jr",52
+                """);
+
+        ImportReport report = new UserImporter(userDao, 2, 2, false).importFile(file);
+
+        assertThat(report.records()).isEqualTo(6);
+        assertThat(report.inserted()).isEqualTo(3);
+        assertThat(report.rejected()).isEqualTo(3);
+        assertThat(report.rejectedLines()).extracting(ImportReport.RejectedLine::line).containsExactly(5L, 6L, 7L);
+        assertThat(report.rejectedLines().get(2).reason()).contains("abc");
+        assertThat(userDao.findByEmail("alice@example.com")).map(User::getName).contains("Smith, Alice");
+        assertThat(userDao.findByEmail("frank@example.com")).map(User::getName).contains("Frank \"F\" Jr");
+        assertThat(userDao.findByEmail("bob@example.com")).map(User::getAge).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Дубликат email без upsert должен отклонять только свою строку")
+    void importFile_ShouldRejectOnlyDuplicateRow_WhenUpsertDisabled() throws Exception {
+        userDao.save(createUser("taken@example.com", "Existing", 50));
+        Path file = write("duplicates.csv", """
+                First,first@example.com,20
+                Duplicate,TAKEN@example.com,21
+                Second,second@example.com,22
+                """);
+
+        ImportReport report = new UserImporter(userDao, 10, 1, false).importFile(file);
+
+        assertThat(report.inserted()).isEqualTo(2);
+        assertThat(report.rejectedLines()).extracting(ImportReport.RejectedLine::line).containsExactly(2L);
+        assertThat(report.rejectedLines().getFirst().reason())
+                .isEqualTo("Email уже используется (SQLSTATE 23505), поле: email");
+        assertThat(userDao.findByEmail("taken@example.com")).map(User::getName).contains("Existing");
+        assertThat(userDao.findByEmail("second@example.com")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Отказ базы должен прерывать импорт, а не превращаться в отклоненные строки")
+    void importFile_ShouldAbort_WhenDatabaseUnavailable() throws Exception {
+        UserDao unavailable = mock(UserDao.class);
+        when(unavailable.saveAll(anyCollection())).thenThrow(new DaoException("Ошибка пакетного сохранения",
+                new SQLTransientConnectionException("Connection is not available", "08001")));
+        Path file = write("outage.csv", """
+                First,first@example.com,20
+                Second,second@example.com,21
+                """);
+
+        assertThatThrownBy(() -> new UserImporter(unavailable, 10, 1, false).importFile(file))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Импорт прерван");
+        verify(unavailable, times(1)).saveAll(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Upsert должен обновлять существующих по email и добавлять новых")
+    void importFile_ShouldUpsertByEmail() throws Exception {
+        User existing = userDao.save(createUser("taken@example.com", "Existing", 50));
+        Path file = write("upsert.ndjson", """
+                {"name": "Renamed", "email": "Taken@Example.com", "age": 51}
+                {"name": "New", "email": "new@example.com"}
+                {"name": "Broken", "email": "broken@example.com", "age": "old"}
+                {not json}
+                {"name": "Newer", "email": "NEW@example.com"}
+                """);
+
+        ImportReport report = new UserImporter(userDao, 10, 1, true).importFile(file);
+
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.updated()).isEqualTo(1);
+        assertThat(report.rejectedLines()).extracting(ImportReport.RejectedLine::line).containsExactly(3L, 4L);
+        User updated = userDao.findById(existing.getId()).orElseThrow();
+        assertThat(updated.getName()).isEqualTo("Renamed");
+        assertThat(updated.getAge()).isEqualTo(51);
+        assertThat(userDao.findByEmail("new@example.com")).map(User::getName).contains("Newer");
+    }
+
+    @Test
+    @DisplayName("Большой файл должен импортироваться пачками через конвейер")
+    void importFile_ShouldStreamLargeFile() throws Exception {
+        int rows = 20_000;
+        String content = IntStream.range(0, rows)
+                .mapToObj(i -> "User " + i + ",user" + i + "@example.com," + (i % 90))
+                .collect(Collectors.joining("\n", "name,email,age\n", "\n"));
+        Path file = write("large.csv", content);
+
+        ImportReport report = new UserImporter(userDao, 500, 2, false).importFile(file);
+
+        assertThat(report.inserted()).isEqualTo(rows);
+        assertThat(report.rejected()).isZero();
+        Long stored = sessionFactory.fromSession(session ->
+                session.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult());
+        assertThat(stored).isEqualTo(rows);
+        logger.debug("Импорт {} строк: {} строк/с", rows, Math.round(report.rowsPerSecond()));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private User createUser(String email, String name, Integer age) {
+        return User.builder()
+                .name(name)
+                .email(email)
+                .age(age)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
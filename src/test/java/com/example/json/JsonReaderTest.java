@@ -0,0 +1,67 @@
+package com.example.json;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JsonReaderTest {
+
+    @Test
+    @DisplayName("Объект должен разбираться в типы Java")
+    void parseObject_ShouldMapJsonTypes() {
+        Map<String, Object> object = JsonReader.parseObject(
+                " {\"name\": \"Test\", \"age\": 25, \"score\": 1.5e2, \"active\": false,"
+                        + " \"tags\": [\"a\", null], \"meta\": {}} ");
+
+        assertThat(object)
+                .containsEntry("name", "Test")
+                .containsEntry("age", 25L)
+                .containsEntry("score", 150.0)
+                .containsEntry("active", false)
+                .containsEntry("tags", Arrays.asList("a", null))
+                .containsEntry("meta", Map.of());
+    }
+
+    @Test
+    @DisplayName("Escape-последовательности должны раскрываться")
+    void parse_ShouldUnescapeStrings() {
+        assertThat(JsonReader.parse("\"a\\\"b\\\\c\\/d\\n\\u0416\"")).isEqualTo("a\"b\\c/d\nЖ");
+    }
+
+    @Test
+    @DisplayName("Некорректный JSON должен отклоняться с указанием позиции")
+    void parse_ShouldRejectMalformedInput() {
+        for (String input : List.of("", "{", "{\"a\" 1}", "{\"a\":1,}", "[1 2]", "tru", "\"abc", "{} x", "1.2.3")) {
+            assertThatThrownBy(() -> JsonReader.parse(input))
+                    .as(input)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("Некорректный JSON");
+        }
+    }
+
+    @Test
+    @DisplayName("Слишком глубокая вложенность должна отклоняться, а не переполнять стек")
+    void parse_ShouldRejectDeepNesting() {
+        String allowed = "[".repeat(JsonReader.MAX_DEPTH) + "]".repeat(JsonReader.MAX_DEPTH);
+        assertThat(JsonReader.parse(allowed)).isInstanceOf(List.class);
+
+        for (String input : List.of("[".repeat(100_000), "{\"a\":".repeat(JsonReader.MAX_DEPTH + 1) + "1")) {
+            assertThatThrownBy(() -> JsonReader.parse(input))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("вложенность");
+        }
+    }
+
+    @Test
+    @DisplayName("Не объект должен отклоняться в parseObject")
+    void parseObject_ShouldRejectNonObject() {
+        assertThatThrownBy(() -> JsonReader.parseObject("[1]"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Ожидался JSON-объект");
+    }
+}
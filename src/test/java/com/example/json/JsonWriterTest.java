@@ -0,0 +1,65 @@
+package com.example.json;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JsonWriterTest {
+
+    @Test
+    @DisplayName("Вложенные объекты и массивы должны разделяться запятыми корректно")
+    void write_ShouldPlaceSeparatorsCorrectly() {
+        JsonWriter json = new JsonWriter(8)
+                .beginObject()
+                .name("ids").beginArray().value(1L).value(-20L).value(Long.MAX_VALUE).endArray()
+                .name("empty").beginArray().endArray()
+                .name("nested").beginObject().name("flag").value(true).name("none").nullValue().endObject()
+                .name("age").value((Integer) null)
+                .endObject();
+
+        assertThat(json.toString()).isEqualTo(
+                "{\"ids\":[1,-20,9223372036854775807],\"empty\":[],"
+                        + "\"nested\":{\"flag\":true,\"none\":null},\"age\":null}");
+    }
+
+    @Test
+    @DisplayName("Строки должны экранироваться и кодироваться в UTF-8")
+    void value_ShouldEscapeAndEncodeUtf8() {
+        String text = "Иван \"Ваня\"\n\\ \u0001 😀";
+        JsonWriter json = new JsonWriter().value(text);
+
+        assertThat(json.toString()).isEqualTo("\"Иван \\\"Ваня\\\"\\n\\\\ \\u0001 😀\"");
+        assertThat(json.toByteArray()).isEqualTo(json.toString().getBytes(StandardCharsets.UTF_8));
+        assertThat(JsonReader.parse(json.toString())).isEqualTo(text);
+    }
+
+    @Test
+    @DisplayName("Дата должна записываться как в LocalDateTime.toString")
+    void value_ShouldFormatLocalDateTimeLikeIso() {
+        for (LocalDateTime value : List.of(
+                LocalDateTime.of(2025, 1, 2, 3, 4, 5),
+                LocalDateTime.of(2025, 12, 31, 23, 59, 59, 120_000_000),
+                LocalDateTime.of(2025, 6, 1, 0, 0, 0, 123_456_000),
+                LocalDateTime.of(2025, 6, 1, 0, 0, 0, 1))) {
+            assertThat(new JsonWriter().value(value).toString()).isEqualTo("\"" + value + "\"");
+        }
+    }
+
+    @Test
+    @DisplayName("После reset буфер должен переиспользоваться с чистого листа")
+    void reset_ShouldAllowReuse() {
+        JsonWriter json = new JsonWriter();
+        json.beginArray().value(1L).endArray().reset();
+
+        json.beginObject().name("a").value("b").endObject();
+
+        assertThat(json.toString()).isEqualTo("{\"a\":\"b\"}");
+        assertThat(JsonReader.parseObject(json.toString())).isEqualTo(Map.of("a", "b"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Границы корзин должны покрывать значения без разрывов")
+    void bucketIndex_ShouldBeContinuousAndMonotonic() {
+        int previous = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(index).isBetween(previous, previous + 1);
+            assertThat(LatencyHistogram.bucketUpperBound(index)).isGreaterThanOrEqualTo(value);
+            previous = index;
+        }
+        assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE)).isEqualTo(487);
+    }
+
+    @Test
+    @DisplayName("Перцентили должны укладываться в погрешность корзины")
+    void snapshot_ShouldReportPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(10_000);
+        assertThat(snapshot.p50Nanos()).isBetween(5_000_000L, 5_625_000L);
+        assertThat(snapshot.p99Nanos()).isBetween(9_900_000L, 10_000_000L);
+        assertThat(snapshot.p999Nanos()).isBetween(9_990_000L, 10_000_000L);
+        assertThat(snapshot.maxNanos()).isEqualTo(10_000_000L);
+    }
+
+    @Test
+    @DisplayName("Пустая гистограмма должна возвращать нули")
+    void snapshot_ShouldReturnZeros_WhenEmpty() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertThat(snapshot.count()).isZero();
+        assertThat(snapshot.p99Nanos()).isZero();
+    }
+
+    @Test
+    @DisplayName("Параллельная запись не должна терять замеры")
+    void record_ShouldNotLoseSamples_UnderConcurrency() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        histogram.record(i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(histogram.snapshot().count()).isEqualTo(800_000);
+    }
+}
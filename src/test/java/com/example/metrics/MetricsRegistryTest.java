@@ -0,0 +1,100 @@
+package com.example.metrics;
+
+import com.example.dao.InstrumentedUserDao;
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import com.example.exception.DaoException;
+import com.example.service.InstrumentedUserService;
+import com.example.service.UserService;
+import com.example.service.UserServiceImpl;
+import com.example.util.ConnectionPoolMetrics;
+import com.example.util.EmbeddedHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MetricsRegistryTest {
+
+    private SessionFactory sessionFactory;
+
+    @BeforeAll
+    void setUpAll() {
+        sessionFactory = EmbeddedHibernateUtil.buildSessionFactory("metrics");
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Обёртки DAO и сервиса должны считать вызовы, задержки и статистику Hibernate")
+    void instrumentedStack_ShouldRecordCallsLatencyAndHibernateStatistics() {
+        MetricsRegistry registry = new MetricsRegistry().bindHibernate(sessionFactory);
+        UserService userService = new InstrumentedUserService(
+                new UserServiceImpl(new InstrumentedUserDao(new UserDaoImpl(sessionFactory), registry)), registry);
+
+        User created = userService.createUser("Metrics", "metrics@example.com", 30);
+        for (int i = 0; i < 10; i++) {
+            userService.getUserById(created.getId());
+        }
+
+        MetricsRegistry.Snapshot snapshot = registry.snapshot();
+        assertThat(snapshot.operation("service", "getUserById").calls()).isEqualTo(10);
+        assertThat(snapshot.operation("dao", "findById").calls()).isEqualTo(10);
+        assertThat(snapshot.operation("dao", "save").latency().count()).isEqualTo(1);
+        assertThat(snapshot.operation("dao", "findById").latency().p99Nanos()).isPositive();
+        assertThat(snapshot.hibernate().sessionsOpened()).isGreaterThanOrEqualTo(11);
+        assertThat(snapshot.hibernate().entityInserts()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Ошибки должны учитываться по типу исключения на каждом слое")
+    void instrumentedStack_ShouldCountErrorsByExceptionType() {
+        MetricsRegistry registry = new MetricsRegistry();
+        UserDao failingDao = mock(UserDao.class);
+        when(failingDao.findById(1L)).thenThrow(new DaoException("Ошибка при поиске пользователя", null));
+        UserService userService = new InstrumentedUserService(
+                new UserServiceImpl(new InstrumentedUserDao(failingDao, registry)), registry);
+
+        assertThatThrownBy(() -> userService.getUserById(1L)).isInstanceOf(RuntimeException.class);
+
+        MetricsRegistry.Snapshot snapshot = registry.snapshot();
+        assertThat(snapshot.operation("dao", "findById").errors())
+                .containsEntry(DaoException.class.getName(), 1L);
+        assertThat(snapshot.operation("service", "getUserById").errors())
+                .containsEntry(RuntimeException.class.getName(), 1L);
+        assertThat(snapshot.operation("service", "getUserById").calls()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Снимок в формате Prometheus должен содержать операции, Hibernate и пул")
+    void toPrometheusText_ShouldExposeAllSections() {
+        MetricsRegistry registry = new MetricsRegistry()
+                .bindHibernate(sessionFactory)
+                .bindConnectionPool(() -> new ConnectionPoolMetrics.Snapshot(2, 3, 5, 1, 42, 0, 0.5, 4.0));
+        UserDao userDao = new InstrumentedUserDao(new UserDaoImpl(sessionFactory), registry);
+        userDao.save(User.builder()
+                .name("Prometheus")
+                .email("prometheus@example.com")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        String text = registry.toPrometheusText();
+
+        assertThat(text)
+                .contains("# TYPE user_service_operation_latency_seconds summary")
+                .contains("user_service_operation_calls_total{layer=\"dao\",operation=\"save\"} 1")
+                .contains("user_service_operation_latency_seconds{layer=\"dao\",operation=\"save\",quantile=\"0.999\"}")
+                .contains("user_service_operation_latency_seconds_count{layer=\"dao\",operation=\"save\"} 1")
+                .contains("hibernate_statements_prepared_total")
+                .contains("connection_pool_acquisitions_total 42")
+                .contains("connection_pool_wait_max_seconds 0.004000000");
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.migration;
+
+import com.example.exception.MigrationException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MigrationRunnerTest {
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migrations-" + databases.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+    }
+
+    @Test
+    @DisplayName("Миграции должны применяться по версии, а не по порядку в списке")
+    void migrate_ShouldApplyInVersionOrderAndRecordHistory() throws SQLException {
+        List<Migration> applied = new MigrationRunner(dataSource, "db/migration-test").migrate();
+
+        assertThat(applied).extracting(Migration::version).containsExactly(1, 2);
+        assertThat(queryLong("SELECT COUNT(*) FROM schema_migrations")).isEqualTo(2);
+        assertThat(queryString("SELECT email FROM accounts WHERE id = 1")).isEqualTo("semi;colon@example.com");
+        assertThatThrownBy(() -> execute("INSERT INTO accounts (id, email) VALUES (2, 'semi;colon@example.com')"))
+                .isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    @DisplayName("Повторный запуск не должен ничего применять")
+    void migrate_ShouldBeIdempotent() {
+        MigrationRunner runner = new MigrationRunner(dataSource, "db/migration-test");
+        runner.migrate();
+
+        assertThat(runner.migrate()).isEmpty();
+        MigrationRunner.Status status = runner.status();
+        assertThat(status.applied()).extracting(MigrationRunner.AppliedMigration::version).containsExactly(1, 2);
+        assertThat(status.pending()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Изменённый после применения скрипт должен останавливать миграцию")
+    void migrate_ShouldRejectChangedChecksum() {
+        new MigrationRunner(dataSource, "db/migration-test").migrate();
+
+        assertThatThrownBy(() -> new MigrationRunner(dataSource, "db/migration-changed").migrate())
+                .isInstanceOf(MigrationException.class)
+                .hasMessageContaining("контрольная сумма");
+    }
+
+    @Test
+    @DisplayName("Упавшая миграция должна откатываться целиком и не попадать в историю")
+    void migrate_ShouldRollbackFailedMigration() throws SQLException {
+        MigrationRunner runner = new MigrationRunner(dataSource, "db/migration-broken");
+
+        assertThatThrownBy(runner::migrate)
+                .isInstanceOf(MigrationException.class)
+                .hasMessageContaining("V2");
+
+        assertThat(queryLong("SELECT COUNT(*) FROM accounts")).isEqualTo(1);
+        assertThat(runner.status().pending()).extracting(Migration::version).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("Миграции приложения должны читаться по порядку, индексы - вне транзакции")
+    void load_ShouldParseApplicationMigrations() {
+        List<Migration> migrations = new MigrationRunner(dataSource).load();
+
+        assertThat(migrations).extracting(Migration::version).containsExactly(1, 2, 3, 4, 5, 6, 7);
+        assertThat(migrations.get(0).statements()).hasSize(2);
+        assertThat(migrations.subList(2, 5)).noneMatch(Migration::transactional);
+        // Индексы CONCURRENTLY: сначала снимается возможный INVALID остаток прерванной попытки
+        assertThat(migrations.subList(2, 5)).allSatisfy(migration ->
+                assertThat(migration.statements()).anyMatch(sql -> sql.startsWith("DROP INDEX CONCURRENTLY IF EXISTS"))
+                        .noneMatch(sql -> sql.contains("IF NOT EXISTS")));
+        assertThat(migrations.get(2).statements()).hasSize(3);
+        assertThat(migrations.get(2).statements().getFirst()).startsWith("UPDATE users");
+        assertThat(migrations.get(2).sql()).contains("lower(email)");
+    }
+
+    @Test
+    @DisplayName("Неверное имя скрипта должно отклоняться")
+    void parse_ShouldRejectBadScriptName() {
+        assertThatThrownBy(() -> Migration.parse("create_users.sql", "SELECT 1;"))
+                .isInstanceOf(MigrationException.class);
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private String queryString(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
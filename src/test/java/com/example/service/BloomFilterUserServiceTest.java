@@ -0,0 +1,154 @@
+package com.example.service;
+
+import com.example.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BloomFilterUserServiceTest {
+
+    @Mock
+    private UserService delegate;
+
+    private BloomFilterUserService bloomService;
+
+    @BeforeEach
+    void setUp() {
+        bloomService = new BloomFilterUserService(delegate, 1_000, 0.001, 64 * 1024, Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bloomService.close();
+    }
+
+    @Test
+    @DisplayName("До построения фильтра запросы должны идти в делегата")
+    void getUserByEmail_ShouldPassThrough_WhenFilterNotBuilt() {
+        when(delegate.getUserByEmail("new@example.com")).thenReturn(Optional.empty());
+
+        assertThat(bloomService.getUserByEmail("new@example.com")).isEmpty();
+
+        verify(delegate).getUserByEmail("new@example.com");
+        assertThat(bloomService.getStats().ready()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Отсутствующий email должен отсекаться фильтром без обращения к делегату")
+    void getUserByEmail_ShouldAnswerAbsentWithoutDelegate() {
+        User existing = createUser(1L, "taken@example.com");
+        when(delegate.streamAllUsers(anyInt())).thenReturn(Stream.of(existing));
+        when(delegate.getUserByEmail(" Taken@Example.com")).thenReturn(Optional.of(existing));
+        bloomService.rebuild();
+
+        assertThat(bloomService.getUserByEmail("free@example.com")).isEmpty();
+        assertThat(bloomService.getUserByEmail(" Taken@Example.com")).contains(existing);
+
+        verify(delegate, never()).getUserByEmail("free@example.com");
+        assertThat(bloomService.getStats().definitelyAbsent()).isEqualTo(1);
+        assertThat(bloomService.getStats().passedThrough()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Созданный после построения пользователь должен находиться")
+    void createUser_ShouldAddEmailToFilter() {
+        when(delegate.streamAllUsers(anyInt())).thenReturn(Stream.empty());
+        bloomService.rebuild();
+        User created = createUser(2L, "fresh@example.com");
+        when(delegate.createUser("Fresh", "Fresh@example.com", 30)).thenReturn(created);
+        when(delegate.getUserByEmail("fresh@example.com")).thenReturn(Optional.of(created));
+
+        bloomService.createUser("Fresh", "Fresh@example.com", 30);
+
+        assertThat(bloomService.getUserByEmail("fresh@example.com")).contains(created);
+    }
+
+    @Test
+    @DisplayName("Удаление не должно уменьшать счетчики: email мог попасть в базу мимо фильтра")
+    void deleteUser_ShouldNotRemoveEmailFromFilter() {
+        User first = createUser(1L, "first@example.com");
+        when(delegate.streamAllUsers(anyInt())).thenReturn(Stream.of(first));
+        bloomService.rebuild();
+        when(delegate.deleteUser(1L)).thenReturn(true);
+        when(delegate.deleteUsers(List.of(1L))).thenReturn(0);
+        when(delegate.getUserByEmail("first@example.com")).thenReturn(Optional.empty());
+
+        bloomService.deleteUser(1L);
+        bloomService.deleteUsers(List.of(1L));
+
+        // Удаленный адрес остается "возможно есть" и стоит одного запроса до перестройки
+        assertThat(bloomService.getUserByEmail("first@example.com")).isEmpty();
+        verify(delegate).getUserByEmail("first@example.com");
+        verify(delegate, never()).getUserById(anyLong());
+        verify(delegate, never()).getUsersByIds(any());
+        assertThat(bloomService.getStats().items()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Смена email должна идти одним updateUser делегата, а неизменный email - не трогать фильтр")
+    void updateUser_ShouldAddOnlyNewEmail() {
+        User existing = createUser(2L, "kept@example.com");
+        when(delegate.streamAllUsers(anyInt())).thenReturn(Stream.of(existing));
+        bloomService.rebuild();
+        User renamed = createUser(2L, "renamed@example.com");
+        when(delegate.updateUser(2L, null, " Kept@Example.com", null)).thenReturn(existing);
+        when(delegate.updateUser(2L, null, "renamed@example.com", null)).thenReturn(renamed);
+        when(delegate.getUserByEmail("renamed@example.com")).thenReturn(Optional.of(renamed));
+
+        bloomService.updateUser(2L, null, " Kept@Example.com", null);
+        assertThat(bloomService.getStats().items()).isEqualTo(1);
+        bloomService.updateUser(2L, null, "renamed@example.com", null);
+
+        assertThat(bloomService.getUserByEmail("renamed@example.com")).contains(renamed);
+        assertThat(bloomService.getStats().items()).isEqualTo(2);
+        verify(delegate, never()).modifyUser(anyLong(), any());
+        verify(delegate, never()).getUserById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Изменение через modifyUser должно добавить новый email без лишнего чтения")
+    void modifyUser_ShouldAddNewEmail() {
+        User existing = createUser(3L, "before@example.com");
+        when(delegate.streamAllUsers(anyInt())).thenReturn(Stream.of(existing));
+        bloomService.rebuild();
+        when(delegate.modifyUser(eq(3L), any())).thenAnswer(invocation -> {
+            UnaryOperator<User> change = invocation.getArgument(1);
+            return change.apply(createUser(3L, "before@example.com"));
+        });
+        when(delegate.getUserByEmail("after@example.com")).thenReturn(Optional.of(createUser(3L, "after@example.com")));
+
+        bloomService.modifyUser(3L, user -> {
+            user.setEmail("after@example.com");
+            return user;
+        });
+
+        assertThat(bloomService.getUserByEmail("after@example.com")).isPresent();
+        verify(delegate, never()).getUserById(anyLong());
+        assertThat(bloomService.getStats().items()).isEqualTo(2);
+    }
+
+    private User createUser(Long id, String email) {
+        return User.builder()
+                .id(id)
+                .name("User " + id)
+                .email(email)
+                .age(25)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
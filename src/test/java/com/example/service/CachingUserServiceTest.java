@@ -0,0 +1,224 @@
+package com.example.service;
+
+import com.example.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingUserServiceTest {
+
+    @Mock
+    private UserService delegate;
+
+    private CachingUserService cachingService;
+
+    @BeforeEach
+    void setUp() {
+        cachingService = new CachingUserService(delegate, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("Повторный поиск по ID должен обслуживаться из кэша")
+    void getUserById_ShouldHitCache_OnRepeatedLookup() {
+        when(delegate.getUserById(1L)).thenReturn(Optional.of(createUser(1L, "test@example.com")));
+
+        cachingService.getUserById(1L);
+        Optional<User> second = cachingService.getUserById(1L);
+
+        assertThat(second).map(User::getEmail).contains("test@example.com");
+        verify(delegate, times(1)).getUserById(1L);
+        assertThat(cachingService.getStats().hits()).isEqualTo(1);
+        assertThat(cachingService.getStats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Поиск по email в другом регистре должен попадать в кэш через индекс email -> id")
+    void getUserByEmail_ShouldUseNormalizedEmailIndex() {
+        when(delegate.getUserById(1L)).thenReturn(Optional.of(createUser(1L, "test@example.com")));
+        cachingService.getUserById(1L);
+
+        Optional<User> result = cachingService.getUserByEmail("  TEST@example.com ");
+
+        assertThat(result).map(User::getId).contains(1L);
+        verify(delegate, never()).getUserByEmail(anyString());
+    }
+
+    @Test
+    @DisplayName("Мульти-загрузка должна догружать из делегата только промахи и сохранять порядок")
+    void getUsersByIds_ShouldLoadOnlyMissesAndKeepOrder() {
+        when(delegate.getUserById(2L)).thenReturn(Optional.of(createUser(2L, "u2@example.com")));
+        cachingService.getUserById(2L);
+        when(delegate.getUsersByIds(List.of(3L, 1L, 4L))).thenReturn(Map.of(
+                1L, createUser(1L, "u1@example.com"),
+                3L, createUser(3L, "u3@example.com")));
+
+        Map<Long, User> result = cachingService.getUsersByIds(List.of(3L, 2L, 1L, 4L));
+
+        assertThat(result.keySet()).containsExactly(3L, 2L, 1L);
+        assertThat(cachingService.getUserById(1L)).isPresent();
+        verify(delegate, times(1)).getUserById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Отсутствующий пользователь не должен кэшироваться")
+    void getUserById_ShouldNotCacheMisses() {
+        when(delegate.getUserById(999L)).thenReturn(Optional.empty());
+
+        cachingService.getUserById(999L);
+        cachingService.getUserById(999L);
+
+        verify(delegate, times(2)).getUserById(999L);
+    }
+
+    @Test
+    @DisplayName("Изменение закэшированного объекта вызывающей стороной не должно портить кэш")
+    void getUserById_ShouldReturnDefensiveCopies() {
+        when(delegate.getUserById(1L)).thenReturn(Optional.of(createUser(1L, "test@example.com")));
+        cachingService.getUserById(1L).orElseThrow().setName("Changed");
+
+        assertThat(cachingService.getUserById(1L)).map(User::getName).contains("User 1");
+    }
+
+    @Test
+    @DisplayName("Обновление должно заменить запись и убрать старый email из индекса")
+    void updateUser_ShouldRefreshEntryAndDropOldEmail() {
+        when(delegate.getUserById(1L)).thenReturn(Optional.of(createUser(1L, "old@example.com")));
+        when(delegate.updateUser(1L, null, "new@example.com", null))
+                .thenReturn(createUser(1L, "new@example.com"));
+        when(delegate.getUserByEmail("old@example.com")).thenReturn(Optional.empty());
+        cachingService.getUserById(1L);
+
+        cachingService.updateUser(1L, null, "new@example.com", null);
+
+        assertThat(cachingService.getUserById(1L)).map(User::getEmail).contains("new@example.com");
+        assertThat(cachingService.getUserByEmail("old@example.com")).isEmpty();
+        assertThat(cachingService.getUserByEmail("new@example.com")).map(User::getId).contains(1L);
+        verify(delegate, times(1)).getUserById(1L);
+        verify(delegate, never()).getUserByEmail("new@example.com");
+    }
+
+    @Test
+    @DisplayName("Удаление должно инвалидировать запись даже при ошибке DAO")
+    void deleteUser_ShouldInvalidateEntry() {
+        when(delegate.getUserById(1L))
+                .thenReturn(Optional.of(createUser(1L, "test@example.com")))
+                .thenReturn(Optional.empty());
+        cachingService.getUserById(1L);
+        doThrow(new RuntimeException("Не удалось удалить пользователя")).when(delegate).deleteUser(1L);
+
+        assertThatThrownBy(() -> cachingService.deleteUser(1L)).isInstanceOf(RuntimeException.class);
+
+        assertThat(cachingService.getUserById(1L)).isEmpty();
+        verify(delegate, times(2)).getUserById(1L);
+    }
+
+    @Test
+    @DisplayName("Созданный пользователь должен сразу попадать в кэш")
+    void createUser_ShouldPopulateCache() {
+        when(delegate.createUser("User 1", "test@example.com", 25)).thenReturn(createUser(1L, "test@example.com"));
+
+        cachingService.createUser("User 1", "test@example.com", 25);
+
+        assertThat(cachingService.getUserById(1L)).isPresent();
+        verify(delegate, never()).getUserById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Кэш должен вытеснять записи сверх лимита и считать вытеснения")
+    void cache_ShouldEvictBeyondMaximumSize() {
+        CachingUserService small = new CachingUserService(delegate, 10, Duration.ofMinutes(5));
+        when(delegate.getUserById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(createUser(invocation.getArgument(0), "u"
+                        + invocation.getArgument(0) + "@example.com")));
+
+        for (long id = 1; id <= 100; id++) {
+            small.getUserById(id);
+        }
+
+        assertThat(small.getStats().size()).isLessThanOrEqualTo(10);
+        assertThat(small.getStats().evictions()).isGreaterThanOrEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("Кэш должен корректно работать при конкурентном доступе")
+    void cache_ShouldBeSafeUnderConcurrentAccess() throws Exception {
+        when(delegate.getUserById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(createUser(invocation.getArgument(0), "u"
+                        + invocation.getArgument(0) + "@example.com")));
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 16; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (long id = 1; id <= 1_000; id++) {
+                        assertThat(cachingService.getUserById(id % 50 + 1)).isPresent();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CachingUserService.Stats stats = cachingService.getStats();
+        assertThat(stats.hits() + stats.misses()).isEqualTo(16_000);
+        assertThat(stats.size()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Чтение, начатое до параллельной записи, не должно вернуть в кэш старую версию или удаленную строку")
+    void getUserById_ShouldNotCacheStaleLoad_WhenWriteRacesWithMiss() {
+        User stale = createUser(1L, "test@example.com");
+        stale.setVersion(0L);
+        User fresh = createUser(1L, "test@example.com");
+        fresh.setVersion(1L);
+        fresh.setAge(26);
+        when(delegate.modifyUser(eq(1L), any())).thenReturn(fresh);
+        // Запись завершается, пока чтение еще несет прочитанную до нее строку
+        when(delegate.getUserById(1L)).thenAnswer(invocation -> {
+            cachingService.modifyUser(1L, user -> user);
+            return Optional.of(stale);
+        });
+
+        cachingService.getUserById(1L);
+        assertThat(cachingService.getUserById(1L)).map(User::getAge).contains(26);
+
+        when(delegate.getUserById(2L)).thenAnswer(invocation -> {
+            cachingService.deleteUser(2L);
+            return Optional.of(createUser(2L, "deleted@example.com"));
+        }).thenReturn(Optional.empty());
+
+        cachingService.getUserById(2L);
+        assertThat(cachingService.getUserById(2L)).isEmpty();
+    }
+
+    private User createUser(Long id, String email) {
+        return User.builder()
+                .id(id)
+                .name("User " + id)
+                .email(email)
+                .age(25)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.service;
+
+import com.example.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingUserServiceTest {
+
+    private static final int CALLERS = 16;
+
+    @Mock
+    private UserService delegate;
+
+    private CoalescingUserService coalescingService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        coalescingService = new CoalescingUserService(delegate);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Одновременные запросы одного ID должны схлопываться в один вызов делегата")
+    void getUserById_ShouldCollapseConcurrentCalls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getUserById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(createUser(1L, "hot@example.com"));
+        });
+
+        List<Future<Optional<User>>> futures = submitAll(() -> coalescingService.getUserById(1L));
+        awaitCollapsed(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Optional<User>> future : futures) {
+            assertThat(future.get()).map(User::getEmail).contains("hot@example.com");
+        }
+        verify(delegate, times(1)).getUserById(1L);
+        assertThat(coalescingService.getStats().collapsed()).isEqualTo(CALLERS - 1);
+        assertThat(coalescingService.getStats().inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ошибка загрузки должна дойти до всех ожидающих и не оставить ключ в работе")
+    void getUserByEmail_ShouldPropagateFailureToAllWaiters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getUserByEmail("hot@example.com")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new RuntimeException("Не удалось получить пользователя");
+        });
+
+        List<Future<Optional<User>>> futures = submitAll(() -> coalescingService.getUserByEmail("hot@example.com"));
+        awaitCollapsed(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Optional<User>> future : futures) {
+            assertThatThrownBy(future::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasRootCauseMessage("Не удалось получить пользователя");
+        }
+        assertThat(coalescingService.getStats().inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Последовательные вызовы не должны схлопываться")
+    void getUserById_ShouldCallDelegateAgain_AfterCompletion() {
+        when(delegate.getUserById(1L)).thenReturn(Optional.of(createUser(1L, "hot@example.com")));
+
+        coalescingService.getUserById(1L);
+        coalescingService.getUserById(1L);
+
+        verify(delegate, times(2)).getUserById(1L);
+        assertThat(coalescingService.getStats().collapsed()).isZero();
+    }
+
+    @Test
+    @DisplayName("Запросы email в разном регистре должны разделять одну загрузку")
+    void getUserByEmail_ShouldCoalesceByNormalizedEmail() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getUserByEmail(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(createUser(1L, "hot@example.com"));
+        });
+
+        Future<Optional<User>> first = executor.submit(() -> coalescingService.getUserByEmail("hot@example.com"));
+        Future<Optional<User>> second = executor.submit(() -> coalescingService.getUserByEmail(" HOT@example.com"));
+        awaitCollapsed(1);
+        release.countDown();
+
+        assertThat(first.get()).isPresent();
+        assertThat(second.get()).isPresent();
+        verify(delegate, times(1)).getUserByEmail(anyString());
+    }
+
+    private List<Future<Optional<User>>> submitAll(Callable<Optional<User>> call) {
+        List<Future<Optional<User>>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(call));
+        }
+        return futures;
+    }
+
+    private void awaitCollapsed(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescingService.getStats().collapsed() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private User createUser(Long id, String email) {
+        return User.builder()
+                .id(id)
+                .name("User " + id)
+                .email(email)
+                .age(25)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -1,22 +1,26 @@
 package com.example.service;
 
 import com.example.dao.UserDao;
+import com.example.dao.UserView;
 import com.example.entity.User;
 import com.example.exception.DaoException;
+import com.example.exception.OptimisticLockConflictException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,7 +32,6 @@ class UserServiceImplTest {
     @Mock
     private UserDao userDao;
 
-    @InjectMocks
     private UserServiceImpl userService;
 
     @Captor
@@ -92,6 +95,16 @@ void createUser_ShouldCreateUserSuccessfully_WithArgumentCaptor() {
                 .hasMessageContaining("Не удалось создать пользователя");
     }
 
+    @Test
+    @DisplayName("Должен передать пачку пользователей в DAO одним вызовом")
+    void saveAll_ShouldDelegateToDaoInOneCall() {
+        List<User> users = List.of(createUser(null, "a@example.com"), createUser(null, "b@example.com"));
+        when(userDao.saveAll(users)).thenReturn(users);
+        List<User> result = userService.saveAll(users);
+        assertThat(result).hasSize(2);
+        verify(userDao, only()).saveAll(users);
+    }
+
     @Test
     @DisplayName("Должен вернуть пустой Optional при поиске по несуществующему ID")
     void getUserById_ShouldReturnEmptyOptional_WhenUserNotExists() {
@@ -110,6 +123,17 @@ void createUser_ShouldCreateUserSuccessfully_WithArgumentCaptor() {
                 .hasMessageContaining("Не удалось получить пользователя");
     }
 
+    @Test
+    @DisplayName("Должен загрузить пользователей по списку ID одним вызовом DAO")
+    void getUsersByIds_ShouldDelegateToDao() {
+        List<Long> ids = List.of(2L, 1L);
+        when(userDao.findAllByIds(ids)).thenReturn(Map.of(
+                2L, createUser(2L, "user2@example.com"),
+                1L, createUser(1L, "user1@example.com")));
+        assertThat(userService.getUsersByIds(ids)).hasSize(2);
+        verify(userDao, only()).findAllByIds(ids);
+    }
+
     @Test
     @DisplayName("Должен найти пользователя по email")
     void getUserByEmail_ShouldReturnUser() {
@@ -133,43 +157,133 @@ void createUser_ShouldCreateUserSuccessfully_WithArgumentCaptor() {
                 .containsExactly("user1@example.com", "user2@example.com");
     }
 
+    @Test
+    @DisplayName("Должен отдать пользователей потоком из DAO")
+    void streamAllUsers_ShouldDelegateToDao() {
+        when(userDao.streamAll(100)).thenReturn(Stream.of(
+                createUser(1L, "user1@example.com"),
+                createUser(2L, "user2@example.com")));
+        try (Stream<User> result = userService.streamAllUsers(100)) {
+            assertThat(result).extracting(User::getEmail)
+                    .containsExactly("user1@example.com", "user2@example.com");
+        }
+    }
+
+    @Test
+    @DisplayName("Список для отображения должен идти из проекций DAO, а не из сущностей")
+    void streamUserViews_ShouldDelegateToDaoViews() {
+        when(userDao.streamViews(100)).thenReturn(Stream.of(
+                new UserView(1L, "User 1", "user1@example.com"),
+                new UserView(2L, "User 2", "user2@example.com")));
+        try (Stream<UserView> result = userService.streamUserViews(100)) {
+            assertThat(result).extracting(UserView::email)
+                    .containsExactly("user1@example.com", "user2@example.com");
+        }
+        verify(userDao, never()).streamAll(anyInt());
+    }
+
     @Test
     @DisplayName("Должен обновить только указанные поля")
     void updateUser_ShouldUpdateOnlySpecifiedFields() {
-        User existingUser = createUser(1L, "test@example.com");
-        existingUser.setAge(25);
-        when(userDao.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userDao.update(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        User updatedUser = createUser(1L, "test@example.com");
+        updatedUser.setName("New Name");
+        when(userDao.updateFields(1L, "New Name", null, null)).thenReturn(Optional.of(updatedUser));
         User result = userService.updateUser(1L, "New Name", null, null);
         assertThat(result.getName()).isEqualTo("New Name");
         assertThat(result.getEmail()).isEqualTo("test@example.com");
         assertThat(result.getAge()).isEqualTo(25);
 
-        verify(userDao).update(argThat(user ->
-                user.getName().equals("New Name") &&
-                        user.getEmail().equals("test@example.com") &&
-                        user.getAge() == 25
-        ));
+        verify(userDao, only()).updateFields(1L, "New Name", null, null);
+        verify(userDao, never()).findById(anyLong());
     }
 
     @Test
     @DisplayName("Должен выбросить RuntimeException при обновлении несуществующего пользователя")
     void updateUser_ShouldThrowRuntimeException_WhenUserNotFound() {
-        when(userDao.findById(999L)).thenReturn(Optional.empty());
+        when(userDao.updateFields(999L, "New Name", null, null)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> userService.updateUser(999L, "New Name", null, null))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Пользователь не найден");
 
         verify(userDao, never()).update(any());
     }
+
+    @Test
+    @DisplayName("При конфликте версий изменение должно примениться заново к свежей копии")
+    void modifyUser_ShouldRetryOnVersionConflict() {
+        userService = new UserServiceImpl(userDao, 3, Duration.ZERO);
+        when(userDao.findById(1L)).thenReturn(
+                Optional.of(createUser(1L, "test@example.com")),
+                Optional.of(createUser(1L, "test@example.com")));
+        when(userDao.update(any(User.class)))
+                .thenThrow(new OptimisticLockConflictException(1L, 0L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        User result = userService.modifyUser(1L, user -> {
+            user.setAge(user.getAge() + 1);
+            return user;
+        });
+
+        assertThat(result.getAge()).isEqualTo(26);
+        verify(userDao, times(2)).findById(1L);
+        assertThat(userService.getUpdateStats())
+                .isEqualTo(new UserServiceImpl.UpdateStats(1, 1, 0));
+    }
+
+    @Test
+    @DisplayName("После исчерпания попыток конфликт должен дойти до вызывающего")
+    void modifyUser_ShouldGiveUp_AfterMaxAttempts() {
+        userService = new UserServiceImpl(userDao, 3, Duration.ZERO);
+        when(userDao.findById(1L)).thenAnswer(invocation -> Optional.of(createUser(1L, "test@example.com")));
+        when(userDao.update(any(User.class))).thenThrow(new OptimisticLockConflictException(1L, 0L));
+
+        assertThatThrownBy(() -> userService.modifyUser(1L, user -> user))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("конфликт параллельных изменений")
+                .hasCauseInstanceOf(OptimisticLockConflictException.class);
+
+        verify(userDao, times(3)).update(any(User.class));
+        assertThat(userService.getUpdateStats())
+                .isEqualTo(new UserServiceImpl.UpdateStats(3, 2, 1));
+    }
+
+    @Test
+    @DisplayName("Прочие ошибки DAO при изменении не должны повторяться")
+    void modifyUser_ShouldNotRetryOtherDaoErrors() {
+        when(userDao.findById(1L)).thenReturn(Optional.of(createUser(1L, "test@example.com")));
+        when(userDao.update(any(User.class))).thenThrow(new DaoException("Ошибка обновления пользователя"));
+
+        assertThatThrownBy(() -> userService.modifyUser(1L, user -> user))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Не удалось обновить пользователя");
+
+        verify(userDao, times(1)).update(any(User.class));
+        assertThat(userService.getUpdateStats().conflicts()).isZero();
+    }
     @Test
     @DisplayName("Должен успешно удалить пользователя")
     void deleteUser_ShouldDeleteUserSuccessfully() {
-        doNothing().when(userDao).delete(1L);
-        userService.deleteUser(1L);
+        when(userDao.delete(1L)).thenReturn(true);
+        assertThat(userService.deleteUser(1L)).isTrue();
         verify(userDao, times(1)).delete(1L);
     }
 
+    @Test
+    @DisplayName("Должен сообщить, что удалять было нечего")
+    void deleteUser_ShouldReturnFalse_WhenUserNotExists() {
+        when(userDao.delete(999L)).thenReturn(false);
+        assertThat(userService.deleteUser(999L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Должен удалить пачку пользователей одним вызовом DAO")
+    void deleteUsers_ShouldDelegateToDao() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(userDao.deleteAll(ids)).thenReturn(3);
+        assertThat(userService.deleteUsers(ids)).isEqualTo(3);
+        verify(userDao, only()).deleteAll(ids);
+    }
+
     @Test
     @DisplayName("Должен выбросить RuntimeException при ошибке удаления")
     void deleteUser_ShouldThrowRuntimeException_WhenDaoFails() {
@@ -0,0 +1,162 @@
+package com.example.service;
+
+import com.example.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VirtualThreadUserServiceTest {
+
+    private static final int MAX_CONCURRENCY = 4;
+
+    @Mock
+    private UserService delegate;
+
+    private VirtualThreadUserService asyncService;
+
+    @BeforeEach
+    void setUp() {
+        asyncService = new VirtualThreadUserService(delegate, MAX_CONCURRENCY, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncService.close();
+    }
+
+    @Test
+    @DisplayName("Результат делегата должен вернуться через future")
+    void getUserById_ShouldCompleteWithDelegateResult() throws Exception {
+        when(delegate.getUserById(1L)).thenReturn(Optional.of(createUser(1L)));
+
+        Optional<User> result = asyncService.getUserById(1L).get(5, TimeUnit.SECONDS);
+
+        assertThat(result).map(User::getId).contains(1L);
+    }
+
+    @Test
+    @DisplayName("Тысяча одновременных вызовов не должна превышать лимит соединений")
+    void bulkhead_ShouldCapConcurrentDelegateCalls() throws Exception {
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(delegate.getUserById(anyLong())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            current.decrementAndGet();
+            return Optional.of(createUser(invocation.getArgument(0)));
+        });
+
+        List<CompletableFuture<Optional<User>>> futures = new ArrayList<>();
+        for (long id = 0; id < 1000; id++) {
+            futures.add(asyncService.getUserById(id));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertThat(peak.get()).isLessThanOrEqualTo(MAX_CONCURRENCY).isPositive();
+        assertThat(asyncService.getStats().inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ошибка делегата должна завершать future исключением")
+    void createUser_ShouldCompleteExceptionally_WhenDelegateFails() {
+        when(delegate.createUser("Test", "test@example.com", 25))
+                .thenThrow(new RuntimeException("Не удалось создать пользователя"));
+
+        assertThatThrownBy(() -> asyncService.createUser("Test", "test@example.com", 25).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("Не удалось создать пользователя");
+    }
+
+    @Test
+    @DisplayName("Таймаут должен прерывать выполняющийся запрос и освобождать разрешение")
+    void timeout_ShouldInterruptRunningCall() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(delegate.getUserById(1L)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Optional.empty();
+        });
+
+        try (VirtualThreadUserService shortTimeout =
+                     new VirtualThreadUserService(delegate, MAX_CONCURRENCY, Duration.ofMillis(50))) {
+            assertThatThrownBy(() -> shortTimeout.getUserById(1L).get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(TimeoutException.class);
+
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(shortTimeout.getStats().timeouts()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Отмена ожидающего запроса не должна доходить до делегата")
+    void cancel_ShouldSkipDelegate_WhenWaitingForPermit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(MAX_CONCURRENCY);
+        when(delegate.getUserById(anyLong())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        List<CompletableFuture<Optional<User>>> running = new ArrayList<>();
+        for (long id = 0; id < MAX_CONCURRENCY; id++) {
+            running.add(asyncService.getUserById(id));
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Optional<User>> waiting = asyncService.getUserById(99L);
+        assertThat(waiting.cancel(true)).isTrue();
+        release.countDown();
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(waiting::join).isInstanceOf(CancellationException.class);
+        verify(delegate, never()).getUserById(99L);
+        assertThat(asyncService.getStats().cancellations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("После закрытия новые запросы должны отклоняться")
+    void close_ShouldRejectNewCalls() {
+        asyncService.close();
+
+        assertThatThrownBy(() -> asyncService.deleteUser(1L).join())
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        verifyNoInteractions(delegate);
+    }
+
+    private User createUser(Long id) {
+        return User.builder()
+                .id(id)
+                .name("User " + id)
+                .email("user" + id + "@example.com")
+                .age(25)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.util;
+
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import com.example.exception.DaoException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Environment;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConnectionPoolLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolLoadTest.class);
+
+    private static final int CALLERS = 64;
+    private static final int CALLS_PER_CALLER = 200;
+    private static final int POOL_SIZE = 10;
+
+    private SessionFactory builtInPoolFactory;
+    private SessionFactory hikariFactory;
+    private HikariDataSource dataSource;
+    private final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+    private List<Long> ids;
+
+    @BeforeAll
+    void setUpAll() {
+        String url = "jdbc:h2:mem:pool_load;DB_CLOSE_DELAY=-1";
+        builtInPoolFactory = EmbeddedHibernateUtil.buildSessionFactoryForUrl(url,
+                Map.of(Environment.POOL_SIZE, String.valueOf(POOL_SIZE)));
+
+        Map<String, Object> poolSettings = new HashMap<>();
+        poolSettings.put(Environment.URL, url);
+        poolSettings.put(Environment.USER, "sa");
+        poolSettings.put(Environment.PASS, "");
+        poolSettings.put(DataSourceFactory.POOL_PREFIX + "maximumPoolSize", String.valueOf(POOL_SIZE));
+        poolSettings.put(DataSourceFactory.POOL_PREFIX + "minimumIdle", String.valueOf(POOL_SIZE));
+        dataSource = DataSourceFactory.create(poolSettings, metrics);
+        hikariFactory = EmbeddedHibernateUtil.buildSessionFactoryForUrl(url,
+                Map.of(Environment.DATASOURCE, dataSource, Environment.HBM2DDL_AUTO, "none"));
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(User.builder()
+                    .name("Pool User " + i)
+                    .email("pool" + i + "@example.com")
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        ids = new UserDaoImpl(builtInPoolFactory).saveAll(users).stream().map(User::getId).toList();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        hikariFactory.close();
+        dataSource.close();
+        builtInPoolFactory.close();
+    }
+
+    @Test
+    @DisplayName("Пул HikariCP должен выдерживать 64 параллельных клиента и отдавать метрики")
+    void hikariPool_ShouldServeConcurrentCallers() throws Exception {
+        LoadResult builtIn = runLoad(new UserDaoImpl(builtInPoolFactory));
+        LoadResult hikari = runLoad(new UserDaoImpl(hikariFactory));
+
+        logger.debug("Встроенный пул: {}, HikariCP: {}", builtIn, hikari);
+
+        ConnectionPoolMetrics.Snapshot snapshot = metrics.snapshot();
+        logger.debug("Метрики HikariCP: {}", snapshot);
+        assertThat(hikari.errors()).isZero();
+        assertThat(hikari.latencies()).hasSize(CALLERS * CALLS_PER_CALLER);
+        assertThat(snapshot.acquisitions()).isGreaterThanOrEqualTo(CALLERS * CALLS_PER_CALLER);
+        assertThat(snapshot.timeouts()).isZero();
+        assertThat(snapshot.active()).isZero();
+        assertThat(snapshot.total()).isEqualTo(POOL_SIZE);
+    }
+
+    // Встроенный пул Hibernate не ждет освобождения соединения, а сразу падает, поэтому ошибки считаются отдельно
+    private LoadResult runLoad(UserDao userDao) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger errors = new AtomicInteger();
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int caller = 0; caller < CALLERS; caller++) {
+                int offset = caller;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long[] latencies = new long[CALLS_PER_CALLER];
+                    int completed = 0;
+                    for (int i = 0; i < CALLS_PER_CALLER; i++) {
+                        long begin = System.nanoTime();
+                        try {
+                            userDao.findById(ids.get((offset + i) % ids.size()));
+                            latencies[completed++] = System.nanoTime() - begin;
+                        } catch (DaoException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return Arrays.copyOf(latencies, completed);
+                }));
+            }
+            start.countDown();
+
+            long[] all = new long[CALLERS * CALLS_PER_CALLER];
+            int position = 0;
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                System.arraycopy(latencies, 0, all, position, latencies.length);
+                position += latencies.length;
+            }
+            long[] completed = Arrays.copyOf(all, position);
+            Arrays.sort(completed);
+            return new LoadResult(completed, errors.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private record LoadResult(long[] latencies, int errors) {
+
+        @Override
+        public String toString() {
+            if (latencies.length == 0) {
+                return String.format("errors=%d", errors);
+            }
+            return String.format("ok=%d, errors=%d, p50=%.3f ms, p99=%.3f ms, p999=%.3f ms, max=%.3f ms",
+                    latencies.length, errors, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), latencies[latencies.length - 1] / 1_000_000.0);
+        }
+    }
+}
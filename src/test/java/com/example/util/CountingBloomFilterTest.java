@@ -0,0 +1,69 @@
+package com.example.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CountingBloomFilterTest {
+
+    @Test
+    @DisplayName("Добавленные значения всегда должны находиться, доля ложных срабатываний - около заданной")
+    void mightContain_ShouldHaveNoFalseNegativesAndBoundedFalsePositives() {
+        CountingBloomFilter filter = CountingBloomFilter.create(10_000, 0.01, 1024 * 1024);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    @Test
+    @DisplayName("Удалённое значение не должно находиться, остальные должны остаться")
+    void remove_ShouldForgetOnlyRemovedValue() {
+        CountingBloomFilter filter = CountingBloomFilter.create(1_000, 0.001, 64 * 1024);
+        filter.add("keep@example.com");
+        filter.add("drop@example.com");
+
+        filter.remove("drop@example.com");
+
+        assertThat(filter.mightContain("drop@example.com")).isFalse();
+        assertThat(filter.mightContain("keep@example.com")).isTrue();
+        assertThat(filter.approximateItems()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Насыщенный счётчик не должен уменьшаться")
+    void remove_ShouldKeepSaturatedCounters() {
+        CountingBloomFilter filter = new CountingBloomFilter(64, 1);
+        for (int i = 0; i < 20; i++) {
+            filter.add("hot@example.com");
+        }
+        for (int i = 0; i < 20; i++) {
+            filter.remove("hot@example.com");
+        }
+
+        assertThat(filter.mightContain("hot@example.com")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Размер должен ограничиваться бюджетом памяти")
+    void create_ShouldRespectMemoryBudget() {
+        CountingBloomFilter filter = CountingBloomFilter.create(1_000_000, 0.001, 64 * 1024);
+
+        assertThat(filter.sizeBytes()).isLessThanOrEqualTo(64 * 1024);
+        assertThat(filter.counters()).isEqualTo(128 * 1024);
+        assertThatThrownBy(() -> CountingBloomFilter.create(100, 1.5, 1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
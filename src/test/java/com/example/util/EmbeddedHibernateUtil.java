@@ -0,0 +1,63 @@
+package com.example.util;
+
+import com.example.entity.User;
+import com.example.entity.UserIdMove;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.Environment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class EmbeddedHibernateUtil {
+
+    private EmbeddedHibernateUtil() {
+    }
+
+    public static SessionFactory buildSessionFactory(String databaseName) {
+        return buildSessionFactory(databaseName, Map.of());
+    }
+
+    public static SessionFactory buildSessionFactory(String databaseName, Map<String, Object> overrides) {
+        return buildSessionFactoryForUrl("jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1", overrides);
+    }
+
+    public static SessionFactory buildSessionFactoryForUrl(String url, Map<String, Object> overrides) {
+        try {
+            Map<String, Object> settings = new HashMap<>();
+            settings.put(Environment.DRIVER, "org.h2.Driver");
+            settings.put(Environment.URL, url);
+            settings.put(Environment.USER, "sa");
+            settings.put(Environment.PASS, "");
+            settings.put(Environment.DIALECT, "org.hibernate.dialect.H2Dialect");
+            settings.put(Environment.HBM2DDL_AUTO, "create-drop");
+            settings.put(Environment.STATEMENT_BATCH_SIZE, "50");
+            settings.put(Environment.ORDER_INSERTS, "true");
+            settings.put(Environment.ORDER_UPDATES, "true");
+            // hibernate-jcache в classpath включает кэш второго уровня сам; тесты включают его явно
+            settings.put(Environment.USE_SECOND_LEVEL_CACHE, "false");
+            settings.putAll(overrides);
+            if (overrides.containsKey(Environment.DATASOURCE)) {
+                settings.keySet().removeIf(DataSourceFactory::isPoolSetting);
+            }
+
+            StandardServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+                    .applySettings(settings)
+                    .build();
+
+            Metadata metadata = new MetadataSources(serviceRegistry)
+                    .addAnnotatedClass(User.class)
+                    .addAnnotatedClass(UserIdMove.class)
+                    .getMetadataBuilder()
+                    .build();
+
+            return metadata.getSessionFactoryBuilder().build();
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create embedded session factory", e);
+        }
+    }
+}
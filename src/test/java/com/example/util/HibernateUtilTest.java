@@ -0,0 +1,106 @@
+package com.example.util;
+
+import com.example.dao.ShardedUserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HibernateUtilTest {
+
+    private HibernateUtil.Bootstrap bootstrap;
+
+    @BeforeAll
+    void setUpAll() {
+        bootstrap = HibernateUtil.bootstrap("hibernate-h2.cfg.xml", new ConnectionPoolMetrics());
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        bootstrap.close();
+    }
+
+    @Test
+    @DisplayName("User должен регистрироваться один раз из <mapping> в cfg.xml")
+    void bootstrap_ShouldRegisterUserOnceFromCfgMapping() {
+        SessionFactoryImplementor factory = bootstrap.sessionFactory().unwrap(SessionFactoryImplementor.class);
+
+        assertThat(factory.getMappingMetamodel().getEntityDescriptor(User.class)).isNotNull();
+        assertThat(factory.getJpaMetamodel().getEntities()).extracting(EntityType::getName)
+                .containsExactlyInAnyOrder("User", "UserIdMove");
+    }
+
+    @Test
+    @DisplayName("Соединения должны идти через пул HikariCP из cfg.xml")
+    void bootstrap_ShouldUseHikariPoolFromCfg() {
+        assertThat(bootstrap.dataSource().getPoolName()).isEqualTo("user-service-test-pool");
+        assertThat(bootstrap.dataSource().getMaximumPoolSize()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Схема создается только явным шагом, после чего валидация проходит")
+    void bootstrap_ShouldNotTouchSchemaUntilExplicitExport() {
+        SessionFactory factory = bootstrap.sessionFactory();
+        assertThatThrownBy(() -> factory.getSchemaManager().validateMappedObjects())
+                .hasMessageContaining("missing table");
+
+        factory.getSchemaManager().exportMappedObjects(true);
+        factory.getSchemaManager().validateMappedObjects();
+
+        User saved = new UserDaoImpl(factory).save(User.builder()
+                .name("Bootstrap")
+                .email("bootstrap@example.com")
+                .createdAt(LocalDateTime.now())
+                .build());
+        assertThat(saved.getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Реплики из cfg.xml должны получать свои пулы и обслуживать чтения DAO")
+    void bootstrap_ShouldBuildReplicasFromCfg() {
+        try (HibernateUtil.Bootstrap replicated = HibernateUtil.bootstrap("hibernate-h2-replicas.cfg.xml",
+                new ConnectionPoolMetrics())) {
+            assertThat(replicated.replicas()).extracting(replica -> replica.dataSource().getPoolName())
+                    .containsExactly("user-service-replica-test-pool-replica-1", "user-service-replica-test-pool-replica-2");
+            assertThat(replicated.router().replicas()).hasSize(2);
+
+            replicated.sessionFactory().getSchemaManager().exportMappedObjects(true);
+            replicated.replicas().forEach(replica -> replica.sessionFactory().getSchemaManager().exportMappedObjects(true));
+            UserDaoImpl userDao = new UserDaoImpl(replicated.sessionFactory(), replicated.router());
+            User saved = userDao.save(User.builder()
+                    .name("Replicated")
+                    .email("replicated@example.com")
+                    .createdAt(LocalDateTime.now())
+                    .build());
+
+            // Репликации между базами H2 нет: строка видна только на primary
+            assertThat(userDao.findById(saved.getId())).isEmpty();
+            assertThat(replicated.router().getStats().replicaReads()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Шарды должны получать свои пулы и раздельные регионы кэша второго уровня")
+    void openShards_ShouldSeparatePoolsAndCacheRegions() {
+        try (HibernateUtil.ShardSet shards = HibernateUtil.openShards("hibernate-h2.cfg.xml", List.of(
+                "jdbc:h2:mem:open_shard_0;DB_CLOSE_DELAY=-1", "jdbc:h2:mem:open_shard_1;DB_CLOSE_DELAY=-1"))) {
+            assertThat(shards.sessionFactories()).hasSize(2)
+                    .extracting(factory -> factory.getProperties().get(AvailableSettings.CACHE_REGION_PREFIX))
+                    .containsExactly("shard-0", "shard-1");
+
+            shards.sessionFactories().forEach(factory -> factory.getSchemaManager().exportMappedObjects(true));
+            ShardedUserDao userDao = new ShardedUserDao(shards.sessionFactories());
+            User saved = userDao.save(User.builder().name("Sharded").email("sharded@example.com").build());
+            assertThat(userDao.findByEmail("sharded@example.com")).map(User::getId).contains(saved.getId());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LoggingControlTest {
+
+    @AfterEach
+    void tearDown() {
+        LoggingControl.setSqlLogging(false);
+    }
+
+    @Test
+    @DisplayName("SQL-логирование должно быть выключено по умолчанию")
+    void sqlLogging_ShouldBeDisabledByDefault() {
+        assertThat(LoggingControl.isSqlLoggingEnabled()).isFalse();
+        assertThat(LoggerFactory.getLogger(LoggingControl.BIND_LOGGER).isTraceEnabled()).isFalse();
+    }
+
+    @Test
+    @DisplayName("SQL-логирование должно включаться и выключаться без перезапуска")
+    void setSqlLogging_ShouldToggleSqlAndBindLoggers() {
+        LoggingControl.setSqlLogging(true);
+
+        assertThat(LoggingControl.isSqlLoggingEnabled()).isTrue();
+        assertThat(LoggerFactory.getLogger(LoggingControl.BIND_LOGGER).isTraceEnabled()).isTrue();
+
+        LoggingControl.setSqlLogging(false);
+
+        assertThat(LoggingControl.isSqlLoggingEnabled()).isFalse();
+    }
+}
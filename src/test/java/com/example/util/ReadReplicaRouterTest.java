@@ -0,0 +1,99 @@
+package com.example.util;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReadReplicaRouterTest {
+
+    private SessionFactory primary;
+    private SessionFactory first;
+    private SessionFactory second;
+    private final AtomicInteger firstActive = new AtomicInteger();
+    private final AtomicInteger secondActive = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        primary = mock(SessionFactory.class);
+        first = mock(SessionFactory.class);
+        second = mock(SessionFactory.class);
+    }
+
+    @Test
+    @DisplayName("Round-robin должен чередовать реплики и не трогать primary")
+    void forRead_ShouldAlternateReplicas_WhenRoundRobin() {
+        ReadReplicaRouter router = router(ReadReplicaRouter.Strategy.ROUND_ROBIN, Duration.ofSeconds(1));
+
+        List<SessionFactory> picked = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            picked.add(router.forRead(i));
+        }
+
+        assertThat(picked).containsExactly(first, second, first, second);
+        assertThat(router.getStats()).isEqualTo(new ReadReplicaRouter.Stats(0, 4, 2));
+    }
+
+    @Test
+    @DisplayName("Least-connections должен выбирать реплику с меньшим числом активных соединений")
+    void forRead_ShouldPickLeastLoadedReplica() {
+        ReadReplicaRouter router = router(ReadReplicaRouter.Strategy.LEAST_CONNECTIONS, Duration.ofSeconds(1));
+        firstActive.set(5);
+        secondActive.set(1);
+
+        assertThat(router.forRead()).isSameAs(second);
+        assertThat(router.forRead()).isSameAs(second);
+
+        secondActive.set(9);
+        assertThat(router.forRead()).isSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Только что записанный ключ и списки должны читаться с primary до конца окна")
+    void forRead_ShouldStickToPrimary_WithinReadYourWritesWindow() throws InterruptedException {
+        ReadReplicaRouter router = router(ReadReplicaRouter.Strategy.ROUND_ROBIN, Duration.ofMillis(200));
+
+        router.recordWrite(List.of(42L, "written@example.com"));
+
+        assertThat(router.forRead(42L)).isSameAs(primary);
+        assertThat(router.forRead("written@example.com")).isSameAs(primary);
+        assertThat(router.forRead()).isSameAs(primary);
+        assertThat(router.forRead(7L)).isNotSameAs(primary);
+
+        Thread.sleep(300);
+        assertThat(router.forRead(42L)).isNotSameAs(primary);
+        assertThat(router.forRead()).isNotSameAs(primary);
+    }
+
+    @Test
+    @DisplayName("Без реплик все чтения должны идти на primary")
+    void forRead_ShouldUsePrimary_WhenNoReplicas() {
+        ReadReplicaRouter router = ReadReplicaRouter.primaryOnly(primary);
+
+        assertThat(router.forRead()).isSameAs(primary);
+        assertThat(router.forRead(1L)).isSameAs(primary);
+    }
+
+    @Test
+    @DisplayName("Стратегия должна разбираться из значения в cfg.xml")
+    void strategy_ShouldParseConfigValue() {
+        assertThat(ReadReplicaRouter.Strategy.parse(" least-connections")).isEqualTo(ReadReplicaRouter.Strategy.LEAST_CONNECTIONS);
+        assertThatThrownBy(() -> ReadReplicaRouter.Strategy.parse("random"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("random");
+    }
+
+    private ReadReplicaRouter router(ReadReplicaRouter.Strategy strategy, Duration window) {
+        return new ReadReplicaRouter(primary, List.of(
+                new ReadReplicaRouter.Replica("replica-1", first, firstActive::get),
+                new ReadReplicaRouter.Replica("replica-2", second, secondActive::get)), strategy, window);
+    }
+}
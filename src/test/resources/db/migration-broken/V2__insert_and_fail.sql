@@ -0,0 +1,2 @@
+INSERT INTO accounts (id, email) VALUES (2, 'rolled-back@example.com');
+INSERT INTO missing_table (id) VALUES (1);
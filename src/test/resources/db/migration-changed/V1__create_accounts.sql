@@ -0,0 +1,5 @@
+-- Тот же V1, но изменённый после применения
+CREATE TABLE accounts (
+    id    BIGINT       NOT NULL PRIMARY KEY,
+    email VARCHAR(200) NOT NULL
+);
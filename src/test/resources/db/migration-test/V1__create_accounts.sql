@@ -0,0 +1,7 @@
+-- Тестовая схема для MigrationRunnerTest
+CREATE TABLE accounts (
+    id    BIGINT       NOT NULL PRIMARY KEY,
+    email VARCHAR(100) NOT NULL
+);
+
+INSERT INTO accounts (id, email) VALUES (1, 'semi;colon@example.com');
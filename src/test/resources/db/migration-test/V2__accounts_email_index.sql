@@ -0,0 +1,2 @@
+-- migration:no-transaction
+CREATE UNIQUE INDEX idx_accounts_email ON accounts (email);